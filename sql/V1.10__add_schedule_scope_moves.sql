@@ -0,0 +1,17 @@
+-- =============================================
+-- 数据库迁移脚本 V1.10
+-- 新增日程归属迁移记录表：日程在个人/群组之间迁移后，原作用域成员的增量同步据此收到删除墓碑
+-- 执行时间: 2026-10-17
+-- =============================================
+
+-- user_id / group_id 为迁移前的归属，group_id 为 NULL 表示迁出前是该用户的个人日程
+CREATE TABLE IF NOT EXISTS schedule_scope_moves (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '自增主键',
+    schedule_id VARCHAR(64) NOT NULL COMMENT '日程ID',
+    user_id VARCHAR(64) NOT NULL COMMENT '迁移前的创建者用户ID',
+    group_id VARCHAR(64) DEFAULT NULL COMMENT '迁移前的群组ID, NULL表示个人日程',
+    moved_at DATETIME NOT NULL COMMENT '迁移时间（与日程 updated_at 同在提交前写入）',
+    PRIMARY KEY (id),
+    KEY idx_user_moved (user_id, moved_at),
+    KEY idx_group_moved (group_id, moved_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程归属迁移记录表';
@@ -0,0 +1,10 @@
+-- =============================================
+-- 数据库迁移脚本 V1.11
+-- 日程表新增提醒索引：提醒调度按 (提前量, 日期) 范围加载窗口内的提醒，不再按主键扫描全表
+-- 执行时间: 2026-10-17
+-- =============================================
+
+-- 非重复日程的提醒：reminder_minutes = ? AND schedule_date BETWEEN ? AND ?，按提前量逐个取值查询
+-- 提前量取值由 SELECT DISTINCT reminder_minutes 在同一索引上松散扫描得到
+ALTER TABLE schedules
+ADD INDEX idx_reminder_date (reminder_minutes, schedule_date);
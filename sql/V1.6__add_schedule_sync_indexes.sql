@@ -0,0 +1,13 @@
+-- =============================================
+-- 数据库迁移脚本 V1.6
+-- 为日程增量同步 (GET /schedules/changes) 添加索引
+-- 执行时间: 2026-10-17
+-- =============================================
+
+-- 个人日程按更新时间的 keyset 扫描 (InnoDB 二级索引隐含主键 schedule_id，覆盖 (updated_at, schedule_id) 排序)
+ALTER TABLE schedules
+ADD INDEX idx_user_updated (user_id, updated_at);
+
+-- 群组日程按更新时间的 keyset 扫描
+ALTER TABLE schedules
+ADD INDEX idx_group_updated (group_id, updated_at);
@@ -0,0 +1,10 @@
+-- =============================================
+-- 数据库迁移脚本 V1.7
+-- 个人 / 群组日程范围查询拆分为两个索引对齐的查询，为群组部分添加索引
+-- 执行时间: 2026-10-17
+-- =============================================
+
+-- 群组日程按日期范围查询：group_id IN (...) AND schedule_date BETWEEN ? AND ? AND is_deleted = 0
+-- 个人部分使用已有的 idx_user_date (user_id, schedule_date)
+ALTER TABLE schedules
+ADD INDEX idx_group_date_deleted (group_id, schedule_date, is_deleted);
@@ -0,0 +1,30 @@
+-- =============================================
+-- 数据库迁移脚本 V1.8
+-- 新增日程统计日汇总表，统计接口改为读取汇总而不是逐条扫描日程
+-- 执行时间: 2026-10-17
+-- =============================================
+
+-- 作用域: 'u:' + user_id 表示个人日程，'g:' + group_id 表示群组日程
+CREATE TABLE IF NOT EXISTS schedule_daily_stats (
+    scope_key VARCHAR(80) NOT NULL COMMENT '作用域 (u:用户ID / g:群组ID)',
+    stat_date DATE NOT NULL COMMENT '日程日期',
+    category VARCHAR(50) NOT NULL COMMENT '日程分类',
+    schedule_count INT NOT NULL DEFAULT 0 COMMENT '日程数',
+    duration_minutes BIGINT NOT NULL DEFAULT 0 COMMENT '定时日程总时长（分钟）',
+    color VARCHAR(20) DEFAULT NULL COMMENT '分类代表色',
+    PRIMARY KEY (scope_key, stat_date, category)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程统计日汇总表';
+
+-- 由现有日程回填，口径与 StatsRollupService.rebuildAll 一致
+INSERT INTO schedule_daily_stats
+    (scope_key, stat_date, category, schedule_count, duration_minutes, color)
+SELECT IF(group_id IS NULL, CONCAT('u:', user_id), CONCAT('g:', group_id)) AS scope,
+       schedule_date,
+       COALESCE(category, '其他'),
+       COUNT(*),
+       SUM(CASE WHEN is_all_day = 1 OR start_time IS NULL OR end_time IS NULL THEN 0
+                ELSE MOD(TIME_TO_SEC(end_time) - TIME_TO_SEC(start_time) + 86400, 86400) DIV 60 END),
+       MAX(color)
+FROM schedules
+WHERE is_deleted = 0
+GROUP BY scope, schedule_date, COALESCE(category, '其他');
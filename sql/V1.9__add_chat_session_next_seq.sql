@@ -0,0 +1,14 @@
+-- =============================================
+-- 数据库迁移脚本 V1.9
+-- 会话表新增消息序号分配列，发送消息时原子递增分配序号，不再查询 MAX(sequence_num)
+-- 执行时间: 2026-10-17
+-- =============================================
+
+ALTER TABLE chat_sessions
+    ADD COLUMN next_seq INT NOT NULL DEFAULT 0 COMMENT '已分配的最大消息序号' AFTER message_count;
+
+-- 由现有消息回填
+UPDATE chat_sessions s
+    JOIN (SELECT session_id, MAX(sequence_num) AS max_seq FROM chat_messages GROUP BY session_id) m
+    ON m.session_id = s.session_id
+SET s.next_seq = m.max_seq;
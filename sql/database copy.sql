@@ -7,6 +7,12 @@
 -- v1.3: 新增日程表字段 (category, is_ai_generated)
 -- v1.4: 新增日程表字段 (is_important)
 -- v1.5: 更新群组表结构 (description, created_at, joined_at)
+-- v1.6: 日程表新增增量同步索引 (idx_user_updated, idx_group_updated)
+-- v1.7: 日程表新增群组日期范围索引 (idx_group_date_deleted)
+-- v1.8: 新增日程统计日汇总表 (schedule_daily_stats)
+-- v1.9: 会话表新增消息序号分配列 (next_seq)
+-- v1.10: 新增日程归属迁移记录表 (schedule_scope_moves)
+-- v1.11: 日程表新增提醒索引 (idx_reminder_date)
 -- =============================================
 
 drop database if exists speed_calendar;
@@ -26,6 +32,8 @@ DROP TABLE IF EXISTS activity_messages;
 DROP TABLE IF EXISTS user_tokens;
 DROP TABLE IF EXISTS user_privacy_settings;
 DROP TABLE IF EXISTS verification_codes;
+DROP TABLE IF EXISTS schedule_scope_moves;
+DROP TABLE IF EXISTS schedule_daily_stats;
 DROP TABLE IF EXISTS schedule_attachments;
 DROP TABLE IF EXISTS schedules;
 DROP TABLE IF EXISTS chat_messages;
@@ -223,6 +231,10 @@ CREATE TABLE schedules (
     KEY idx_group_id (group_id),
     KEY idx_schedule_date (schedule_date),
     KEY idx_user_date (user_id, schedule_date),
+    KEY idx_user_updated (user_id, updated_at),
+    KEY idx_group_updated (group_id, updated_at),
+    KEY idx_group_date_deleted (group_id, schedule_date, is_deleted),
+    KEY idx_reminder_date (reminder_minutes, schedule_date),
     CONSTRAINT fk_schedules_user FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     CONSTRAINT fk_schedules_group FOREIGN KEY (group_id) REFERENCES `group`(id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程表';
@@ -243,6 +255,31 @@ CREATE TABLE schedule_attachments (
     CONSTRAINT fk_schedule_attachments_schedule FOREIGN KEY (schedule_id) REFERENCES schedules(schedule_id) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程附件表';
 
+-- =============================================
+-- 表6.2: schedule_daily_stats (日程统计日汇总表) - v1.8 新增
+-- 作用域: 'u:' + user_id 表示个人日程，'g:' + group_id 表示群组日程
+-- =============================================
+CREATE TABLE schedule_daily_stats (
+    scope_key VARCHAR(80) NOT NULL COMMENT '作用域 (u:用户ID / g:群组ID)',
+    stat_date DATE NOT NULL COMMENT '日程日期',
+    category VARCHAR(50) NOT NULL COMMENT '日程分类',
+    schedule_count INT NOT NULL DEFAULT 0 COMMENT '日程数',
+    duration_minutes BIGINT NOT NULL DEFAULT 0 COMMENT '定时日程总时长（分钟）',
+    color VARCHAR(20) DEFAULT NULL COMMENT '分类代表色',
+    PRIMARY KEY (scope_key, stat_date, category)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程统计日汇总表';
+
+CREATE TABLE schedule_scope_moves (
+    id BIGINT NOT NULL AUTO_INCREMENT COMMENT '自增主键',
+    schedule_id VARCHAR(64) NOT NULL COMMENT '日程ID',
+    user_id VARCHAR(64) NOT NULL COMMENT '迁移前的创建者用户ID',
+    group_id VARCHAR(64) DEFAULT NULL COMMENT '迁移前的群组ID, NULL表示个人日程',
+    moved_at DATETIME NOT NULL COMMENT '迁移时间（与日程 updated_at 同在提交前写入）',
+    PRIMARY KEY (id),
+    KEY idx_user_moved (user_id, moved_at),
+    KEY idx_group_moved (group_id, moved_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='日程归属迁移记录表';
+
 -- =============================================
 -- 表7: chat_sessions & chat_messages (AI聊天相关表)
 -- =============================================
@@ -252,6 +289,7 @@ CREATE TABLE chat_sessions (
     title VARCHAR(200) DEFAULT NULL COMMENT '会话标题',
     status TINYINT NOT NULL DEFAULT 1 COMMENT '会话状态：0-已关闭，1-活跃',
     message_count INT NOT NULL DEFAULT 0 COMMENT '消息总数',
+    next_seq INT NOT NULL DEFAULT 0 COMMENT '已分配的最大消息序号',
     created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     last_message_at DATETIME DEFAULT NULL COMMENT '最后消息时间',
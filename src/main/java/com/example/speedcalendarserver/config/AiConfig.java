@@ -11,6 +11,7 @@ import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.model.openai.OpenAiStreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -30,9 +31,12 @@ import java.time.Duration;
 @Configuration
 public class AiConfig {
 
-    private final DatabaseChatMemoryStore chatMemoryStore;
+    /**
+     * chat.memory.store=redis 时为 RedisChatMemoryStore（@Primary），否则为 DatabaseChatMemoryStore
+     */
+    private final ChatMemoryStore chatMemoryStore;
 
-    public AiConfig(DatabaseChatMemoryStore chatMemoryStore) {
+    public AiConfig(ChatMemoryStore chatMemoryStore) {
         this.chatMemoryStore = chatMemoryStore;
     }
 
@@ -82,7 +86,7 @@ public class AiConfig {
                 // 为每个会话提供独立的记忆，从数据库加载历史消息
                 .chatMemoryProvider(sessionId -> MessageWindowChatMemory.builder()
                         .id(sessionId)
-                        .maxMessages(20) // 保留最近 20 条消息作为上下文
+                        .maxMessages(DatabaseChatMemoryStore.MAX_MESSAGES) // 保留最近 20 条消息作为上下文
                         .chatMemoryStore(chatMemoryStore)
                         .build())
                 .build();
@@ -111,7 +115,7 @@ public class AiConfig {
                 // 为每个会话提供独立的记忆，从数据库加载历史消息
                 .chatMemoryProvider(sessionId -> MessageWindowChatMemory.builder()
                         .id(sessionId)
-                        .maxMessages(20) // 保留最近 20 条消息作为上下文
+                        .maxMessages(DatabaseChatMemoryStore.MAX_MESSAGES) // 保留最近 20 条消息作为上下文
                         .chatMemoryStore(chatMemoryStore)
                         .build())
                 .build();
@@ -0,0 +1,61 @@
+package com.example.speedcalendarserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * AI 会话记忆缓存配置
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "chat.memory")
+public class ChatMemoryConfig {
+
+    /**
+     * 会话记忆存储：local 为进程内缓存（单实例），redis 为多实例共享的 Redis 存储
+     */
+    private String store = "local";
+
+    /**
+     * 会话记忆缓存占用的内存上限（按消息文本长度估算），超出后按 W-TinyLFU 淘汰
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(32);
+
+    /**
+     * 会话记忆的空闲过期时间，过期后下次访问从 chat_messages 重新加载
+     */
+    private Duration idleTtl = Duration.ofMinutes(30);
+
+    /**
+     * Redis 会话记忆配置（store = redis 时生效）
+     */
+    private RedisConfig redis = new RedisConfig();
+
+    /**
+     * Redis 会话记忆配置
+     */
+    @Data
+    public static class RedisConfig {
+        /**
+         * 会话记忆的空闲过期时间，每次读写时续期
+         */
+        private Duration ttl = Duration.ofHours(6);
+
+        /**
+         * 每个会话列表保留的最大消息数（不小于记忆窗口，兜底防止列表无限增长）
+         */
+        private int maxMessages = 100;
+
+        /**
+         * Redis 访问失败后改用进程内记忆的时长
+         */
+        private Duration failureBackoff = Duration.ofSeconds(30);
+    }
+}
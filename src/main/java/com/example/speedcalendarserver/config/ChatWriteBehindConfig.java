@@ -0,0 +1,34 @@
+package com.example.speedcalendarserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 聊天消息异步批量写入配置
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "chat.write-behind")
+public class ChatWriteBehindConfig {
+
+    /**
+     * 待写入队列容量（消息条数）
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 单次刷写的最大消息数，即一次 JDBC 批量插入的行数上限
+     */
+    private int batchSize = 200;
+
+    /**
+     * 队列已满时入队的最长等待时间，超时后拒绝本次写入
+     */
+    private Duration enqueueTimeout = Duration.ofSeconds(2);
+}
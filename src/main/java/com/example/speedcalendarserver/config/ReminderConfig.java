@@ -0,0 +1,60 @@
+package com.example.speedcalendarserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * 日程提醒调度配置
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "reminder")
+public class ReminderConfig {
+
+    /**
+     * 是否启用提醒调度；多实例部署时只应在一个实例上启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 时间轮刻度
+     */
+    private Duration tick = Duration.ofSeconds(1);
+
+    /**
+     * 滑动窗口长度：每隔一个窗口从数据库加载之后两个窗口内到期的提醒（须远小于 1 天）
+     */
+    private Duration window = Duration.ofMinutes(5);
+
+    /**
+     * 重复系列全量重新加载的间隔；期间由写入事件增量维护，重新加载只用于校正
+     */
+    private Duration seriesRefresh = Duration.ofHours(1);
+
+    /**
+     * 启动时补发的过期提醒范围（重启期间错过的提醒）
+     */
+    private Duration missedGrace = Duration.ofMinutes(5);
+
+    /**
+     * 支持的最大提前量，超出的提醒不调度
+     */
+    private Duration maxLead = Duration.ofDays(7);
+
+    /**
+     * 全天日程的提醒基准时间
+     */
+    private LocalTime allDayTime = LocalTime.of(9, 0);
+
+    /**
+     * 每批派发的提醒数
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,212 @@
+package com.example.speedcalendarserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 日程缓存与计算相关配置
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "schedule.cache")
+public class ScheduleCacheConfig {
+
+    /**
+     * 重复日程展开配置
+     */
+    private RecurrenceConfig recurrence = new RecurrenceConfig();
+
+    /**
+     * 用户日程区间索引配置
+     */
+    private IndexConfig index = new IndexConfig();
+
+    /**
+     * Redis 日程分段缓存配置
+     */
+    private SegmentConfig segment = new SegmentConfig();
+
+    /**
+     * 群组成员关系缓存配置
+     */
+    private MembershipConfig membership = new MembershipConfig();
+
+    /**
+     * 群组元数据缓存配置
+     */
+    private GroupMetadataConfig groupMetadata = new GroupMetadataConfig();
+
+    /**
+     * 日程全文搜索索引配置
+     */
+    private SearchConfig search = new SearchConfig();
+
+    /**
+     * 统计查询结果缓存配置
+     */
+    private StatsQueryConfig statsQuery = new StatsQueryConfig();
+
+    /**
+     * 年视图密度缓存配置
+     */
+    private DensityConfig density = new DensityConfig();
+
+    /**
+     * 重复日程展开配置
+     */
+    @Data
+    public static class RecurrenceConfig {
+        /**
+         * 每个 (系列, 查询窗口) 展开结果的缓存上限
+         */
+        private long maxCachedWindows = 20000;
+
+        /**
+         * 单个系列在一次查询中最多展开的次数，防止超长范围查询撑爆内存
+         */
+        private int maxOccurrencesPerSeries = 1000;
+    }
+
+    /**
+     * 用户日程区间索引配置
+     */
+    @Data
+    public static class IndexConfig {
+        /**
+         * 同时保持索引的活跃用户数上限
+         */
+        private long maxUsers = 10000;
+
+        /**
+         * 用户索引的空闲过期时间
+         */
+        private Duration idleTtl = Duration.ofMinutes(30);
+
+        /**
+         * 单个用户最多缓存的月份数；超过该跨度的范围查询直接走数据库
+         */
+        private int maxMonthsPerUser = 24;
+    }
+
+    /**
+     * Redis 日程分段缓存配置
+     */
+    @Data
+    public static class SegmentConfig {
+        /**
+         * 是否启用 Redis 分段缓存；关闭时索引分片直接从数据库加载
+         */
+        private boolean enabled = true;
+
+        /**
+         * 分段的存活时间，同时是并发写入下脏分段的最长存活时间
+         */
+        private Duration ttl = Duration.ofHours(1);
+
+        /**
+         * Redis 访问失败后暂停使用缓存、直接查库的时长
+         */
+        private Duration failureBackoff = Duration.ofSeconds(30);
+    }
+
+    /**
+     * 群组成员关系缓存配置
+     */
+    @Data
+    public static class MembershipConfig {
+        /**
+         * 缓存 用户 -> 群组 关系的用户数上限
+         */
+        private long maxUsers = 20000;
+
+        /**
+         * 缓存 群组 -> 成员 关系的群组数上限
+         */
+        private long maxGroups = 5000;
+
+        /**
+         * 写入后过期时间；正常依赖事件失效，此值只兜底多实例部署下的不一致
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    /**
+     * 群组元数据缓存配置
+     */
+    @Data
+    public static class GroupMetadataConfig {
+        /**
+         * 缓存的群组数上限
+         */
+        private long maxGroups = 10000;
+
+        /**
+         * 写入后过期时间；解散由事件失效，此值兜底多实例部署下的不一致
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+
+    /**
+     * 日程全文搜索索引配置
+     */
+    @Data
+    public static class SearchConfig {
+        /**
+         * 全部作用域索引的总权重上限：已索引的标题 / 备注 / 地点字符数，每条日程另计 64
+         */
+        private long maxWeight = 20_000_000;
+
+        /**
+         * 作用域索引的空闲过期时间
+         */
+        private Duration idleTtl = Duration.ofMinutes(30);
+    }
+
+    /**
+     * 统计查询结果缓存配置
+     */
+    @Data
+    public static class StatsQueryConfig {
+        /**
+         * 缓存的 (用户, 查询) 结果数上限
+         */
+        private long maxEntries = 10000;
+
+        /**
+         * 写入后过期时间；正常依赖数据版本失效，此值兜底多实例部署下的不一致
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * 记录数据版本的作用域数上限；被淘汰的作用域下次查询时分配新版本，只会多一次重新计算
+         */
+        private long maxScopes = 50000;
+
+        /**
+         * 作用域版本的闲置过期时间
+         */
+        private Duration scopeIdleTtl = Duration.ofMinutes(30);
+    }
+
+    /**
+     * 年视图密度缓存配置
+     */
+    @Data
+    public static class DensityConfig {
+        /**
+         * 缓存的用户数上限（每个用户缓存其访问过的各年份）
+         */
+        private long maxUsers = 10000;
+
+        /**
+         * 写入后过期时间；正常依赖写入事件失效，此值兜底多实例部署下的不一致
+         */
+        private Duration ttl = Duration.ofMinutes(30);
+    }
+}
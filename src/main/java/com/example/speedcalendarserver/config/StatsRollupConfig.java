@@ -0,0 +1,29 @@
+package com.example.speedcalendarserver.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 统计日汇总配置
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "stats.rollup")
+public class StatsRollupConfig {
+
+    /**
+     * 是否启用后台全量重建，默认关闭；多实例部署时只在一个实例上开启
+     */
+    private boolean rebuildEnabled = false;
+
+    /**
+     * 全量重建间隔，用于校正增量维护可能产生的偏差（首次重建在启动一个间隔之后）
+     */
+    private Duration rebuildInterval = Duration.ofHours(24);
+}
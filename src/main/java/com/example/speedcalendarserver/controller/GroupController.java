@@ -1,7 +1,9 @@
 package com.example.speedcalendarserver.controller;
 
 import com.example.speedcalendarserver.dto.*;
+import com.example.speedcalendarserver.service.FreeBusyService;
 import com.example.speedcalendarserver.service.GroupService;
+import com.example.speedcalendarserver.service.GroupStatsService;
 import com.example.speedcalendarserver.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
@@ -10,6 +12,9 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 /**
@@ -25,6 +30,8 @@ import java.util.List;
 public class GroupController {
 
     private final GroupService groupService;
+    private final FreeBusyService freeBusyService;
+    private final GroupStatsService groupStatsService;
     private final JwtUtil jwtUtil;
 
     /**
@@ -231,6 +238,76 @@ public class GroupController {
         }
     }
 
+    /**
+     * 查找成员共同空闲时段
+     * URL: GET /api/groups/{groupId}/free-slots?startDate=&endDate=&duration=60
+     */
+    @GetMapping("/{groupId}/free-slots")
+    public ApiResponse<FreeSlotsResponse> getFreeSlots(
+            @PathVariable String groupId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            @RequestParam(defaultValue = "60") int duration,
+            @RequestParam(defaultValue = "08:00") String dayStart,
+            @RequestParam(defaultValue = "22:00") String dayEnd,
+            @RequestParam(defaultValue = "0") int maxBusy,
+            @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest httpRequest) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+            LocalDate start = startDate != null && !startDate.isBlank() ? LocalDate.parse(startDate) : LocalDate.now();
+            // 默认两周
+            LocalDate end = endDate != null && !endDate.isBlank() ? LocalDate.parse(endDate) : start.plusDays(13);
+            log.info("【群组空闲时段】userId: {}, groupId: {}, {} ~ {}, duration: {}", userId, groupId, start, end, duration);
+            FreeSlotsResponse response = freeBusyService.findFreeSlots(userId, groupId, start, end, duration,
+                    LocalTime.parse(dayStart), LocalTime.parse(dayEnd), maxBusy, limit);
+            return ApiResponse.success("获取成功", response);
+        } catch (SecurityException e) {
+            return ApiResponse.error(HttpStatus.FORBIDDEN.value(), e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("【群组空闲时段失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【群组空闲时段失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 群组活跃度统计 (仅群主/管理员)
+     * URL: GET /api/groups/{groupId}/stats?startDate=&endDate=
+     */
+    @GetMapping("/{groupId}/stats")
+    public ApiResponse<GroupStatsResponse> getGroupStats(
+            @PathVariable String groupId,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate,
+            HttpServletRequest httpRequest) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+            // 默认最近 30 天
+            LocalDate end = endDate != null && !endDate.isBlank() ? LocalDate.parse(endDate) : LocalDate.now();
+            LocalDate start = startDate != null && !startDate.isBlank() ? LocalDate.parse(startDate) : end.minusDays(29);
+            log.info("【群组统计】userId: {}, groupId: {}, {} ~ {}", userId, groupId, start, end);
+            GroupStatsResponse response = groupStatsService.getGroupStats(userId, groupId, start, end);
+            return ApiResponse.success("获取成功", response);
+        } catch (SecurityException e) {
+            return ApiResponse.error(HttpStatus.FORBIDDEN.value(), e.getMessage());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("【群组统计失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【群组统计失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     private String getUserIdFromRequest(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
@@ -0,0 +1,63 @@
+package com.example.speedcalendarserver.controller;
+
+import com.example.speedcalendarserver.service.SseReminderNotifier;
+import com.example.speedcalendarserver.util.JwtUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * 日程提醒控制器
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@RestController
+@RequestMapping("/reminders")
+@RequiredArgsConstructor
+public class ReminderController {
+
+    private final SseReminderNotifier sseReminderNotifier;
+    private final JwtUtil jwtUtil;
+
+    /**
+     * 订阅提醒推送 (SSE)
+     * GET /api/reminders/stream
+     * 到期的提醒以 event: reminder 推送，data 为提醒数组
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(HttpServletRequest httpRequest) {
+        String userId = getUserIdFromRequest(httpRequest);
+        if (userId == null) {
+            SseEmitter emitter = new SseEmitter(0L);
+            try {
+                emitter.send(SseEmitter.event().data("{\"error\": \"未授权，请先登录\", \"done\": true}"));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+            return emitter;
+        }
+        log.info("【订阅提醒】userId: {}", userId);
+        return sseReminderNotifier.subscribe(userId);
+    }
+
+    private String getUserIdFromRequest(HttpServletRequest request) {
+        String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            if (jwtUtil.validateToken(token)) {
+                return jwtUtil.getUserIdFromToken(token);
+            }
+        }
+        return null;
+    }
+}
@@ -1,19 +1,41 @@
 package com.example.speedcalendarserver.controller;
 
 import com.example.speedcalendarserver.dto.ApiResponse;
+import com.example.speedcalendarserver.dto.BatchScheduleRequest;
+import com.example.speedcalendarserver.dto.BatchScheduleResponse;
 import com.example.speedcalendarserver.dto.CreateScheduleRequest;
+import com.example.speedcalendarserver.dto.ScheduleChangesResponse;
 import com.example.speedcalendarserver.dto.ScheduleDTO;
+import com.example.speedcalendarserver.dto.ScheduleDensityResponse;
+import com.example.speedcalendarserver.dto.ScheduleImportProgress;
+import com.example.speedcalendarserver.dto.ScheduleSearchResponse;
 import com.example.speedcalendarserver.dto.UpdateScheduleRequest;
+import com.example.speedcalendarserver.service.ScheduleDensityService;
+import com.example.speedcalendarserver.service.ScheduleExportService;
+import com.example.speedcalendarserver.service.ScheduleImportService;
+import com.example.speedcalendarserver.service.ScheduleSearchService;
 import com.example.speedcalendarserver.service.ScheduleService;
+import com.example.speedcalendarserver.service.ScheduleSyncService;
 import com.example.speedcalendarserver.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
@@ -22,6 +44,11 @@ import java.util.List;
 public class ScheduleController {
 
     private final ScheduleService scheduleService;
+    private final ScheduleSyncService scheduleSyncService;
+    private final ScheduleExportService scheduleExportService;
+    private final ScheduleImportService scheduleImportService;
+    private final ScheduleSearchService scheduleSearchService;
+    private final ScheduleDensityService scheduleDensityService;
     private final JwtUtil jwtUtil;
 
     /**
@@ -91,6 +118,33 @@ public class ScheduleController {
         }
     }
 
+    /**
+     * 年视图日程密度：每天的日程数与重要标记
+     * GET /schedules/density?year=2026
+     */
+    @GetMapping("/density")
+    public ApiResponse<ScheduleDensityResponse> getDensity(
+            @RequestParam int year,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+
+            log.info("【年视图密度】userId: {}, year: {}", userId, year);
+            ScheduleDensityResponse response = scheduleDensityService.getDensity(userId, year);
+            return ApiResponse.success("获取成功", response);
+        } catch (IllegalArgumentException e) {
+            log.warn("【年视图密度失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【年视图密度失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取临近日程 (C)
      * 逻辑：过去 3h ~ 未来 24h
@@ -113,6 +167,152 @@ public class ScheduleController {
         }
     }
 
+    /**
+     * 增量同步接口
+     * 返回游标之后新增、修改、删除的日程（含个人与群组），首次同步不带 since
+     * GET /schedules/changes?since=xxx&limit=200
+     */
+    @GetMapping("/changes")
+    public ApiResponse<ScheduleChangesResponse> getScheduleChanges(
+            @RequestParam(required = false) String since,
+            @RequestParam(defaultValue = "200") int limit,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+
+            log.info("【增量同步日程】userId: {}, since: {}", userId, since);
+            ScheduleChangesResponse response = scheduleSyncService.getChanges(userId, since, limit);
+            return ApiResponse.success("获取成功", response);
+        } catch (IllegalArgumentException e) {
+            log.warn("【增量同步日程失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【增量同步日程失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 搜索日程（标题 / 备注 / 地点，跨全部日期）
+     * GET /schedules/search?q=健身&from=2026-03-01&cursor=xxx&limit=20
+     */
+    @GetMapping("/search")
+    public ApiResponse<ScheduleSearchResponse> searchSchedules(
+            @RequestParam String q,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+
+            log.info("【搜索日程】userId: {}, q: {}, from: {}", userId, q, from);
+            ScheduleSearchResponse response = scheduleSearchService.search(userId, q,
+                    from != null ? LocalDate.parse(from) : null, cursor, limit);
+            return ApiResponse.success("搜索成功", response);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("【搜索日程失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【搜索日程失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 导出日程 (流式)
+     * GET /schedules/export?format=ics|json
+     * 请求头带 Accept-Encoding: gzip 时以 gzip 压缩输出
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportSchedules(
+            @RequestParam(defaultValue = "ics") String format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletRequest httpRequest
+    ) {
+        String userId = getUserIdFromRequest(httpRequest);
+        if (userId == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean json = "json".equalsIgnoreCase(format);
+        if (!json && !"ics".equalsIgnoreCase(format)) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        log.info("【导出日程】userId: {}, format: {}, gzip: {}", userId, format, gzip);
+
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, 8192) : out;
+            try {
+                if (json) {
+                    scheduleExportService.exportJson(userId, target);
+                } else {
+                    scheduleExportService.exportIcs(userId, target);
+                }
+                if (target instanceof GZIPOutputStream gzipOut) {
+                    gzipOut.finish();
+                }
+            } catch (Exception e) {
+                // 响应已开始写出，无法再返回错误码
+                log.error("【导出日程失败】userId: {}, {}", userId, e.getMessage(), e);
+                throw e;
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(json ? MediaType.APPLICATION_JSON : MediaType.parseMediaType("text/calendar;charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"speedcalendar." + (json ? "json" : "ics") + "\"")
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * 导入 ICS 文件 (SSE 推送进度)
+     * POST /schedules/import  multipart: file, groupId(可选)
+     * 每写入一块推送一次进度，结束事件 done = true
+     */
+    @PostMapping(value = "/import", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter importSchedules(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(required = false) String groupId,
+            HttpServletRequest httpRequest
+    ) {
+        SseEmitter emitter = new SseEmitter(10 * 60 * 1000L);
+
+        String userId = getUserIdFromRequest(httpRequest);
+        if (userId == null) {
+            return errorEmitter(emitter, "未授权，请先登录");
+        }
+        if (file.isEmpty()) {
+            return errorEmitter(emitter, "上传文件不能为空");
+        }
+        log.info("【导入日程】userId: {}, groupId: {}, file: {}, size: {}",
+                userId, groupId, file.getOriginalFilename(), file.getSize());
+
+        try {
+            scheduleImportService.importIcs(userId, groupId, file.getInputStream(), emitter);
+        } catch (SecurityException | IllegalStateException e) {
+            log.warn("【导入日程失败】{}", e.getMessage());
+            return errorEmitter(emitter, e.getMessage());
+        } catch (Exception e) {
+            log.error("【导入日程失败】{}", e.getMessage(), e);
+            return errorEmitter(emitter, "导入失败，请稍后重试");
+        }
+        return emitter;
+    }
+
     @PostMapping
     public ApiResponse<ScheduleDTO> createSchedule(
             @Valid @RequestBody CreateScheduleRequest request,
@@ -135,6 +335,36 @@ public class ScheduleController {
         }
     }
 
+    /**
+     * 批量创建 / 更新 / 删除日程（如导入课表）
+     * POST /schedules/batch
+     * 单条失败不影响其他条目，逐条结果见 results
+     */
+    @PostMapping("/batch")
+    public ApiResponse<BatchScheduleResponse> batchSchedules(
+            @RequestBody BatchScheduleRequest request,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+            log.info("【批量日程】userId: {}, creates: {}, updates: {}, deletes: {}", userId,
+                    request.getCreates() != null ? request.getCreates().size() : 0,
+                    request.getUpdates() != null ? request.getUpdates().size() : 0,
+                    request.getDeletes() != null ? request.getDeletes().size() : 0);
+            BatchScheduleResponse response = scheduleService.batchSchedules(userId, request);
+            return ApiResponse.success("批量操作完成", response);
+        } catch (IllegalArgumentException e) {
+            log.warn("【批量日程失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【批量日程失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     @PutMapping("/{scheduleId}")
     public ApiResponse<ScheduleDTO> updateSchedule(
             @PathVariable String scheduleId,
@@ -186,6 +416,20 @@ public class ScheduleController {
         }
     }
 
+    /**
+     * 推送错误事件并结束 SSE
+     */
+    private SseEmitter errorEmitter(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().data(
+                    ScheduleImportProgress.builder().done(true).error(message).build(), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
     private String getUserIdFromRequest(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
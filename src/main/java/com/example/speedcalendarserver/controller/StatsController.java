@@ -1,6 +1,7 @@
 package com.example.speedcalendarserver.controller;
 
 import com.example.speedcalendarserver.dto.ApiResponse;
+import com.example.speedcalendarserver.service.StatsQueryService;
 import com.example.speedcalendarserver.service.StatsService;
 import com.example.speedcalendarserver.util.JwtUtil;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,6 +13,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 
@@ -22,6 +25,7 @@ import java.util.Map;
 public class StatsController {
 
     private final StatsService statsService;
+    private final StatsQueryService statsQueryService;
     private final JwtUtil jwtUtil;
 
     /**
@@ -72,6 +76,38 @@ public class StatsController {
         }
     }
 
+    /**
+     * 任意范围统计查询
+     * GET /api/stats/query?startDate=2024-01-01&endDate=2024-12-31&groupBy=month,category&measures=count,minutes
+     */
+    @GetMapping("/query")
+    public ApiResponse<List<Map<String, Object>>> query(
+            @RequestParam String startDate,
+            @RequestParam String endDate,
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) List<String> measures,
+            HttpServletRequest httpRequest
+    ) {
+        try {
+            String userId = getUserIdFromRequest(httpRequest);
+            if (userId == null) {
+                return ApiResponse.error(HttpStatus.UNAUTHORIZED.value(), "未授权，请先登录");
+            }
+
+            log.info("【统计查询】userId: {}, range: {} ~ {}, groupBy: {}, measures: {}",
+                    userId, startDate, endDate, groupBy, measures);
+            List<Map<String, Object>> stats = statsQueryService.query(userId,
+                    LocalDate.parse(startDate), LocalDate.parse(endDate), groupBy, measures);
+            return ApiResponse.success("获取成功", stats);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            log.warn("【统计查询失败】{}", e.getMessage());
+            return ApiResponse.error(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        } catch (Exception e) {
+            log.error("【统计查询失败】{}", e.getMessage(), e);
+            return ApiResponse.error(e.getMessage());
+        }
+    }
+
     private String getUserIdFromRequest(HttpServletRequest request) {
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
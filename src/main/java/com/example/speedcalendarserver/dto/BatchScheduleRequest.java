@@ -0,0 +1,32 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量日程操作请求DTO
+ * 三类操作在同一事务中执行，单条校验失败不影响其他条目
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+public class BatchScheduleRequest {
+
+    /**
+     * 要创建的日程
+     */
+    private List<CreateScheduleRequest> creates = new ArrayList<>();
+
+    /**
+     * 要更新的日程
+     */
+    private List<BatchUpdateScheduleRequest> updates = new ArrayList<>();
+
+    /**
+     * 要删除的日程ID
+     */
+    private List<String> deletes = new ArrayList<>();
+}
@@ -0,0 +1,71 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量日程操作响应DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchScheduleResponse {
+
+    /**
+     * 逐条结果，顺序为 creates、updates、deletes 各自的请求顺序
+     */
+    private List<ItemResult> results;
+
+    /**
+     * 成功条数
+     */
+    private Integer successCount;
+
+    /**
+     * 失败条数
+     */
+    private Integer failureCount;
+
+    /**
+     * 单条操作结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ItemResult {
+
+        /**
+         * 操作类型：create, update, delete, import
+         */
+        private String op;
+
+        /**
+         * 在对应请求列表中的下标
+         */
+        private Integer index;
+
+        /**
+         * 日程ID（创建成功时为新分配的ID）
+         */
+        private String scheduleId;
+
+        /**
+         * 是否成功
+         */
+        private Boolean success;
+
+        /**
+         * 失败原因
+         */
+        private String message;
+    }
+}
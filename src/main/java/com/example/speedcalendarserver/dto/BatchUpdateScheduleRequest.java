@@ -0,0 +1,22 @@
+package com.example.speedcalendarserver.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 批量操作中的单条更新请求DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+public class BatchUpdateScheduleRequest extends UpdateScheduleRequest {
+
+    /**
+     * 要更新的日程ID
+     */
+    @NotBlank(message = "日程ID不能为空")
+    private String scheduleId;
+}
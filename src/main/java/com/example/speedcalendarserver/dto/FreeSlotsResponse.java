@@ -0,0 +1,71 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 群组共同空闲时段响应DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FreeSlotsResponse {
+
+    /**
+     * 群组ID
+     */
+    private String groupId;
+
+    /**
+     * 参与计算的成员数
+     */
+    private Integer memberCount;
+
+    /**
+     * 时间粒度（分钟）
+     */
+    private Integer slotMinutes;
+
+    /**
+     * 候选时段，按时间升序
+     */
+    private List<Slot> slots;
+
+    /**
+     * 候选时段：当天内连续可用的最大区间，长度不短于请求的会议时长
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Slot {
+
+        /**
+         * 日期 (YYYY-MM-DD)
+         */
+        private String date;
+
+        /**
+         * 开始时间 (HH:mm)
+         */
+        private String startTime;
+
+        /**
+         * 结束时间 (HH:mm)，24:00 记为 00:00
+         */
+        private String endTime;
+
+        /**
+         * 区间内最多有几位成员忙碌（maxBusy 为 0 时恒为 0）
+         */
+        private Integer busyCount;
+    }
+}
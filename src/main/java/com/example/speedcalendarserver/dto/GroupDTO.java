@@ -1,6 +1,7 @@
 package com.example.speedcalendarserver.dto;
 
 import com.example.speedcalendarserver.entity.Group;
+import com.example.speedcalendarserver.service.GroupMetadataCache;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -79,4 +80,19 @@ public class GroupDTO {
                         group.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null)
                 .build();
     }
+
+    /**
+     * 从缓存的群组元数据转换
+     */
+    public static GroupDTO fromMeta(GroupMetadataCache.GroupMeta group) {
+        return GroupDTO.builder()
+                .groupId(group.id())
+                .name(group.name())
+                .description(group.description())
+                .ownerId(group.ownerId())
+                .inviteCode(group.invitationCode())
+                .createdAt(group.createdAt() != null ?
+                        group.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : null)
+                .build();
+    }
 }
@@ -0,0 +1,107 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 群组活跃度统计响应DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GroupStatsResponse {
+
+    /**
+     * 群组ID
+     */
+    private String groupId;
+
+    /**
+     * 统计开始日期 (YYYY-MM-DD)
+     */
+    private String startDate;
+
+    /**
+     * 统计结束日期 (YYYY-MM-DD)
+     */
+    private String endDate;
+
+    /**
+     * 成员数
+     */
+    private Integer memberCount;
+
+    /**
+     * 群组日程总数
+     */
+    private Long groupScheduleCount;
+
+    /**
+     * 群组日程总时长（分钟）
+     */
+    private Long groupBusyMinutes;
+
+    /**
+     * 分类汇总：群组日程 + 公开统计的成员个人日程，按日程数降序
+     */
+    private List<CategoryStat> categories;
+
+    /**
+     * 成员统计，按群组日程数、个人忙碌时长降序
+     */
+    private List<MemberStat> members;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CategoryStat {
+
+        private String category;
+
+        private Long scheduleCount;
+
+        private Long busyMinutes;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class MemberStat {
+
+        private String userId;
+
+        private String username;
+
+        private String avatar;
+
+        /**
+         * 该成员创建的群组日程数
+         */
+        private Long groupScheduleCount;
+
+        /**
+         * 该成员创建的群组日程总时长（分钟）
+         */
+        private Long groupBusyMinutes;
+
+        /**
+         * 个人日程数；成员隐私设置不公开日程统计时为 null
+         */
+        private Long personalScheduleCount;
+
+        /**
+         * 个人日程总时长（分钟）；成员隐私设置不公开日程统计时为 null
+         */
+        private Long personalBusyMinutes;
+    }
+}
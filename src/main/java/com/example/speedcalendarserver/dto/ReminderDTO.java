@@ -0,0 +1,61 @@
+package com.example.speedcalendarserver.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 日程提醒DTO (推送给客户端的提醒内容)
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ReminderDTO {
+
+    /**
+     * 日程ID
+     */
+    private String scheduleId;
+
+    /**
+     * 日程标题
+     */
+    private String title;
+
+    /**
+     * 本次发生的日期 (YYYY-MM-DD)，重复日程为具体某一次
+     */
+    private String date;
+
+    /**
+     * 开始时间 (HH:mm)，全天日程为空
+     */
+    private String startTime;
+
+    /**
+     * 日程地点
+     */
+    private String location;
+
+    /**
+     * 关联的群组ID，个人日程为空
+     */
+    private String groupId;
+
+    /**
+     * 提前提醒的分钟数
+     */
+    private Integer reminderMinutes;
+
+    /**
+     * 计划提醒时间 (毫秒时间戳)
+     */
+    private Long remindAt;
+}
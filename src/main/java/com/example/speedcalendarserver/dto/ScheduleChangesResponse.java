@@ -0,0 +1,48 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 日程增量同步响应 DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleChangesResponse {
+
+    /**
+     * 游标之后新增、修改或删除的日程（isDeleted = true 为删除墓碑），按更新时间升序
+     * 重复日程返回系列本身，不按发生展开
+     */
+    private List<ScheduleDTO> changes;
+
+    /**
+     * 下次同步使用的游标
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多变更，为 true 时应立即用 nextCursor 继续拉取
+     */
+    private Boolean hasMore;
+
+    /**
+     * 是否需要全量重新同步（游标之后加入了新群组，其历史日程不在增量中）
+     * 为 true 时 changes 为空，客户端应丢弃游标、不带 since 重新同步
+     */
+    private Boolean fullResync;
+
+    /**
+     * 用户当前所属的群组ID；本地存在但不在此列表中的群组日程应删除（退出或解散的群组）
+     */
+    private List<String> groupIds;
+}
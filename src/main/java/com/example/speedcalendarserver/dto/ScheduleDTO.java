@@ -7,11 +7,13 @@ import lombok.Builder;
 import lombok.AllArgsConstructor;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 /**
  * 日程信息DTO
@@ -133,27 +135,52 @@ public class ScheduleDTO {
      */
     private Long createdAt;
 
+    /**
+     * 更新时间（时间戳，毫秒）
+     */
+    private Long updatedAt;
+
+    /**
+     * 是否已删除（仅增量同步返回的墓碑为 true）
+     */
+    private Boolean isDeleted;
+
+    /**
+     * 与本日程时间重叠的日程（仅创建 / 更新响应返回，无冲突时不返回）
+     */
+    private List<ScheduleDTO> conflicts;
+
     /**
      * 从Schedule实体转换 (基础转换)
      */
     public static ScheduleDTO fromEntity(Schedule schedule) {
+        return fromEntity(schedule, schedule.getScheduleDate());
+    }
+
+    /**
+     * 从Schedule实体转换为指定日期的一次发生（重复日程展开时使用）
+     *
+     * @param schedule       日程实体（重复系列时为系列本身）
+     * @param occurrenceDate 本次发生的日期
+     */
+    public static ScheduleDTO fromEntity(Schedule schedule, LocalDate occurrenceDate) {
         ZoneId zoneId = ZoneId.systemDefault();
 
         String startIso = null;
         String endIso = null;
 
-        if (schedule.getScheduleDate() != null) {
+        if (occurrenceDate != null) {
             if (schedule.getStartTime() != null) {
-                startIso = ZonedDateTime.of(schedule.getScheduleDate(), schedule.getStartTime(), zoneId)
+                startIso = ZonedDateTime.of(occurrenceDate, schedule.getStartTime(), zoneId)
                         .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             } else {
                 // 全天日程默认为 00:00
-                startIso = ZonedDateTime.of(schedule.getScheduleDate(), java.time.LocalTime.MIN, zoneId)
+                startIso = ZonedDateTime.of(occurrenceDate, java.time.LocalTime.MIN, zoneId)
                         .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             }
 
             if (schedule.getEndTime() != null) {
-                endIso = ZonedDateTime.of(schedule.getScheduleDate(), schedule.getEndTime(), zoneId)
+                endIso = ZonedDateTime.of(occurrenceDate, schedule.getEndTime(), zoneId)
                         .format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             }
         }
@@ -163,7 +190,7 @@ public class ScheduleDTO {
                 .userId(schedule.getUserId())
                 .groupId(schedule.getGroupId())
                 .title(schedule.getTitle())
-                .scheduleDate(schedule.getScheduleDate().toString())
+                .scheduleDate(occurrenceDate.toString())
                 .startTime(schedule.getStartTime() != null ? schedule.getStartTime().toString() : null)
                 .endTime(schedule.getEndTime() != null ? schedule.getEndTime().toString() : null)
                 .startDateTime(startIso)
@@ -181,6 +208,10 @@ public class ScheduleDTO {
                 .createdAt(schedule.getCreatedAt() != null
                         ? schedule.getCreatedAt().atZone(zoneId).toInstant().toEpochMilli()
                         : null)
+                .updatedAt(schedule.getUpdatedAt() != null
+                        ? schedule.getUpdatedAt().atZone(zoneId).toInstant().toEpochMilli()
+                        : null)
+                .isDeleted(schedule.getIsDeleted() != null && schedule.getIsDeleted() == 1)
                 .build();
     }
 }
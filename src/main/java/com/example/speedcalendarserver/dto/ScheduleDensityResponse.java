@@ -0,0 +1,34 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 年视图日程密度响应DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleDensityResponse {
+
+    /**
+     * 年份
+     */
+    private Integer year;
+
+    /**
+     * 每天的日程数（含重复日程的每次发生），下标 0 为 1 月 1 日，长度为当年天数（365 / 366）
+     */
+    private int[] counts;
+
+    /**
+     * 每天是否有重要日程：1-有，0-无，下标与 counts 相同
+     */
+    private int[] important;
+}
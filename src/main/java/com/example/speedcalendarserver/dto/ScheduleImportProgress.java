@@ -0,0 +1,53 @@
+package com.example.speedcalendarserver.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 日程导入进度 (SSE 事件数据)
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScheduleImportProgress {
+
+    /**
+     * 已读取的事件数
+     */
+    private Integer processed;
+
+    /**
+     * 已导入的日程数
+     */
+    private Integer imported;
+
+    /**
+     * 无法导入的事件数
+     */
+    private Integer failed;
+
+    /**
+     * 是否结束
+     */
+    private Boolean done;
+
+    /**
+     * 失败条目（仅结束事件携带，最多 100 条，index 为事件在文件中的序号）
+     */
+    private List<BatchScheduleResponse.ItemResult> errors;
+
+    /**
+     * 导入中止的原因
+     */
+    private String error;
+}
@@ -0,0 +1,31 @@
+package com.example.speedcalendarserver.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 日程搜索响应 DTO
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleSearchResponse {
+
+    /**
+     * 匹配的日程，按日期、开始时间升序；重复日程返回系列本身，不按发生展开
+     */
+    private List<ScheduleDTO> items;
+
+    /**
+     * 下一页游标，没有更多结果时为 null
+     */
+    private String nextCursor;
+}
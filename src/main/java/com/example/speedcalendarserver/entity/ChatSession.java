@@ -1,5 +1,6 @@
 package com.example.speedcalendarserver.entity;
 
+import com.example.speedcalendarserver.util.IdGenerator;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -83,12 +84,15 @@ public class ChatSession {
     private Integer isDeleted = 0;
 
     /**
-     * 创建前自动设置时间戳
+     * 创建前自动设置时间戳，未指定ID时生成时间有序的ID
      */
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
+        if (this.sessionId == null || this.sessionId.isEmpty()) {
+            this.sessionId = IdGenerator.nextId();
+        }
     }
 
     /**
@@ -1,5 +1,6 @@
 package com.example.speedcalendarserver.entity;
 
+import com.example.speedcalendarserver.util.IdGenerator;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -67,7 +68,7 @@ public class Group {
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
         if (this.id == null || this.id.isEmpty()) {
-            this.id = java.util.UUID.randomUUID().toString();
+            this.id = IdGenerator.nextId();
         }
     }
 }
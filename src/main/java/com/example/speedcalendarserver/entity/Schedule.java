@@ -1,10 +1,13 @@
 package com.example.speedcalendarserver.entity;
 
+import com.example.speedcalendarserver.util.IdGenerator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -22,8 +25,8 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
-public class Schedule {
+@Builder(toBuilder = true)
+public class Schedule implements Persistable<String> {
 
     /**
      * 日程唯一ID (UUID)
@@ -146,6 +149,36 @@ public class Schedule {
     @Column(name = "is_deleted", nullable = false)
     private Integer isDeleted = 0;
 
+    /**
+     * 是否为尚未入库的新实体（不映射到表）
+     * 日程ID由应用预先分配，据此让 save() 直接 INSERT，而不是先 SELECT 再 merge，批量写入时才能走 JDBC 批处理
+     */
+    @Transient
+    @JsonIgnore
+    @Builder.Default
+    private boolean newEntity = true;
+
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return scheduleId;
+    }
+
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    /**
+     * JPA回调：从数据库加载或插入完成后即不再是新实体
+     */
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        this.newEntity = false;
+    }
+
     /**
      * JPA回调：插入前自动设置创建时间和更新时间
      */
@@ -154,7 +187,7 @@ public class Schedule {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         if (this.scheduleId == null || this.scheduleId.isEmpty()) {
-            this.scheduleId = java.util.UUID.randomUUID().toString();
+            this.scheduleId = IdGenerator.nextId();
         }
     }
 
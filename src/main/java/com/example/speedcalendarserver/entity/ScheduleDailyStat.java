@@ -0,0 +1,69 @@
+package com.example.speedcalendarserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 日程统计日汇总实体类
+ * 对应数据库表：schedule_daily_stats
+ *
+ * <p>
+ * 每个 (作用域, 日期, 分类) 一行，随日程写入增量维护，由后台任务定期全量重建校正。
+ * 与原统计口径一致，重复日程只按起始日期计一次。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Entity
+@Table(name = "schedule_daily_stats")
+@IdClass(ScheduleDailyStatKey.class)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleDailyStat {
+
+    /**
+     * 作用域："u:" + 用户ID（个人日程）或 "g:" + 群组ID（群组日程）
+     */
+    @Id
+    @Column(name = "scope_key", length = 80, nullable = false)
+    private String scopeKey;
+
+    /**
+     * 日程日期
+     */
+    @Id
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    /**
+     * 日程分类
+     */
+    @Id
+    @Column(name = "category", length = 50, nullable = false)
+    private String category;
+
+    /**
+     * 日程数
+     */
+    @Column(name = "schedule_count", nullable = false)
+    private Integer scheduleCount;
+
+    /**
+     * 定时日程的总时长（分钟），全天日程与无结束时间的日程计 0
+     */
+    @Column(name = "duration_minutes", nullable = false)
+    private Long durationMinutes;
+
+    /**
+     * 该分类日程颜色中的最大值（MAX(color)），作为图表代表色；删除不回退，重建时校正
+     */
+    @Column(name = "color", length = 20)
+    private String color;
+}
@@ -0,0 +1,25 @@
+package com.example.speedcalendarserver.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * ScheduleDailyStat 复合主键类
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class ScheduleDailyStatKey implements Serializable {
+    private String scopeKey;
+    private LocalDate statDate;
+    private String category;
+}
@@ -0,0 +1,61 @@
+package com.example.speedcalendarserver.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 日程归属迁移记录实体类
+ * 对应数据库表：schedule_scope_moves
+ *
+ * <p>
+ * 日程在个人/群组之间迁移后，按当前归属查询的增量同步看不到它，
+ * 迁移前作用域的成员由这条记录收到删除墓碑。userId / groupId 为迁移前的归属。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Data
+@Entity
+@Table(name = "schedule_scope_moves")
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ScheduleScopeMove {
+
+    /**
+     * 自增主键
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * 日程ID
+     */
+    @Column(name = "schedule_id", length = 64, nullable = false)
+    private String scheduleId;
+
+    /**
+     * 迁移前的创建者用户ID
+     */
+    @Column(name = "user_id", length = 64, nullable = false)
+    private String userId;
+
+    /**
+     * 迁移前的群组ID，NULL 表示个人日程
+     */
+    @Column(name = "group_id", length = 64)
+    private String groupId;
+
+    /**
+     * 迁移时间，与日程提交前写入的 updated_at 相同
+     */
+    @Column(name = "moved_at", nullable = false)
+    private LocalDateTime movedAt;
+}
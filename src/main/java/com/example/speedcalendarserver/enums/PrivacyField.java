@@ -31,7 +31,12 @@ public enum PrivacyField {
     /**
      * 个人简介
      */
-    BIO("bio", "个人简介", VisibilityLevel.PUBLIC);
+    BIO("bio", "个人简介", VisibilityLevel.PUBLIC),
+
+    /**
+     * 日程统计（群组统计中个人日程的数量与忙碌时长，不含日程内容）
+     */
+    SCHEDULE_STATS("scheduleStats", "日程统计", VisibilityLevel.PUBLIC);
 
     private final String fieldName;
     private final String displayName;
@@ -0,0 +1,33 @@
+package com.example.speedcalendarserver.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 群组成员关系变更事件
+ * 由 GroupService 在加入、退出、移除成员、解散群组时发布
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Getter
+@RequiredArgsConstructor
+public class GroupMembershipChangedEvent {
+
+    /**
+     * 发生变更的群组ID
+     */
+    private final String groupId;
+
+    /**
+     * 成员关系发生变化的用户ID（解散群组时为全部成员）
+     */
+    private final List<String> userIds;
+
+    /**
+     * 群组是否已被解散
+     */
+    private final boolean groupDeleted;
+}
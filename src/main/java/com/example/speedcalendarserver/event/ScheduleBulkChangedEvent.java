@@ -0,0 +1,42 @@
+package com.example.speedcalendarserver.event;
+
+import com.example.speedcalendarserver.entity.Schedule;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 日程批量变更事件
+ * 由导入等大批量写入在事务内发布一次，提交后缓存与索引整体失效对应作用域，代替逐条的 {@link ScheduleChangedEvent}
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Getter
+@RequiredArgsConstructor
+public class ScheduleBulkChangedEvent {
+
+    /**
+     * 个人日程所属用户ID，群组日程时为 null
+     */
+    private final String userId;
+
+    /**
+     * 群组日程所属群组ID，个人日程时为 null
+     */
+    private final String groupId;
+
+    /**
+     * 本次插入的日程快照（脱离持久化上下文）
+     */
+    private final List<Schedule> inserted;
+
+    public static ScheduleBulkChangedEvent ofUser(String userId, List<Schedule> inserted) {
+        return new ScheduleBulkChangedEvent(userId, null, List.copyOf(inserted));
+    }
+
+    public static ScheduleBulkChangedEvent ofGroup(String groupId, List<Schedule> inserted) {
+        return new ScheduleBulkChangedEvent(null, groupId, List.copyOf(inserted));
+    }
+}
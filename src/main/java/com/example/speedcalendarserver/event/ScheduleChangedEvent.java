@@ -0,0 +1,61 @@
+package com.example.speedcalendarserver.event;
+
+import com.example.speedcalendarserver.entity.Schedule;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 日程变更事件
+ * 由 ScheduleService 在创建/更新/删除日程时发布，缓存与索引在事务提交后监听并增量更新
+ *
+ * <p>
+ * 一个事务只发布一个事件：单条写入只有一项变更，批量写入的所有变更合并在同一个事件中，
+ * 监听方一次处理整批，避免逐条触发数据库写入、索引重建与 Redis 请求。
+ *
+ * <p>
+ * before / after 均为脱离持久化上下文的快照，监听方可放心跨线程持有。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Getter
+public class ScheduleChangedEvent {
+
+    /**
+     * 本事务内的全部变更，按写入顺序
+     */
+    private final List<Change> changes;
+
+    public ScheduleChangedEvent(List<Change> changes) {
+        this.changes = List.copyOf(changes);
+    }
+
+    public static ScheduleChangedEvent created(Schedule after) {
+        return new ScheduleChangedEvent(List.of(new Change(null, after)));
+    }
+
+    public static ScheduleChangedEvent updated(Schedule before, Schedule after) {
+        return new ScheduleChangedEvent(List.of(new Change(before, after)));
+    }
+
+    public static ScheduleChangedEvent deleted(Schedule before, Schedule after) {
+        return new ScheduleChangedEvent(List.of(new Change(before, after)));
+    }
+
+    /**
+     * 单条日程的变更
+     *
+     * @param before 变更前的日程快照，创建时为 null
+     * @param after  变更后的日程快照，删除时 isDeleted = 1
+     */
+    public record Change(Schedule before, Schedule after) {
+
+        /**
+         * 变更涉及的日程ID
+         */
+        public String scheduleId() {
+            return after != null ? after.getScheduleId() : before.getScheduleId();
+        }
+    }
+}
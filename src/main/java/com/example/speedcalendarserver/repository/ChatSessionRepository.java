@@ -2,10 +2,13 @@ package com.example.speedcalendarserver.repository;
 
 import com.example.speedcalendarserver.entity.ChatSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -44,6 +47,35 @@ public interface ChatSessionRepository extends JpaRepository<ChatSession, String
             String userId,
             Integer isDeleted);
 
+    /**
+     * 补全未命名会话的标题
+     * 只更新 title / updated_at 两列，不覆盖消息写入线程并发累加的 message_count
+     *
+     * @param sessionId 会话ID
+     * @param title     标题
+     * @param now       更新时间
+     * @return 更新的行数（已有标题时为 0）
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.title = :title, s.updatedAt = :now " +
+            "WHERE s.sessionId = :sessionId AND (s.title IS NULL OR s.title = '')")
+    int updateTitleIfBlank(@Param("sessionId") String sessionId,
+            @Param("title") String title,
+            @Param("now") LocalDateTime now);
+
+    /**
+     * 逻辑删除会话，只更新 is_deleted / updated_at 两列
+     *
+     * @param sessionId 会话ID
+     * @param now       更新时间
+     * @return 更新的行数
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ChatSession s SET s.isDeleted = 1, s.updatedAt = :now WHERE s.sessionId = :sessionId")
+    int markDeleted(@Param("sessionId") String sessionId, @Param("now") LocalDateTime now);
+
     /**
      * 根据会话ID查找会话
      *
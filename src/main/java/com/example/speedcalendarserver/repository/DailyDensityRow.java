@@ -0,0 +1,12 @@
+package com.example.speedcalendarserver.repository;
+
+import java.time.LocalDate;
+
+/**
+ * 年视图密度投影：某天的非重复日程数，以及其中是否有重要日程（0/1），由 JPQL 分组构造表达式直接创建
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public record DailyDensityRow(LocalDate scheduleDate, Long scheduleCount, Integer important) {
+}
@@ -0,0 +1,36 @@
+package com.example.speedcalendarserver.repository;
+
+import com.example.speedcalendarserver.entity.Schedule;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 忙闲投影：只含占用时间与重复规则所需的列，不加载标题、备注、地点等文本列，由 JPQL 构造表达式直接创建
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public record FreeBusyRow(String scheduleId, String userId, String groupId, LocalDate scheduleDate,
+        LocalTime startTime, LocalTime endTime, Integer isAllDay, String repeatType, LocalDate repeatEndDate,
+        LocalDateTime updatedAt) {
+
+    /**
+     * 转为只含上述字段的临时日程（不受持久化上下文管理），供 RecurrenceExpander 展开
+     */
+    public Schedule toSchedule() {
+        return Schedule.builder()
+                .scheduleId(scheduleId)
+                .userId(userId)
+                .groupId(groupId)
+                .scheduleDate(scheduleDate)
+                .startTime(startTime)
+                .endTime(endTime)
+                .isAllDay(isAllDay)
+                .repeatType(repeatType)
+                .repeatEndDate(repeatEndDate)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.speedcalendarserver.repository;
+
+/**
+ * 群组统计投影：按 (创建者, 分类) 聚合后的日程数与定时日程总时长，由原生 GROUP BY 查询直接映射
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public interface MemberActivityRow {
+
+    String getUserId();
+
+    String getCategory();
+
+    Long getScheduleCount();
+
+    Long getBusyMinutes();
+}
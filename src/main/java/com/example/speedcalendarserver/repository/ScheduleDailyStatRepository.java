@@ -0,0 +1,91 @@
+package com.example.speedcalendarserver.repository;
+
+import com.example.speedcalendarserver.entity.ScheduleDailyStat;
+import com.example.speedcalendarserver.entity.ScheduleDailyStatKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 日程统计日汇总 Repository
+ * 写操作加入调用方事务（日程写入的 BEFORE_COMMIT 阶段），没有事务时各自提交
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Repository
+public interface ScheduleDailyStatRepository extends JpaRepository<ScheduleDailyStat, ScheduleDailyStatKey> {
+
+    /**
+     * 单条日程的时长（分钟），与 StatsRollupService.durationMinutes 口径一致：结束早于开始视为跨午夜
+     */
+    String DURATION_SQL = "CASE WHEN is_all_day = 1 OR start_time IS NULL OR end_time IS NULL THEN 0 " +
+            "ELSE MOD(TIME_TO_SEC(end_time) - TIME_TO_SEC(start_time) + 86400, 86400) DIV 60 END";
+
+    String INSERT_COLUMNS = "INSERT INTO schedule_daily_stats " +
+            "(scope_key, stat_date, category, schedule_count, duration_minutes, color) ";
+
+    String AGGREGATE = "schedule_date, COALESCE(category, '其他'), COUNT(*), SUM(" + DURATION_SQL + "), MAX(color) " +
+            "FROM schedules WHERE is_deleted = 0 ";
+
+    /**
+     * 累加一个 (作用域, 日期, 分类) 的增量；color 取原值与新值中较大者（null 不参与比较），与重建时的 MAX(color) 同一口径
+     * 参数依次为 scope_key, stat_date, category, 计数增量, 时长增量, color，由 StatsRollupService 以 JDBC 批量执行
+     */
+    String APPLY_DELTA_SQL = INSERT_COLUMNS + "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "schedule_count = schedule_count + VALUES(schedule_count), " +
+            "duration_minutes = duration_minutes + VALUES(duration_minutes), " +
+            "color = GREATEST(COALESCE(color, VALUES(color)), COALESCE(VALUES(color), color))";
+
+    /**
+     * 按主键范围读取若干作用域在日期范围内的汇总
+     */
+    List<ScheduleDailyStat> findByScopeKeyInAndStatDateBetween(
+            Collection<String> scopeKeys, LocalDate startDate, LocalDate endDate);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM schedule_daily_stats WHERE scope_key = :scopeKey", nativeQuery = true)
+    void deleteScope(@Param("scopeKey") String scopeKey);
+
+    /**
+     * 由 schedules 重建某用户个人日程的汇总（调用前先 deleteScope）
+     */
+    @Transactional
+    @Modifying
+    @Query(value = INSERT_COLUMNS + "SELECT CONCAT('u:', :userId), " + AGGREGATE +
+            "AND group_id IS NULL AND user_id = :userId " +
+            "GROUP BY schedule_date, COALESCE(category, '其他')", nativeQuery = true)
+    void rebuildPersonal(@Param("userId") String userId);
+
+    /**
+     * 由 schedules 重建某群组日程的汇总（调用前先 deleteScope）
+     */
+    @Transactional
+    @Modifying
+    @Query(value = INSERT_COLUMNS + "SELECT CONCAT('g:', :groupId), " + AGGREGATE +
+            "AND group_id = :groupId " +
+            "GROUP BY schedule_date, COALESCE(category, '其他')", nativeQuery = true)
+    void rebuildGroup(@Param("groupId") String groupId);
+
+    /**
+     * 有未删除日程的全部作用域（一致性读，不加锁）
+     */
+    @Query(value = "SELECT DISTINCT IF(group_id IS NULL, CONCAT('u:', user_id), CONCAT('g:', group_id)) " +
+            "FROM schedules WHERE is_deleted = 0", nativeQuery = true)
+    List<String> findScheduleScopes();
+
+    /**
+     * 汇总表中已有的全部作用域
+     */
+    @Query("SELECT DISTINCT d.scopeKey FROM ScheduleDailyStat d")
+    List<String> findRollupScopes();
+}
@@ -1,28 +1,298 @@
 package com.example.speedcalendarserver.repository;
 
 import com.example.speedcalendarserver.entity.Schedule;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface ScheduleRepository extends JpaRepository<Schedule, String> {
 
+    /**
+     * 年视图密度：个人非重复日程按日期分组计数，走 idx_user_date
+     */
+    @Query("SELECT new com.example.speedcalendarserver.repository.DailyDensityRow(" +
+           "s.scheduleDate, COUNT(s), MAX(s.isImportant)) FROM Schedule s WHERE " +
+           "s.userId = :userId AND s.scheduleDate BETWEEN :startDate AND :endDate AND " +
+           "s.groupId IS NULL AND s.isDeleted = 0 AND " +
+           "(s.repeatType IS NULL OR s.repeatType NOT IN ('daily', 'weekly', 'monthly', 'yearly')) " +
+           "GROUP BY s.scheduleDate")
+    List<DailyDensityRow> findPersonalDailyDensity(
+            @Param("userId") String userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 年视图密度：群组非重复日程按日期分组计数，走 idx_group_date_deleted
+     */
+    @Query("SELECT new com.example.speedcalendarserver.repository.DailyDensityRow(" +
+           "s.scheduleDate, COUNT(s), MAX(s.isImportant)) FROM Schedule s WHERE " +
+           "s.groupId IN :groupIds AND s.scheduleDate BETWEEN :startDate AND :endDate AND s.isDeleted = 0 AND " +
+           "(s.repeatType IS NULL OR s.repeatType NOT IN ('daily', 'weekly', 'monthly', 'yearly')) " +
+           "GROUP BY s.scheduleDate")
+    List<DailyDensityRow> findGroupDailyDensity(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 年视图密度：与窗口相交的个人重复系列（由 RecurrenceExpander 展开后计数）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IS NULL AND s.userId = :userId AND " +
+           "s.repeatType IN ('daily', 'weekly', 'monthly', 'yearly') AND s.scheduleDate <= :endDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate)")
+    List<Schedule> findPersonalSeriesByDateRange(
+            @Param("userId") String userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 年视图密度：与窗口相交的群组重复系列
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IN :groupIds AND " +
+           "s.repeatType IN ('daily', 'weekly', 'monthly', 'yearly') AND s.scheduleDate <= :endDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate)")
+    List<Schedule> findGroupSeriesByDateRange(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 群组统计：若干成员的个人日程按 (成员, 分类) 聚合，走 idx_user_date
+     */
+    @Query(value = "SELECT user_id AS userId, COALESCE(category, '其他') AS category, " +
+           "COUNT(*) AS scheduleCount, SUM(" + ScheduleDailyStatRepository.DURATION_SQL + ") AS busyMinutes " +
+           "FROM schedules WHERE user_id IN (:userIds) AND schedule_date BETWEEN :startDate AND :endDate " +
+           "AND group_id IS NULL AND is_deleted = 0 " +
+           "GROUP BY user_id, COALESCE(category, '其他')", nativeQuery = true)
+    List<MemberActivityRow> aggregatePersonalActivityByUsers(
+            @Param("userIds") Collection<String> userIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 群组统计：群组日程按 (创建者, 分类) 聚合，走 idx_group_date_deleted
+     */
+    @Query(value = "SELECT user_id AS userId, COALESCE(category, '其他') AS category, " +
+           "COUNT(*) AS scheduleCount, SUM(" + ScheduleDailyStatRepository.DURATION_SQL + ") AS busyMinutes " +
+           "FROM schedules WHERE group_id = :groupId AND schedule_date BETWEEN :startDate AND :endDate " +
+           "AND is_deleted = 0 " +
+           "GROUP BY user_id, COALESCE(category, '其他')", nativeQuery = true)
+    List<MemberActivityRow> aggregateGroupActivity(
+            @Param("groupId") String groupId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 查询窗口内的日程，以及窗口开始前起始、仍在重复中的系列（由 RecurrenceExpander 展开），按日期、开始时间排序
+     *
+     * <p>
+     * (groupId IS NULL AND userId = ?) OR groupId IN (...) 无法同时使用用户与群组两个索引，MySQL 会退化为宽范围扫描；
+     * 因此拆为个人、群组两个索引对齐的查询，各自有序后在内存中归并（相当于 UNION ALL）。
+     */
+    default List<Schedule> findSchedulesAndSeriesForUserAndGroupsByDateRange(
+            String userId, List<String> groupIds, LocalDate startDate, LocalDate endDate) {
+        List<Schedule> personal = findPersonalSchedulesAndSeriesByDateRange(userId, startDate, endDate);
+        if (groupIds.isEmpty()) {
+            return personal;
+        }
+        return mergeSorted(personal, findGroupSchedulesAndSeriesByDateRange(groupIds, startDate, endDate),
+                Comparator.comparing(Schedule::getScheduleDate)
+                        .thenComparing(Schedule::getStartTime, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
+    /**
+     * 个人分段：用户的个人日程（不含群组日程），含窗口前起始、仍在重复中的系列
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
     @Query("SELECT s FROM Schedule s WHERE " +
-           "s.isDeleted = 0 AND s.scheduleDate BETWEEN :startDate AND :endDate AND (" +
-           "(s.groupId IS NULL AND s.userId = :userId) OR " +
-           "(s.groupId IS NOT NULL AND s.groupId IN :groupIds)) " +
+           "s.isDeleted = 0 AND s.groupId IS NULL AND s.userId = :userId AND (" +
+           "s.scheduleDate BETWEEN :startDate AND :endDate OR (" +
+           "s.repeatType IS NOT NULL AND s.repeatType <> 'none' AND s.scheduleDate < :startDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate))) " +
            "ORDER BY s.scheduleDate ASC, s.startTime ASC")
-    List<Schedule> findSchedulesForUserAndGroupsByDateRange(
+    List<Schedule> findPersonalSchedulesAndSeriesByDateRange(
             @Param("userId") String userId,
-            @Param("groupIds") List<String> groupIds,
             @Param("startDate") LocalDate startDate,
             @Param("endDate") LocalDate endDate);
 
+    /**
+     * 忙闲查询：多个用户的个人日程，含窗口前起始、仍在重复中的系列；只投影忙闲计算所需的列
+     */
+    @Query("SELECT new com.example.speedcalendarserver.repository.FreeBusyRow(" +
+           "s.scheduleId, s.userId, s.groupId, s.scheduleDate, s.startTime, s.endTime, s.isAllDay, " +
+           "s.repeatType, s.repeatEndDate, s.updatedAt) FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IS NULL AND s.userId IN :userIds AND (" +
+           "s.scheduleDate BETWEEN :startDate AND :endDate OR (" +
+           "s.repeatType IS NOT NULL AND s.repeatType <> 'none' AND s.scheduleDate < :startDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate)))")
+    List<FreeBusyRow> findPersonalFreeBusyRowsForUsersByDateRange(
+            @Param("userIds") Collection<String> userIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 忙闲查询：指定群组的日程，条件同 {@link #findGroupSchedulesAndSeriesByDateRange}，只投影忙闲计算所需的列
+     */
+    @Query("SELECT new com.example.speedcalendarserver.repository.FreeBusyRow(" +
+           "s.scheduleId, s.userId, s.groupId, s.scheduleDate, s.startTime, s.endTime, s.isAllDay, " +
+           "s.repeatType, s.repeatEndDate, s.updatedAt) FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IN :groupIds AND (" +
+           "s.scheduleDate BETWEEN :startDate AND :endDate OR (" +
+           "s.repeatType IS NOT NULL AND s.repeatType <> 'none' AND s.scheduleDate < :startDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate)))")
+    List<FreeBusyRow> findGroupFreeBusyRowsByDateRange(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 群组分段：指定群组的日程，含窗口前起始、仍在重复中的系列
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IN :groupIds AND (" +
+           "s.scheduleDate BETWEEN :startDate AND :endDate OR (" +
+           "s.repeatType IS NOT NULL AND s.repeatType <> 'none' AND s.scheduleDate < :startDate AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :startDate))) " +
+           "ORDER BY s.scheduleDate ASC, s.startTime ASC")
+    List<Schedule> findGroupSchedulesAndSeriesByDateRange(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * 增量同步：个人日程中 (updatedAt, scheduleId) 大于游标且不晚于 until 的变更（含已删除），走 idx_user_updated
+     */
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.groupId IS NULL AND s.userId = :userId AND s.updatedAt <= :until AND (" +
+           "s.updatedAt > :since OR (s.updatedAt = :since AND s.scheduleId > :lastId)) " +
+           "ORDER BY s.updatedAt ASC, s.scheduleId ASC")
+    List<Schedule> findPersonalChangesAfter(
+            @Param("userId") String userId,
+            @Param("since") LocalDateTime since,
+            @Param("lastId") String lastId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable);
+
+    /**
+     * 增量同步：群组日程中 (updatedAt, scheduleId) 大于游标且不晚于 until 的变更（含已删除），走 idx_group_updated
+     */
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.groupId IN :groupIds AND s.updatedAt <= :until AND (" +
+           "s.updatedAt > :since OR (s.updatedAt = :since AND s.scheduleId > :lastId)) " +
+           "ORDER BY s.updatedAt ASC, s.scheduleId ASC")
+    List<Schedule> findGroupChangesAfter(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("since") LocalDateTime since,
+            @Param("lastId") String lastId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable);
+
+    /**
+     * 增量同步：提交前把本事务写入的日程 updated_at 改为同一个时间点（先 flush 挂起的实体变更，避免被其覆盖）
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE schedules SET updated_at = :at WHERE schedule_id IN :ids", nativeQuery = true)
+    int stampUpdatedAt(@Param("ids") Collection<String> ids, @Param("at") LocalDateTime at);
+
+    /**
+     * 提醒调度：设置了不超过 maxLead 的提醒的全部提前量取值，走 idx_reminder_date 松散索引扫描
+     */
+    @Query("SELECT DISTINCT s.reminderMinutes FROM Schedule s WHERE s.reminderMinutes BETWEEN 0 AND :maxLead")
+    List<Integer> findReminderLeads(@Param("maxLead") int maxLeadMinutes);
+
+    /**
+     * 提醒调度：提前量为 lead、日期在范围内的非重复日程，按 (日期, ID) keyset 分页，走 idx_reminder_date
+     * 对每个提前量只扫描提醒落在窗口内的一两天，不随总数据量增长
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.reminderMinutes = :lead AND s.scheduleDate BETWEEN :startDate AND :endDate AND s.isDeleted = 0 AND " +
+           "(s.repeatType IS NULL OR s.repeatType = 'none') AND (" +
+           "s.scheduleDate > :lastDate OR (s.scheduleDate = :lastDate AND s.scheduleId > :lastId)) " +
+           "ORDER BY s.scheduleDate ASC, s.scheduleId ASC")
+    List<Schedule> findReminderSchedulesAfter(
+            @Param("lead") int leadMinutes,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("lastDate") LocalDate lastDate,
+            @Param("lastId") String lastId,
+            Pageable pageable);
+
+    /**
+     * 提醒调度：设置了提醒且在 since 当天及之后仍在重复的系列，按主键 keyset 分页（启动与定期刷新时全量加载一次）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.reminderMinutes BETWEEN 0 AND :maxLead AND s.scheduleId > :lastId AND " +
+           "s.repeatType IS NOT NULL AND s.repeatType <> 'none' AND " +
+           "(s.repeatEndDate IS NULL OR s.repeatEndDate >= :since) " +
+           "ORDER BY s.scheduleId ASC")
+    List<Schedule> findReminderSeriesAfter(
+            @Param("maxLead") int maxLeadMinutes,
+            @Param("since") LocalDate since,
+            @Param("lastId") String lastId,
+            Pageable pageable);
+
+    /**
+     * 导出：按主键 keyset 分页读取用户的个人日程（只读，不保留脏检查快照）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IS NULL AND s.userId = :userId AND s.scheduleId > :lastId " +
+           "ORDER BY s.scheduleId ASC")
+    List<Schedule> findPersonalPageAfter(
+            @Param("userId") String userId,
+            @Param("lastId") String lastId,
+            Pageable pageable);
+
+    /**
+     * 导出：按主键 keyset 分页读取群组日程（只读，不保留脏检查快照）
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Query("SELECT s FROM Schedule s WHERE " +
+           "s.isDeleted = 0 AND s.groupId IN :groupIds AND s.scheduleId > :lastId " +
+           "ORDER BY s.scheduleId ASC")
+    List<Schedule> findGroupPageAfter(
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("lastId") String lastId,
+            Pageable pageable);
+
     Optional<Schedule> findByScheduleIdAndIsDeleted(String scheduleId, Integer isDeleted);
+
+    /**
+     * 归并两个已按 comparator 排序的列表
+     */
+    private static <T> List<T> mergeSorted(List<T> a, List<T> b, Comparator<? super T> comparator) {
+        List<T> merged = new ArrayList<>(a.size() + b.size());
+        int i = 0;
+        int j = 0;
+        while (i < a.size() && j < b.size()) {
+            merged.add(comparator.compare(a.get(i), b.get(j)) <= 0 ? a.get(i++) : b.get(j++));
+        }
+        merged.addAll(a.subList(i, a.size()));
+        merged.addAll(b.subList(j, b.size()));
+        return merged;
+    }
 }
@@ -0,0 +1,61 @@
+package com.example.speedcalendarserver.repository;
+
+import com.example.speedcalendarserver.entity.ScheduleScopeMove;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 日程归属迁移记录 Repository
+ *
+ * <p>
+ * 增量同步查询与 ScheduleRepository.find*ChangesAfter 使用相同的 (时间, 日程ID) keyset，
+ * 并排除日程当前仍对该用户可见的记录（此时新作用域的变更已把日程同步给客户端，无需墓碑）。
+ * groupIds 为空时调用方传入不会命中的占位值，避免生成 IN ()。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Repository
+public interface ScheduleScopeMoveRepository extends JpaRepository<ScheduleScopeMove, Long> {
+
+    /**
+     * 增量同步：从该用户个人日程中迁出的记录，走 idx_user_moved
+     */
+    @Query("SELECT m FROM ScheduleScopeMove m WHERE " +
+           "m.groupId IS NULL AND m.userId = :userId AND m.movedAt <= :until AND (" +
+           "m.movedAt > :since OR (m.movedAt = :since AND m.scheduleId > :lastId)) AND NOT EXISTS (" +
+           "SELECT 1 FROM Schedule s WHERE s.scheduleId = m.scheduleId AND s.isDeleted = 0 AND (" +
+           "(s.groupId IS NULL AND s.userId = :userId) OR s.groupId IN :groupIds)) " +
+           "ORDER BY m.movedAt ASC, m.scheduleId ASC")
+    List<ScheduleScopeMove> findPersonalMovesAfter(
+            @Param("userId") String userId,
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("since") LocalDateTime since,
+            @Param("lastId") String lastId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable);
+
+    /**
+     * 增量同步：从用户所在群组中迁出的记录，走 idx_group_moved
+     */
+    @Query("SELECT m FROM ScheduleScopeMove m WHERE " +
+           "m.groupId IN :groupIds AND m.movedAt <= :until AND (" +
+           "m.movedAt > :since OR (m.movedAt = :since AND m.scheduleId > :lastId)) AND NOT EXISTS (" +
+           "SELECT 1 FROM Schedule s WHERE s.scheduleId = m.scheduleId AND s.isDeleted = 0 AND (" +
+           "(s.groupId IS NULL AND s.userId = :userId) OR s.groupId IN :groupIds)) " +
+           "ORDER BY m.movedAt ASC, m.scheduleId ASC")
+    List<ScheduleScopeMove> findGroupMovesAfter(
+            @Param("userId") String userId,
+            @Param("groupIds") Collection<String> groupIds,
+            @Param("since") LocalDateTime since,
+            @Param("lastId") String lastId,
+            @Param("until") LocalDateTime until,
+            Pageable pageable);
+}
@@ -5,6 +5,7 @@ import com.example.speedcalendarserver.entity.UserGroupKey;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -23,6 +24,11 @@ public interface UserGroupRepository extends JpaRepository<UserGroup, UserGroupK
     UserGroup findByUserIdAndGroupId(String userId, String groupId);
     
     List<UserGroup> findByGroupId(String groupId);
+
+    /**
+     * 批量查找多个用户的群组关系
+     */
+    List<UserGroup> findByUserIdIn(Collection<String> userIds);
     
     /**
      * 统计群组成员数量
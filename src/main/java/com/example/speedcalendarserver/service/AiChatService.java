@@ -8,7 +8,9 @@ import com.example.speedcalendarserver.repository.ChatMessageRepository;
 import com.example.speedcalendarserver.repository.ChatSessionRepository;
 import com.example.speedcalendarserver.util.ToolResultContext;
 import com.example.speedcalendarserver.util.UserContextHolder;
+import com.example.speedcalendarserver.util.IdGenerator;
 import dev.langchain4j.service.TokenStream;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -21,6 +23,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
@@ -47,7 +50,8 @@ public class AiChatService {
     private final StreamingQuickScheduleAssistant streamingQuickScheduleAssistant;
     private final ChatSessionRepository chatSessionRepository;
     private final ChatMessageRepository chatMessageRepository;
-    private final DatabaseChatMemoryStore chatMemoryStore;
+    private final ChatMemoryStore chatMemoryStore;
+    private final ChatMessageWriter chatMessageWriter;
     private final CalendarTools calendarTools;
 
     /**
@@ -66,7 +70,7 @@ public class AiChatService {
      */
     public ChatSession createSession(String userId, String title) {
         ChatSession session = ChatSession.builder()
-                .sessionId(UUID.randomUUID().toString())
+                .sessionId(IdGenerator.nextId())
                 .userId(userId)
                 // TODO: 异步生成会话标题时需显式传入 userId，不能使用 UserContextHolder
                 // 示例：generateSessionTitleAsync(sessionId, userId, firstMessage)
@@ -163,7 +167,7 @@ public class AiChatService {
                 if ((session.getTitle() == null || session.getTitle().isBlank())
                         && title != null && !title.isBlank()) {
                     session.setTitle(title);
-                    chatSessionRepository.save(session);
+                    chatSessionRepository.updateTitleIfBlank(sessionId, title, LocalDateTime.now());
                     log.info("🏷️ 更新会话标题: {} -> {}", sessionId, title);
                 }
             }
@@ -171,8 +175,8 @@ public class AiChatService {
             // 将 sessionId 记录到线程上下文，工具可通过 SESSION_USER_MAP 回溯 userId
             UserContextHolder.setSessionId(sessionId);
 
-            // 获取当前最大序号
-            Integer maxSequenceNum = chatMessageRepository.findMaxSequenceNum(sessionId);
+            // 为本轮的用户消息与 AI 回复分配两个连续序号
+            int firstSequenceNum = chatMessageWriter.allocateSequence(sessionId, 2);
 
             // 调用 CalendarAssistant 获取 AI 回复（支持工具调用和会话记忆）
             // 注意：用户消息在 AI 调用之后保存，避免与 ChatMemoryStore 冲突
@@ -187,9 +191,12 @@ public class AiChatService {
                 throw new RuntimeException("AI 服务暂时不可用，请稍后重试", e);
             }
 
-            // AI 调用成功后，保存用户消息和 AI 回复到数据库
-            saveUserMessage(sessionId, userId, userMessage, maxSequenceNum + 1);
-            ChatMessage aiMsg = saveAiReplyAndUpdateSession(session, sessionId, userId, aiReply, maxSequenceNum + 2);
+            // AI 调用成功后，保存用户消息和 AI 回复到数据库，等待提交后再返回
+            CompletableFuture<ChatMessage> userSaved = saveUserMessage(sessionId, userId, userMessage,
+                    firstSequenceNum);
+            ChatMessage aiMsg = saveAiReplyAndUpdateSession(session, sessionId, userId, aiReply, firstSequenceNum + 1)
+                    .join();
+            userSaved.join();
 
             log.info("会话 {} 完成一轮对话，当前消息数: {}", sessionId, session.getMessageCount() + 2);
 
@@ -239,7 +246,7 @@ public class AiChatService {
                     if ((session.getTitle() == null || session.getTitle().isBlank())
                             && title != null && !title.isBlank()) {
                         session.setTitle(title);
-                        chatSessionRepository.save(session);
+                        chatSessionRepository.updateTitleIfBlank(sessionId, title, LocalDateTime.now());
                         log.info("🏷️ 更新会话标题: {} -> {}", sessionId, title);
                     }
                 } else {
@@ -259,11 +266,12 @@ public class AiChatService {
             UserContextHolder.bindSession(sessionId, userId);
             UserContextHolder.setSessionId(sessionId);
 
-            // 获取当前最大序号
-            Integer maxSequenceNum = chatMessageRepository.findMaxSequenceNum(sessionId);
+            // 为本轮的用户消息与 AI 回复分配两个连续序号
+            int firstSequenceNum = chatMessageWriter.allocateSequence(sessionId, 2);
 
-            // 先保存用户消息
-            saveUserMessage(sessionId, userId, userMessage, maxSequenceNum + 1);
+            // 先将用户消息加入写入队列（队列已满时在调用模型前拒绝）
+            CompletableFuture<ChatMessage> userSaved = saveUserMessage(sessionId, userId, userMessage,
+                    firstSequenceNum);
 
             long enqueueMs = System.currentTimeMillis();
             log.info("[AI_TIMELINE][{}] enqueue_model userId={} sessionId={} +{}ms", traceId, userId, sessionId,
@@ -279,7 +287,7 @@ public class AiChatService {
             // 保存会话相关信息供回调使用
             final String finalSessionId = sessionId;
             final ChatSession finalSession = session;
-            final int nextSequenceNum = maxSequenceNum + 2;
+            final int nextSequenceNum = firstSequenceNum + 1;
             final String finalUserId = userId; // 保存 userId 供回调线程使用
             final AtomicBoolean firstTokenLogged = new AtomicBoolean(false);
 
@@ -321,28 +329,40 @@ public class AiChatService {
                         UserContextHolder.setUserId(finalUserId);
                         UserContextHolder.setSessionId(finalSessionId);
                         try {
-                            // 保存 AI 回复到数据库
-                            ChatMessage aiMsg = saveAiReplyAndUpdateSession(
-                                    finalSession, finalSessionId, finalUserId,
-                                    fullResponse.toString(), nextSequenceNum);
-
-                            // 发送完成事件（包含 sessionId，让前端知道实际使用的会话）
-                            String doneData = String.format(
-                                    "{\"content\": \"\", \"done\": true, \"sessionId\": \"%s\", \"messageId\": \"%s\", \"tokensUsed\": %d}",
-                                    finalSessionId, aiMsg.getId(), tokensUsed.get());
-                            log.info("SSE 完成: {}", doneData);
-                            emitter.send(SseEmitter.event().data(doneData));
-                            emitter.complete();
-
-                            long completeMs = System.currentTimeMillis();
-                            log.info("[AI_TIMELINE][{}] stream_complete userId={} sessionId={} +{}ms len={}", traceId,
-                                    finalUserId, finalSessionId, completeMs - requestStartMs,
-                                    fullResponse.length());
-
-                            log.info("会话 {} 流式对话完成，完整回复长度: {}", finalSessionId, fullResponse.length());
-                        } catch (IOException e) {
-                            log.error("发送完成事件失败: {}", e.getMessage());
-                            emitter.completeWithError(e);
+                            // AI 回复加入写入队列，不在回调线程上等待数据库；
+                            // 本轮两条消息都提交后才发送完成事件（包含 sessionId，让前端知道实际使用的会话）
+                            saveAiReplyAndUpdateSession(finalSession, finalSessionId, finalUserId,
+                                    fullResponse.toString(), nextSequenceNum)
+                                    .thenCombine(userSaved, (aiMsg, userMsg) -> aiMsg)
+                                    .whenCompleteAsync((aiMsg, error) -> {
+                                        if (error != null) {
+                                            log.error("会话 {} 消息保存失败: {}", finalSessionId, error.getMessage());
+                                            sendStreamError(emitter, "消息保存失败，请稍后重试");
+                                            return;
+                                        }
+                                        try {
+                                            String doneData = String.format(
+                                                    "{\"content\": \"\", \"done\": true, \"sessionId\": \"%s\", \"messageId\": \"%s\", \"tokensUsed\": %d}",
+                                                    finalSessionId, aiMsg.getId(), tokensUsed.get());
+                                            log.info("SSE 完成: {}", doneData);
+                                            emitter.send(SseEmitter.event().data(doneData));
+                                            emitter.complete();
+
+                                            long completeMs = System.currentTimeMillis();
+                                            log.info("[AI_TIMELINE][{}] stream_complete userId={} sessionId={} +{}ms len={}",
+                                                    traceId, finalUserId, finalSessionId, completeMs - requestStartMs,
+                                                    fullResponse.length());
+
+                                            log.info("会话 {} 流式对话完成，完整回复长度: {}", finalSessionId,
+                                                    fullResponse.length());
+                                        } catch (IOException e) {
+                                            log.error("发送完成事件失败: {}", e.getMessage());
+                                            emitter.completeWithError(e);
+                                        }
+                                    });
+                        } catch (IllegalStateException e) {
+                            // 写入队列已满
+                            sendStreamError(emitter, e.getMessage());
                         } finally {
                             UserContextHolder.unbindSession(finalSessionId);
                             UserContextHolder.clear();
@@ -489,7 +509,7 @@ public class AiChatService {
         log.info("【quickScheduleAction】userId: {}, text: {}", userId, text);
 
         // 清理该用户的快速日程内存缓存
-        chatMemoryStore.clearCache(quickSessionId);
+        chatMemoryStore.deleteMessages(quickSessionId);
 
         // 设置用户上下文
         UserContextHolder.setUserId(userId);
@@ -562,7 +582,7 @@ public class AiChatService {
 
         } finally {
             // 清理
-            chatMemoryStore.clearCache(quickSessionId);
+            chatMemoryStore.deleteMessages(quickSessionId);
             UserContextHolder.unbindSession(quickSessionId);
             UserContextHolder.clear();
             ToolResultContext.clear();
@@ -610,10 +630,26 @@ public class AiChatService {
     }
 
     /**
-     * 保存用户消息（独立事务）
+     * 发送错误事件并结束 SSE 连接
      */
-    @Transactional
-    public void saveUserMessage(String sessionId, String userId, String content, int sequenceNum) {
+    private void sendStreamError(SseEmitter emitter, String message) {
+        try {
+            emitter.send(SseEmitter.event().data(
+                    String.format("{\"error\": \"%s\", \"done\": true}", escapeJson(message))));
+            emitter.complete();
+        } catch (IOException e) {
+            log.error("发送错误事件失败: {}", e.getMessage());
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * 保存用户消息（异步批量写入，返回提交后完成的 Future）
+     *
+     * @throws IllegalStateException 写入队列已满
+     */
+    public CompletableFuture<ChatMessage> saveUserMessage(String sessionId, String userId, String content,
+            int sequenceNum) {
         ChatMessage userMsg = ChatMessage.builder()
                 .sessionId(sessionId)
                 .userId(userId)
@@ -621,15 +657,16 @@ public class AiChatService {
                 .content(content)
                 .sequenceNum(sequenceNum)
                 .build();
-        chatMessageRepository.save(userMsg);
+        return chatMessageWriter.enqueue(userMsg, 0);
     }
 
     /**
-     * 保存 AI 回复并更新会话信息（独立事务）
+     * 保存 AI 回复并累加会话消息数（异步批量写入，返回提交后完成的 Future）
+     *
+     * @throws IllegalStateException 写入队列已满
      */
-    @Transactional
-    public ChatMessage saveAiReplyAndUpdateSession(ChatSession session, String sessionId, String userId,
-            String aiReply, int sequenceNum) {
+    public CompletableFuture<ChatMessage> saveAiReplyAndUpdateSession(ChatSession session, String sessionId,
+            String userId, String aiReply, int sequenceNum) {
         // 保存 AI 回复
         ChatMessage aiMsg = ChatMessage.builder()
                 .sessionId(sessionId)
@@ -638,14 +675,13 @@ public class AiChatService {
                 .content(aiReply)
                 .sequenceNum(sequenceNum)
                 .build();
-        chatMessageRepository.save(aiMsg);
+        CompletableFuture<ChatMessage> saved = chatMessageWriter.enqueue(aiMsg, 2);
 
-        // 更新会话信息
+        // 会话计数由写入线程以 message_count + 2 原子累加，这里只同步内存中的实体
         session.setMessageCount(session.getMessageCount() + 2);
-        session.setLastMessageAt(LocalDateTime.now());
-        chatSessionRepository.save(session);
+        session.setLastMessageAt(aiMsg.getCreatedAt());
 
-        return aiMsg;
+        return saved;
     }
 
     /**
@@ -661,8 +697,7 @@ public class AiChatService {
                 .findBySessionIdAndUserIdAndIsDeleted(sessionId, userId, 0)
                 .orElseThrow(() -> new IllegalArgumentException("会话不存在或无权访问"));
 
-        session.setIsDeleted(1);
-        chatSessionRepository.save(session);
+        chatSessionRepository.markDeleted(session.getSessionId(), LocalDateTime.now());
         log.info("用户 {} 删除会话: {}", userId, sessionId);
     }
 
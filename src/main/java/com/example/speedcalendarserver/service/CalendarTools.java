@@ -3,7 +3,6 @@ package com.example.speedcalendarserver.service;
 import com.example.speedcalendarserver.dto.CreateScheduleRequest;
 import com.example.speedcalendarserver.dto.ScheduleDTO;
 import com.example.speedcalendarserver.entity.ChatSession;
-import com.example.speedcalendarserver.entity.Group;
 import com.example.speedcalendarserver.repository.ChatSessionRepository;
 import com.example.speedcalendarserver.util.ToolResultContext;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -36,10 +35,16 @@ import java.util.stream.Collectors;
 public class CalendarTools {
 
     private final ScheduleService scheduleService;
+    private final ScheduleSearchService scheduleSearchService;
     private final ChatSessionRepository chatSessionRepository;
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
+    /**
+     * 按关键词删除时最多列出的候选数
+     */
+    private static final int MAX_DELETE_MATCHES = 20;
+
     /**
      * 判断字符串是否为空或无效值
      */
@@ -170,14 +175,15 @@ public class CalendarTools {
                     result.getScheduleId(),
                     result.getScheduleDate());
 
-            return String.format("✅ 日程创建成功！\n📅 标题：%s\n📆 日期：%s\n⏰ 时间：%s%s%s%s%s",
+            return String.format("✅ 日程创建成功！\n📅 标题：%s\n📆 日期：%s\n⏰ 时间：%s%s%s%s%s%s",
                     result.getTitle(),
                     result.getScheduleDate(),
                     timeInfo,
                     locationInfo,
                     reminderInfo,
                     repeatInfo,
-                    groupInfo);
+                    groupInfo,
+                    getConflictText(result.getConflicts()));
 
         } catch (DateTimeParseException e) {
             log.error("【CalendarTools】日期格式错误", e);
@@ -188,6 +194,25 @@ public class CalendarTools {
         }
     }
 
+    /**
+     * 时间冲突提示，供模型转告用户；无冲突时为空串
+     */
+    private String getConflictText(List<ScheduleDTO> conflicts) {
+        if (conflicts == null || conflicts.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("\n⚠️ 与以下日程时间冲突：");
+        for (ScheduleDTO c : conflicts) {
+            sb.append(String.format("\n- 【%s】%s %s - %s%s",
+                    c.getTitle(),
+                    c.getScheduleDate(),
+                    c.getStartTime(),
+                    c.getEndTime() != null ? c.getEndTime() : "未设置",
+                    c.getGroupName() != null ? "（群组：" + c.getGroupName() + "）" : ""));
+        }
+        return sb.toString();
+    }
+
     /**
      * 获取重复类型的中文描述
      */
@@ -289,27 +314,10 @@ public class CalendarTools {
                 return "请告诉我要删除哪个日程，例如'删除健身房的日程'。";
             }
 
-            // 查询当前月和下个月的日程
-            LocalDate now = LocalDate.now();
-            int year = now.getYear();
-            int month = now.getMonthValue();
-
-            List<ScheduleDTO> schedules = scheduleService.getSchedulesByMonth(userId, year, month);
-
-            // 如果当前月没找到，尝试下个月
-            if (schedules.isEmpty()) {
-                int nextMonth = month == 12 ? 1 : month + 1;
-                int nextYear = month == 12 ? year + 1 : year;
-                schedules = scheduleService.getSchedulesByMonth(userId, nextYear, nextMonth);
-            }
-
-            // 根据关键词筛选匹配的日程
-            List<ScheduleDTO> matchedSchedules = schedules.stream()
-                    .filter(s -> s.getTitle().contains(titleKeyword))
-                    .toList();
+            List<ScheduleDTO> matchedSchedules = searchByKeyword(userId, titleKeyword);
 
             if (matchedSchedules.isEmpty()) {
-                return String.format("找不到标题包含「%s」的日程。", titleKeyword);
+                return String.format("找不到包含「%s」的日程。", titleKeyword);
             }
 
             if (matchedSchedules.size() == 1) {
@@ -374,20 +382,8 @@ public class CalendarTools {
                 userId, titleKeyword, index);
 
         try {
-            // 查询当前月和下个月的日程
-            LocalDate now = LocalDate.now();
-            List<ScheduleDTO> schedules = scheduleService.getSchedulesByMonth(userId, now.getYear(),
-                    now.getMonthValue());
-
-            // 下个月
-            int nextMonth = now.getMonthValue() == 12 ? 1 : now.getMonthValue() + 1;
-            int nextYear = now.getMonthValue() == 12 ? now.getYear() + 1 : now.getYear();
-            schedules.addAll(scheduleService.getSchedulesByMonth(userId, nextYear, nextMonth));
-
-            // 根据关键词筛选
-            List<ScheduleDTO> matchedSchedules = schedules.stream()
-                    .filter(s -> s.getTitle().contains(titleKeyword))
-                    .toList();
+            // 与 deleteSchedule 相同的查询，保证序号一致
+            List<ScheduleDTO> matchedSchedules = searchByKeyword(userId, titleKeyword);
 
             if (index < 1 || index > matchedSchedules.size()) {
                 return String.format("序号无效，请输入 1 到 %d 之间的数字。", matchedSchedules.size());
@@ -411,6 +407,13 @@ public class CalendarTools {
         }
     }
 
+    /**
+     * 按关键词搜索今天及之后的日程（含未结束的重复系列），跨全部月份
+     */
+    private List<ScheduleDTO> searchByKeyword(String userId, String keyword) {
+        return scheduleSearchService.search(userId, keyword, LocalDate.now(), null, MAX_DELETE_MATCHES).getItems();
+    }
+
     /**
      * 根据会话ID解析用户ID
      * 支持两种场景：
@@ -458,7 +461,7 @@ public class CalendarTools {
         log.info("【CalendarTools】listUserGroups 被调用 - userId: {}", userId);
 
         try {
-            List<Group> groups = scheduleService.getMemberGroups(userId);
+            List<GroupMetadataCache.GroupMeta> groups = scheduleService.getMemberGroups(userId);
 
             if (groups.isEmpty()) {
                 return "[]";
@@ -466,7 +469,7 @@ public class CalendarTools {
 
             // 构建 JSON 数组
             List<Map<String, String>> groupList = groups.stream()
-                    .map(g -> Map.of("id", g.getId(), "name", g.getName()))
+                    .map(g -> Map.of("id", g.id(), "name", g.name()))
                     .collect(Collectors.toList());
 
             ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,262 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ChatWriteBehindConfig;
+import com.example.speedcalendarserver.entity.ChatMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天消息异步批量写入（write-behind）
+ *
+ * <p>
+ * 对话中的用户消息、AI 回复与会话计数更新先进入有界队列，由单个后台线程攒批：
+ * 一个事务内用一次 JDBC 批量插入写 chat_messages，再按会话合并成一次 message_count 累加，提交后才完成对应的 Future，
+ * 调用方据此确认消息已落库；整批失败时逐条重试，只有出错的消息以异常完成。空闲时来一条写一批，不额外等待；写入繁忙时上一批提交期间到达的消息自然合并到下一批。
+ *
+ * <p>
+ * 队列满时入队最多等待 enqueueTimeout，仍无空位则抛出 {@link IllegalStateException} 拒绝本轮对话，
+ * 而不是无限堆积。chat_messages 使用自增主键，Hibernate 无法批量插入，因此这里直接使用 JdbcTemplate。
+ *
+ * <p>
+ * 消息序号由 {@link #allocateSequence} 在 chat_sessions.next_seq 上原子分配，与消息是否已提交无关，
+ * 同一会话的并发轮次（包括不同实例上的）不会拿到相同序号。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class ChatMessageWriter {
+
+    private static final String INSERT_MESSAGE_SQL = "INSERT INTO chat_messages " +
+            "(session_id, user_id, role, content, tokens_used, sequence_num, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * 原子递增并通过 LAST_INSERT_ID(expr) 记下新值，同一连接上随后的 SELECT LAST_INSERT_ID() 读取
+     */
+    private static final String ALLOCATE_SEQUENCE_SQL = "UPDATE chat_sessions " +
+            "SET next_seq = LAST_INSERT_ID(next_seq + ?) WHERE session_id = ?";
+
+    private static final String UPDATE_SESSION_SQL = "UPDATE chat_sessions " +
+            "SET message_count = message_count + ?, last_message_at = ?, updated_at = ? WHERE session_id = ?";
+
+    /**
+     * 后台线程空闲时检查关闭标志的间隔
+     */
+    private static final long IDLE_POLL_MS = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ChatWriteBehindConfig config;
+    private final BlockingQueue<PendingWrite> queue;
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public ChatMessageWriter(JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ChatWriteBehindConfig config,
+            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.config = config;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        meterRegistry.gaugeCollectionSize("chat.write.queue.size", Tags.empty(), queue);
+        this.flusher = new Thread(this::run, "chat-message-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * 入队一条消息
+     *
+     * @param message            待写入的消息（id 为空，提交后回填）
+     * @param sessionCountDelta 会话 message_count 的增量
+     * @return 消息提交后完成的 Future；写入失败时异常完成
+     * @throws IllegalStateException 队列已满且等待超时
+     */
+    public CompletableFuture<ChatMessage> enqueue(ChatMessage message, int sessionCountDelta) {
+        if (message.getCreatedAt() == null) {
+            message.setCreatedAt(LocalDateTime.now());
+        }
+        PendingWrite write = new PendingWrite(message, sessionCountDelta, new CompletableFuture<>());
+        boolean accepted;
+        try {
+            accepted = running && queue.offer(write, config.getEnqueueTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+        if (!accepted) {
+            log.warn("【ChatWriter】写入队列已满，拒绝会话 {} 的消息", message.getSessionId());
+            throw new IllegalStateException("消息写入繁忙，请稍后重试");
+        }
+        return write.future;
+    }
+
+    /**
+     * 为会话分配 count 个连续的消息序号
+     *
+     * @return 分配到的第一个序号
+     * @throws IllegalArgumentException 会话不存在
+     */
+    public int allocateSequence(String sessionId, int count) {
+        Long last = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(ALLOCATE_SEQUENCE_SQL, count, sessionId) == 0) {
+                throw new IllegalArgumentException("会话不存在或无权访问");
+            }
+            return jdbcTemplate.queryForObject("SELECT LAST_INSERT_ID()", Long.class);
+        });
+        return (int) (last - count + 1);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        // 不中断线程，避免打断进行中的批量提交
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        // 关闭前写完剩余消息
+        List<PendingWrite> batch = new ArrayList<>();
+        while (queue.drainTo(batch, config.getBatchSize()) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(config.getBatchSize());
+        while (running) {
+            PendingWrite first;
+            try {
+                first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            queue.drainTo(batch, config.getBatchSize() - 1);
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        long startMs = System.currentTimeMillis();
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            // 整批已回滚：逐条单独重试，只让出错的那几条失败，不连累同批的其他消息
+            log.warn("【ChatWriter】批量写入 {} 条消息失败，逐条重试: {}", batch.size(), e.getMessage());
+            batch.forEach(this::flushOne);
+            return;
+        }
+        for (PendingWrite write : batch) {
+            write.future.complete(write.message);
+        }
+        log.debug("【ChatWriter】批量写入 {} 条消息, 耗时: {}ms", batch.size(), System.currentTimeMillis() - startMs);
+    }
+
+    private void flushOne(PendingWrite write) {
+        try {
+            write(List.of(write));
+        } catch (RuntimeException e) {
+            // 单条提交失败不再重试：通知调用方，由其向客户端报告
+            log.error("【ChatWriter】会话 {} 的消息写入失败: {}", write.message.getSessionId(), e.getMessage(), e);
+            write.future.completeExceptionally(e);
+            return;
+        }
+        write.future.complete(write.message);
+    }
+
+    private void write(List<PendingWrite> batch) {
+        transactionTemplate.executeWithoutResult(status -> {
+            insertMessages(batch);
+            updateSessions(batch);
+        });
+    }
+
+    private void insertMessages(List<PendingWrite> batch) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_MESSAGE_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        ChatMessage m = batch.get(i).message;
+                        ps.setString(1, m.getSessionId());
+                        ps.setString(2, m.getUserId());
+                        ps.setString(3, m.getRole().name());
+                        ps.setString(4, m.getContent());
+                        if (m.getTokensUsed() != null) {
+                            ps.setInt(5, m.getTokensUsed());
+                        } else {
+                            ps.setNull(5, Types.INTEGER);
+                        }
+                        ps.setInt(6, m.getSequenceNum());
+                        ps.setTimestamp(7, Timestamp.valueOf(m.getCreatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                },
+                keyHolder);
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < batch.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            batch.get(i).message.setId(((Number) key).longValue());
+        }
+    }
+
+    private void updateSessions(List<PendingWrite> batch) {
+        // 同一会话合并为一次累加；最后消息时间取该批中最晚的一条
+        Map<String, PendingWrite> latest = new LinkedHashMap<>();
+        Map<String, Integer> deltas = new LinkedHashMap<>();
+        for (PendingWrite write : batch) {
+            if (write.sessionCountDelta == 0) {
+                continue;
+            }
+            String sessionId = write.message.getSessionId();
+            deltas.merge(sessionId, write.sessionCountDelta, Integer::sum);
+            latest.put(sessionId, write);
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((sessionId, delta) -> args.add(new Object[] {
+                delta, Timestamp.valueOf(latest.get(sessionId).message.getCreatedAt()), now, sessionId }));
+        jdbcTemplate.batchUpdate(UPDATE_SESSION_SQL, args);
+    }
+
+    private record PendingWrite(ChatMessage message, int sessionCountDelta, CompletableFuture<ChatMessage> future) {
+    }
+}
@@ -1,18 +1,22 @@
 package com.example.speedcalendarserver.service;
 
+import com.example.speedcalendarserver.config.ChatMemoryConfig;
 import com.example.speedcalendarserver.entity.ChatMessage;
 import com.example.speedcalendarserver.repository.ChatMessageRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.SystemMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.store.memory.chat.ChatMemoryStore;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 数据库聊天记忆存储
@@ -25,18 +29,46 @@ import java.util.concurrent.ConcurrentHashMap;
  * 注意：使用内存缓存避免重复从数据库加载和消息重复问题。
  * 首次加载时从数据库读取，之后由 LangChain4j 管理内存中的消息列表。
  *
+ * <p>
+ * 缓存按估算的内存占用（消息文本长度）限制总大小，空闲过期；被淘汰的会话下次访问时从 chat_messages 透明重新加载
+ * （消息由 AiChatService 写入数据库，淘汰不会丢失上下文）。命中率、淘汰数等指标见 /actuator/metrics/cache.*，cache=chat.memory。
+ *
  * @author SpeedCalendar Team
  * @since 2025-11-26
  */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class DatabaseChatMemoryStore implements ChatMemoryStore {
 
+    /**
+     * 会话记忆窗口大小，AiConfig 中的 MessageWindowChatMemory 使用同一个值；冷加载只读取最后这么多条
+     */
+    public static final int MAX_MESSAGES = 20;
+
+    /**
+     * 权重估算：每个会话、每条消息的固定开销（字节），文本按每字符 2 字节计
+     */
+    private static final int SESSION_OVERHEAD = 512;
+    private static final int MESSAGE_OVERHEAD = 64;
+
     private final ChatMessageRepository chatMessageRepository;
 
     // 内存缓存：sessionId -> 消息列表（首次从数据库加载，之后在内存中管理）
-    private final Map<String, List<dev.langchain4j.data.message.ChatMessage>> memoryCache = new ConcurrentHashMap<>();
+    private final Cache<String, List<dev.langchain4j.data.message.ChatMessage>> memoryCache;
+
+    public DatabaseChatMemoryStore(ChatMessageRepository chatMessageRepository,
+            ChatMemoryConfig config,
+            MeterRegistry meterRegistry) {
+        this.chatMessageRepository = chatMessageRepository;
+        // 只限制总权重：固定的会话开销同时限制了会话数（Caffeine 不允许同时设置条数与权重上限）
+        this.memoryCache = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String sid, List<dev.langchain4j.data.message.ChatMessage> messages) -> weigh(messages))
+                .expireAfterAccess(config.getIdleTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, memoryCache, "chat.memory");
+    }
 
     /**
      * 获取指定会话的消息列表
@@ -49,31 +81,32 @@ public class DatabaseChatMemoryStore implements ChatMemoryStore {
     public List<dev.langchain4j.data.message.ChatMessage> getMessages(Object sessionId) {
         String sid = sessionId.toString();
 
-        // 如果缓存中没有，从数据库加载
-        if (!memoryCache.containsKey(sid)) {
-            log.info("【ChatMemoryStore】首次加载会话 {} 的历史消息", sid);
-            List<dev.langchain4j.data.message.ChatMessage> messages = loadFromDatabase(sid);
-            memoryCache.put(sid, messages);
-            log.info("【ChatMemoryStore】会话 {} 加载了 {} 条历史消息", sid, messages.size());
-        }
-
-        return memoryCache.get(sid);
+        // 如果缓存中没有（首次访问或已被淘汰），从数据库加载
+        return memoryCache.get(sid, key -> {
+            List<dev.langchain4j.data.message.ChatMessage> messages = loadWindow(key);
+            log.info("【ChatMemoryStore】会话 {} 加载了 {} 条历史消息", key, messages.size());
+            return messages;
+        });
     }
 
     /**
-     * 从数据库加载历史消息
+     * 从数据库加载历史消息：按 idx_session_sequence 倒序只取窗口内的最后 {@link #MAX_MESSAGES} 条，
+     * 与会话历史总长度无关；不经过内存缓存，RedisChatMemoryStore 未命中时也由此加载
      */
-    private List<dev.langchain4j.data.message.ChatMessage> loadFromDatabase(String sessionId) {
+    public List<dev.langchain4j.data.message.ChatMessage> loadWindow(String sessionId) {
         // 增加判空逻辑，避免 sessionId 为 null 时报错
         if (sessionId == null) {
             return new ArrayList<>();
         }
-        
-        List<ChatMessage> dbMessages = chatMessageRepository.findBySessionIdOrderBySequenceNumAsc(sessionId);
+
+        List<ChatMessage> dbMessages = chatMessageRepository.findRecentMessages(
+                sessionId, PageRequest.of(0, MAX_MESSAGES));
         List<dev.langchain4j.data.message.ChatMessage> messages = new ArrayList<>();
 
         if (dbMessages != null) {
-            for (ChatMessage msg : dbMessages) {
+            // 查询结果为倒序，反向遍历恢复时间顺序
+            for (int i = dbMessages.size() - 1; i >= 0; i--) {
+                ChatMessage msg = dbMessages.get(i);
                 if (msg.getRole() == ChatMessage.MessageRole.user) {
                     messages.add(UserMessage.from(msg.getContent()));
                 } else if (msg.getRole() == ChatMessage.MessageRole.assistant) {
@@ -108,7 +141,7 @@ public class DatabaseChatMemoryStore implements ChatMemoryStore {
     @Override
     public void deleteMessages(Object sessionId) {
         String sid = sessionId.toString();
-        memoryCache.remove(sid);
+        memoryCache.invalidate(sid);
         log.debug("【ChatMemoryStore】删除会话 {} 的记忆缓存", sid);
     }
 
@@ -117,7 +150,7 @@ public class DatabaseChatMemoryStore implements ChatMemoryStore {
      */
     public void clearCache(String sessionId) {
         if (sessionId != null) {
-            memoryCache.remove(sessionId);
+            memoryCache.invalidate(sessionId);
         }
     }
 
@@ -125,6 +158,31 @@ public class DatabaseChatMemoryStore implements ChatMemoryStore {
      * 清除所有缓存
      */
     public void clearAllCache() {
-        memoryCache.clear();
+        memoryCache.invalidateAll();
+    }
+
+    /**
+     * 估算会话消息列表占用的字节数
+     */
+    private static int weigh(List<dev.langchain4j.data.message.ChatMessage> messages) {
+        long bytes = SESSION_OVERHEAD;
+        for (dev.langchain4j.data.message.ChatMessage message : messages) {
+            bytes += MESSAGE_OVERHEAD + 2L * textLength(message);
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static int textLength(dev.langchain4j.data.message.ChatMessage message) {
+        String text = null;
+        if (message instanceof UserMessage user) {
+            text = user.hasSingleText() ? user.singleText() : user.toString();
+        } else if (message instanceof AiMessage ai) {
+            text = ai.text();
+        } else if (message instanceof SystemMessage system) {
+            text = system.text();
+        } else if (message != null) {
+            text = message.toString();
+        }
+        return text != null ? text.length() : 0;
     }
 }
@@ -0,0 +1,157 @@
+package com.example.speedcalendarserver.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+/**
+ * 忙闲位图
+ *
+ * <p>
+ * 以 15 分钟为一格，从 start 起连续 days 天，第 d 天第 k 格对应第 d * 96 + k 位，
+ * 两周只需 21 个 long。多人取交集（全员空闲）即对忙碌位做按位或。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public final class FreeBusyBitmap {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    /**
+     * 未填写结束时间的日程按 1 小时计
+     */
+    private static final int DEFAULT_DURATION_MINUTES = 60;
+
+    private final LocalDate start;
+    private final int days;
+    private final long[] words;
+
+    public FreeBusyBitmap(LocalDate start, int days) {
+        this.start = start;
+        this.days = days;
+        this.words = new long[(days * SLOTS_PER_DAY + 63) >>> 6];
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    /**
+     * 标记一次定时日程为忙碌；结束时间早于开始时间视为跨午夜，窗口外的部分忽略
+     */
+    public void markBusy(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        long dayOffset = ChronoUnit.DAYS.between(start, date);
+        int startMinute = startTime.getHour() * 60 + startTime.getMinute();
+        int endMinute;
+        if (endTime == null) {
+            endMinute = startMinute + DEFAULT_DURATION_MINUTES;
+        } else {
+            endMinute = endTime.getHour() * 60 + endTime.getMinute();
+            if (endMinute < startMinute) {
+                endMinute += 24 * 60;
+            } else if (endMinute == startMinute) {
+                endMinute += SLOT_MINUTES;
+            }
+        }
+        long from = dayOffset * SLOTS_PER_DAY + startMinute / SLOT_MINUTES;
+        long to = dayOffset * SLOTS_PER_DAY + (endMinute + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        setRange((int) Math.max(0, from), (int) Math.min((long) days * SLOTS_PER_DAY, to));
+    }
+
+    /**
+     * 并入另一张同窗口位图的忙碌位
+     */
+    public void or(FreeBusyBitmap other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    public boolean isBusy(int slot) {
+        return (words[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * 将忙碌格累加到 counts（长度为 days * SLOTS_PER_DAY），只遍历置位的格
+     */
+    public void addTo(int[] counts) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                counts[(i << 6) + Long.numberOfTrailingZeros(word)]++;
+                word &= word - 1;
+            }
+        }
+    }
+
+    private void setRange(int from, int to) {
+        if (from >= to) {
+            return;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            words[first] |= firstMask & lastMask;
+            return;
+        }
+        words[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            words[i] = -1L;
+        }
+        words[last] |= lastMask;
+    }
+
+    /**
+     * 在每天 [dayStartSlot, dayEndSlot) 内查找连续空闲且不短于 minSlots 格的最大区间
+     *
+     * @param free 第 slot 格是否可用
+     */
+    public static List<Run> freeRuns(LocalDate start, int days, int dayStartSlot, int dayEndSlot, int minSlots,
+            IntPredicate free) {
+        List<Run> runs = new ArrayList<>();
+        for (int d = 0; d < days; d++) {
+            int base = d * SLOTS_PER_DAY;
+            int runStart = -1;
+            for (int k = dayStartSlot; k <= dayEndSlot; k++) {
+                boolean available = k < dayEndSlot && free.test(base + k);
+                if (available && runStart < 0) {
+                    runStart = k;
+                } else if (!available && runStart >= 0) {
+                    if (k - runStart >= minSlots) {
+                        runs.add(new Run(start.plusDays(d), runStart, k));
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * 某天内的连续格区间 [startSlot, endSlot)
+     */
+    public record Run(LocalDate date, int startSlot, int endSlot) {
+
+        public LocalTime startTime() {
+            return LocalTime.MIN.plusMinutes((long) startSlot * SLOT_MINUTES);
+        }
+
+        /**
+         * 结束于次日 0 点时返回 00:00
+         */
+        public LocalTime endTime() {
+            return LocalTime.MIN.plusMinutes((long) endSlot * SLOT_MINUTES);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.FreeSlotsResponse;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.repository.FreeBusyRow;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+/**
+ * 群组忙闲查询服务
+ *
+ * <p>
+ * 为每位成员构建 {@link FreeBusyBitmap}：个人日程由一次 user_id IN 查询取出，
+ * 成员所属各群组的日程由一次 group_id IN 查询取出，每个群组只生成一张位图再并入其成员。
+ * 两次查询都只投影时间与重复规则列（{@link FreeBusyRow}），不加载标题、备注等文本列。
+ * 全员空闲即所有成员位图按位或后的零位；允许部分成员忙碌时按格累加忙碌人数。
+ *
+ * <p>
+ * 全天日程视为不占用时间（与常见日历的默认"空闲"显示一致），只有定时日程计为忙碌。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FreeBusyService {
+
+    public static final int MAX_DAYS = 31;
+    public static final int MAX_LIMIT = 100;
+
+    private final ScheduleRepository scheduleRepository;
+    private final MembershipCache membershipCache;
+    private final RecurrenceExpander recurrenceExpander;
+
+    /**
+     * 查找群组成员的共同空闲时段
+     *
+     * @param startDate       开始日期（含）
+     * @param endDate         结束日期（含）
+     * @param durationMinutes 会议时长，结果区间不短于该时长
+     * @param dayStart        每天可安排的最早时间
+     * @param dayEnd          每天可安排的最晚时间，00:00 表示到当天结束
+     * @param maxBusy         允许忙碌的成员数，0 表示全员空闲
+     * @param limit           最多返回的区间数
+     * @throws SecurityException        不是该群组成员
+     * @throws IllegalArgumentException 参数无效
+     */
+    public FreeSlotsResponse findFreeSlots(String userId, String groupId, LocalDate startDate, LocalDate endDate,
+            int durationMinutes, LocalTime dayStart, LocalTime dayEnd, int maxBusy, int limit) {
+        if (!membershipCache.isMember(userId, groupId)) {
+            throw new SecurityException("您不是该群组成员，无法查看成员忙闲");
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("查询范围须为 1 到 " + MAX_DAYS + " 天");
+        }
+        int dayStartSlot = minuteOfDay(dayStart) / FreeBusyBitmap.SLOT_MINUTES;
+        int dayEndSlot = dayEnd.equals(LocalTime.MIDNIGHT)
+                ? FreeBusyBitmap.SLOTS_PER_DAY
+                : (minuteOfDay(dayEnd) + FreeBusyBitmap.SLOT_MINUTES - 1) / FreeBusyBitmap.SLOT_MINUTES;
+        if (dayStartSlot >= dayEndSlot) {
+            throw new IllegalArgumentException("每日开始时间须早于结束时间");
+        }
+        if (durationMinutes < FreeBusyBitmap.SLOT_MINUTES || durationMinutes > 24 * 60) {
+            throw new IllegalArgumentException("会议时长须为 " + FreeBusyBitmap.SLOT_MINUTES + " 到 1440 分钟");
+        }
+        int minSlots = (durationMinutes + FreeBusyBitmap.SLOT_MINUTES - 1) / FreeBusyBitmap.SLOT_MINUTES;
+
+        long startMs = System.currentTimeMillis();
+        Set<String> memberIds = membershipCache.getMemberIds(groupId);
+        Map<String, FreeBusyBitmap> bitmaps = buildMemberBitmaps(memberIds, startDate, days);
+
+        IntPredicate notPast = notPast(startDate, days);
+        IntPredicate available;
+        int[] counts = null;
+        if (maxBusy <= 0) {
+            FreeBusyBitmap union = new FreeBusyBitmap(startDate, days);
+            bitmaps.values().forEach(union::or);
+            available = slot -> !union.isBusy(slot) && notPast.test(slot);
+        } else {
+            int[] busyCounts = new int[days * FreeBusyBitmap.SLOTS_PER_DAY];
+            bitmaps.values().forEach(b -> b.addTo(busyCounts));
+            available = slot -> busyCounts[slot] <= maxBusy && notPast.test(slot);
+            counts = busyCounts;
+        }
+
+        List<FreeBusyBitmap.Run> runs = FreeBusyBitmap.freeRuns(startDate, days, dayStartSlot, dayEndSlot, minSlots,
+                available);
+        int[] finalCounts = counts;
+        List<FreeSlotsResponse.Slot> slots = runs.stream()
+                .limit(Math.max(1, Math.min(limit, MAX_LIMIT)))
+                .map(run -> FreeSlotsResponse.Slot.builder()
+                        .date(run.date().toString())
+                        .startTime(run.startTime().toString())
+                        .endTime(run.endTime().toString())
+                        .busyCount(finalCounts != null ? maxCount(finalCounts, startDate, run) : 0)
+                        .build())
+                .collect(Collectors.toList());
+
+        log.info("【群组忙闲】groupId: {}, 成员: {}, 天数: {}, 候选: {}, 耗时: {}ms",
+                groupId, memberIds.size(), days, slots.size(), System.currentTimeMillis() - startMs);
+        return FreeSlotsResponse.builder()
+                .groupId(groupId)
+                .memberCount(memberIds.size())
+                .slotMinutes(FreeBusyBitmap.SLOT_MINUTES)
+                .slots(slots)
+                .build();
+    }
+
+    /**
+     * 构建每位成员的忙碌位图（个人日程 + 所属各群组日程）
+     */
+    private Map<String, FreeBusyBitmap> buildMemberBitmaps(Set<String> memberIds, LocalDate startDate, int days) {
+        LocalDate endDate = startDate.plusDays(days - 1);
+        // 前一天跨午夜的日程会占用窗口第一天的凌晨
+        LocalDate queryStart = startDate.minusDays(1);
+
+        Map<String, List<String>> groupsByMember = membershipCache.getGroupIds(memberIds);
+        Set<String> groupIds = new HashSet<>();
+        groupsByMember.values().forEach(groupIds::addAll);
+
+        Map<String, FreeBusyBitmap> bitmaps = new HashMap<>();
+        for (String memberId : memberIds) {
+            bitmaps.put(memberId, new FreeBusyBitmap(startDate, days));
+        }
+        List<Schedule> personal = toSchedules(scheduleRepository.findPersonalFreeBusyRowsForUsersByDateRange(
+                memberIds, queryStart, endDate));
+        for (RecurrenceExpander.Occurrence o : recurrenceExpander.expand(personal, queryStart, endDate)) {
+            mark(bitmaps.get(o.schedule().getUserId()), o);
+        }
+
+        if (!groupIds.isEmpty()) {
+            Map<String, FreeBusyBitmap> groupBitmaps = new HashMap<>();
+            List<Schedule> shared = toSchedules(scheduleRepository.findGroupFreeBusyRowsByDateRange(
+                    groupIds, queryStart, endDate));
+            for (RecurrenceExpander.Occurrence o : recurrenceExpander.expand(shared, queryStart, endDate)) {
+                mark(groupBitmaps.computeIfAbsent(o.schedule().getGroupId(),
+                        id -> new FreeBusyBitmap(startDate, days)), o);
+            }
+            groupsByMember.forEach((memberId, memberGroups) -> {
+                for (String id : memberGroups) {
+                    FreeBusyBitmap groupBitmap = groupBitmaps.get(id);
+                    if (groupBitmap != null) {
+                        bitmaps.get(memberId).or(groupBitmap);
+                    }
+                }
+            });
+        }
+        return bitmaps;
+    }
+
+    private static List<Schedule> toSchedules(List<FreeBusyRow> rows) {
+        return rows.stream().map(FreeBusyRow::toSchedule).toList();
+    }
+
+    private static void mark(FreeBusyBitmap bitmap, RecurrenceExpander.Occurrence o) {
+        if (bitmap == null || ScheduleIndexService.isAllDay(o.schedule())) {
+            return;
+        }
+        bitmap.markBusy(o.date(), o.schedule().getStartTime(), o.schedule().getEndTime());
+    }
+
+    /**
+     * 排除已经过去的格
+     */
+    private static IntPredicate notPast(LocalDate startDate, int days) {
+        LocalDateTime now = LocalDateTime.now();
+        long dayOffset = ChronoUnit.DAYS.between(startDate, now.toLocalDate());
+        if (dayOffset < 0) {
+            return slot -> true;
+        }
+        long firstSlot = Math.min((long) days * FreeBusyBitmap.SLOTS_PER_DAY, dayOffset * FreeBusyBitmap.SLOTS_PER_DAY
+                + (minuteOfDay(now.toLocalTime()) + FreeBusyBitmap.SLOT_MINUTES - 1) / FreeBusyBitmap.SLOT_MINUTES);
+        return slot -> slot >= firstSlot;
+    }
+
+    private static int maxCount(int[] counts, LocalDate startDate, FreeBusyBitmap.Run run) {
+        int base = (int) ChronoUnit.DAYS.between(startDate, run.date()) * FreeBusyBitmap.SLOTS_PER_DAY;
+        int max = 0;
+        for (int k = run.startSlot(); k < run.endSlot(); k++) {
+            max = Math.max(max, counts[base + k]);
+        }
+        return max;
+    }
+
+    private static int minuteOfDay(LocalTime time) {
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
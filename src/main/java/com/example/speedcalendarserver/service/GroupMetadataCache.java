@@ -0,0 +1,116 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Group;
+import com.example.speedcalendarserver.event.GroupMembershipChangedEvent;
+import com.example.speedcalendarserver.repository.GroupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 群组元数据缓存 (id -> 名称、群主、邀请码等)
+ *
+ * <p>
+ * 日程列表、群组列表、AI 工具都只需要群组的少量只读字段；批量读取时所有未命中的 ID
+ * 合并为一次 findAllById，不存在的群组同样缓存，避免已解散群组的遗留日程反复查库。
+ *
+ * <p>
+ * 群组解散时通过 {@link GroupMembershipChangedEvent} 失效；修改群组信息的接口需调用 {@link #invalidate}。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Service
+public class GroupMetadataCache {
+
+    private final GroupRepository groupRepository;
+
+    /**
+     * groupId -> 元数据（Optional.empty() 表示群组不存在）
+     */
+    private final Cache<String, Optional<GroupMeta>> cache;
+
+    public GroupMetadataCache(GroupRepository groupRepository,
+            ScheduleCacheConfig cacheConfig,
+            MeterRegistry meterRegistry) {
+        this.groupRepository = groupRepository;
+        ScheduleCacheConfig.GroupMetadataConfig config = cacheConfig.getGroupMetadata();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxGroups())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "group.metadata");
+    }
+
+    /**
+     * 获取单个群组元数据
+     */
+    public Optional<GroupMeta> get(String groupId) {
+        return cache.get(groupId, id -> groupRepository.findById(id).map(GroupMeta::of));
+    }
+
+    /**
+     * 批量获取群组元数据，未命中部分一次查询加载
+     *
+     * @return groupId -> 元数据，按入参顺序，不存在的群组不包含在结果中
+     */
+    public Map<String, GroupMeta> getAll(Collection<String> groupIds) {
+        Map<String, GroupMeta> result = new LinkedHashMap<>();
+        if (groupIds.isEmpty()) {
+            return result;
+        }
+        cache.getAll(groupIds, this::loadAll)
+                .forEach((id, meta) -> meta.ifPresent(m -> result.put(id, m)));
+        return result;
+    }
+
+    /**
+     * 使指定群组的元数据失效（群组信息修改后调用）
+     */
+    public void invalidate(String groupId) {
+        cache.invalidate(groupId);
+    }
+
+    /**
+     * 群组解散提交后失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        if (event.isGroupDeleted()) {
+            cache.invalidate(event.getGroupId());
+        }
+    }
+
+    private Map<String, Optional<GroupMeta>> loadAll(Collection<? extends String> groupIds) {
+        Map<String, Optional<GroupMeta>> loaded = new HashMap<>();
+        groupIds.forEach(id -> loaded.put(id, Optional.empty()));
+        groupRepository.findAllById(List.copyOf(groupIds))
+                .forEach(g -> loaded.put(g.getId(), Optional.of(GroupMeta.of(g))));
+        return loaded;
+    }
+
+    /**
+     * 群组只读元数据快照
+     */
+    public record GroupMeta(String id, String name, String description, String ownerId,
+            String invitationCode, LocalDateTime createdAt) {
+
+        static GroupMeta of(Group group) {
+            return new GroupMeta(group.getId(), group.getName(), group.getDescription(), group.getOwnerId(),
+                    group.getInvitationCode(), group.getCreatedAt());
+        }
+    }
+}
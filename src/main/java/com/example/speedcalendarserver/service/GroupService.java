@@ -4,18 +4,22 @@ import com.example.speedcalendarserver.dto.*;
 import com.example.speedcalendarserver.entity.Group;
 import com.example.speedcalendarserver.entity.User;
 import com.example.speedcalendarserver.entity.UserGroup;
+import com.example.speedcalendarserver.event.GroupMembershipChangedEvent;
 import com.example.speedcalendarserver.repository.GroupRepository;
 import com.example.speedcalendarserver.repository.UserGroupRepository;
 import com.example.speedcalendarserver.repository.UserRepository;
+import com.example.speedcalendarserver.util.IdGenerator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.RandomStringUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +36,9 @@ public class GroupService {
     private final GroupRepository groupRepository;
     private final UserGroupRepository userGroupRepository;
     private final UserRepository userRepository;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 创建群组
@@ -46,7 +53,7 @@ public class GroupService {
 
         // 创建群组
         Group group = Group.builder()
-                .id(UUID.randomUUID().toString())
+                .id(IdGenerator.nextId())
                 .name(request.getName())
                 .description(request.getDescription())
                 .ownerId(userId)
@@ -61,6 +68,7 @@ public class GroupService {
                 .role("owner")
                 .build();
         userGroupRepository.save(userGroup);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(group.getId(), List.of(userId), false));
 
         log.info("创建群组成功 - userId: {}, groupId: {}, inviteCode: {}", userId, group.getId(), inviteCode);
 
@@ -93,6 +101,7 @@ public class GroupService {
                 .role("member")
                 .build();
         userGroupRepository.save(userGroup);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(group.getId(), List.of(userId), false));
 
         log.info("加入群组成功 - userId: {}, groupId: {}", userId, group.getId());
     }
@@ -105,7 +114,7 @@ public class GroupService {
         return groups.stream()
                 .map(group -> {
                     GroupDTO dto = GroupDTO.fromEntity(group);
-                    dto.setMemberCount(userGroupRepository.countByGroupId(group.getId()));
+                    dto.setMemberCount(membershipCache.getMemberIds(group.getId()).size());
                     dto.setCurrentUserRole("owner"); // 我创建的，角色必然是 owner
                     return dto;
                 })
@@ -117,15 +126,17 @@ public class GroupService {
      */
     public List<GroupDTO> getJoinedGroups(String userId) {
         List<UserGroup> userGroups = userGroupRepository.findByUserIdOrderByJoinedAtDesc(userId);
-        
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(
+                userGroups.stream().map(UserGroup::getGroupId).collect(Collectors.toList()));
+
         return userGroups.stream()
                 .map(ug -> {
-                    Group group = groupRepository.findById(ug.getGroupId()).orElse(null);
-                    if (group == null || group.getOwnerId().equals(userId)) {
+                    GroupMetadataCache.GroupMeta group = groups.get(ug.getGroupId());
+                    if (group == null || group.ownerId().equals(userId)) {
                         return null; // 排除不存在的或自己创建的
                     }
-                    GroupDTO dto = GroupDTO.fromEntity(group);
-                    dto.setMemberCount(userGroupRepository.countByGroupId(group.getId()));
+                    GroupDTO dto = GroupDTO.fromMeta(group);
+                    dto.setMemberCount(membershipCache.getMemberIds(group.id()).size());
                     dto.setJoinedAt(ug.getJoinedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
                     dto.setCurrentUserRole(ug.getRole());
 
@@ -151,7 +162,13 @@ public class GroupService {
             throw new SecurityException("只有群主可以解散群组");
         }
 
+        // 成员关系随群组级联删除，需先记录受影响的成员
+        List<String> memberIds = userGroupRepository.findByGroupId(groupId).stream()
+                .map(UserGroup::getUserId)
+                .collect(Collectors.toList());
+
         groupRepository.delete(group);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, memberIds, true));
         log.info("解散群组成功 - userId: {}, groupId: {}", userId, groupId);
     }
 
@@ -173,6 +190,7 @@ public class GroupService {
         }
 
         userGroupRepository.delete(userGroup);
+        eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, List.of(userId), false));
         log.info("退出群组成功 - userId: {}, groupId: {}", userId, groupId);
     }
 
@@ -272,6 +290,7 @@ public class GroupService {
         }
 
         // 2. 遍历执行移除
+        List<String> removedUserIds = new ArrayList<>();
         for (String targetUserId : targetUserIds) {
             if (targetUserId.equals(operatorId)) {
                 continue; // 不能通过此接口移除自己（应使用退出接口）
@@ -294,9 +313,14 @@ public class GroupService {
 
             // 执行删除
             userGroupRepository.delete(targetRelation);
+            removedUserIds.add(targetUserId);
             log.info("成员已被移除 - groupId: {}, targetUserId: {}, operatorRole: {}", 
                     groupId, targetUserId, operatorRole);
         }
+
+        if (!removedUserIds.isEmpty()) {
+            eventPublisher.publishEvent(new GroupMembershipChangedEvent(groupId, removedUserIds, false));
+        }
     }
 
     private int getRoleOrder(String role) {
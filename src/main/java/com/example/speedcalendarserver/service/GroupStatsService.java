@@ -0,0 +1,227 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.GroupStatsResponse;
+import com.example.speedcalendarserver.entity.User;
+import com.example.speedcalendarserver.entity.UserGroup;
+import com.example.speedcalendarserver.enums.PrivacyField;
+import com.example.speedcalendarserver.repository.MemberActivityRow;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.repository.UserGroupRepository;
+import com.example.speedcalendarserver.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * 群组活跃度统计服务
+ *
+ * <p>
+ * 群组日程按 (创建者, 分类) 一次聚合；成员个人日程按 {@link #CHUNK_SIZE} 分批，每批一次 user_id IN 的 GROUP BY 查询，
+ * 连同该批成员的用户信息与隐私设置在独立线程池中并行加载，最后在请求线程合并。
+ * 成员个人日程的统计受 {@link PrivacyField#SCHEDULE_STATS} 控制，不公开的成员只计入群组日程部分。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GroupStatsService {
+
+    public static final int MAX_DAYS = 366;
+
+    /**
+     * 每批成员数，同时是单条 IN 查询的参数个数上限
+     */
+    static final int CHUNK_SIZE = 500;
+
+    private final ScheduleRepository scheduleRepository;
+    private final UserGroupRepository userGroupRepository;
+    private final UserRepository userRepository;
+    private final MembershipCache membershipCache;
+    private final PrivacyService privacyService;
+
+    /**
+     * 每批都是阻塞的数据库查询，使用独立的小线程池而不是公共 ForkJoinPool，
+     * 并发数远小于连接池大小；队列满时由请求线程自己执行，起到限流作用
+     */
+    private final ExecutorService executor = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(64), new StatsThreadFactory(), new ThreadPoolExecutor.CallerRunsPolicy());
+
+    /**
+     * 统计群组在日期范围内的日程与成员忙碌情况（仅 owner/admin 可见）
+     *
+     * @throws SecurityException        不是该群组的群主或管理员
+     * @throws IllegalArgumentException 日期范围无效
+     */
+    public GroupStatsResponse getGroupStats(String userId, String groupId, LocalDate startDate, LocalDate endDate) {
+        UserGroup relation = userGroupRepository.findByUserIdAndGroupId(userId, groupId);
+        if (relation == null) {
+            throw new SecurityException("您不是该群组成员");
+        }
+        if (!"owner".equals(relation.getRole()) && !"admin".equals(relation.getRole())) {
+            throw new SecurityException("权限不足，仅群主或管理员可查看群组统计");
+        }
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        if (days < 1 || days > MAX_DAYS) {
+            throw new IllegalArgumentException("统计范围须为 1 到 " + MAX_DAYS + " 天");
+        }
+
+        long startMs = System.currentTimeMillis();
+        List<String> memberIds = List.copyOf(membershipCache.getMemberIds(groupId));
+        List<CompletableFuture<ChunkResult>> futures = new ArrayList<>();
+        for (int from = 0; from < memberIds.size(); from += CHUNK_SIZE) {
+            List<String> chunk = memberIds.subList(from, Math.min(from + CHUNK_SIZE, memberIds.size()));
+            futures.add(CompletableFuture.supplyAsync(() -> loadChunk(userId, chunk, startDate, endDate), executor));
+        }
+        List<MemberActivityRow> groupRows = scheduleRepository.aggregateGroupActivity(groupId, startDate, endDate);
+
+        Map<String, GroupStatsResponse.MemberStat> members = new HashMap<>();
+        Map<String, long[]> categories = new HashMap<>();
+        for (CompletableFuture<ChunkResult> future : futures) {
+            ChunkResult result = join(future);
+            result.users.forEach((memberId, user) -> members.put(memberId, GroupStatsResponse.MemberStat.builder()
+                    .userId(memberId)
+                    .username(user.getUsername())
+                    .avatar(user.getAvatar())
+                    .groupScheduleCount(0L)
+                    .groupBusyMinutes(0L)
+                    .build()));
+            result.personal.forEach((memberId, total) -> {
+                GroupStatsResponse.MemberStat member = members.get(memberId);
+                if (member != null) {
+                    member.setPersonalScheduleCount(total[0]);
+                    member.setPersonalBusyMinutes(total[1]);
+                }
+            });
+            result.categories.forEach((category, total) -> add(categories, category, total[0], total[1]));
+        }
+
+        long groupCount = 0;
+        long groupMinutes = 0;
+        for (MemberActivityRow row : groupRows) {
+            long count = row.getScheduleCount();
+            long minutes = row.getBusyMinutes() != null ? row.getBusyMinutes() : 0L;
+            groupCount += count;
+            groupMinutes += minutes;
+            add(categories, row.getCategory(), count, minutes);
+            // 已退出群组的创建者只计入群组总量与分类
+            GroupStatsResponse.MemberStat member = members.get(row.getUserId());
+            if (member != null) {
+                member.setGroupScheduleCount(member.getGroupScheduleCount() + count);
+                member.setGroupBusyMinutes(member.getGroupBusyMinutes() + minutes);
+            }
+        }
+
+        List<GroupStatsResponse.MemberStat> memberStats = members.values().stream()
+                .sorted(Comparator.comparing(GroupStatsResponse.MemberStat::getGroupScheduleCount).reversed()
+                        .thenComparing(GroupStatsResponse.MemberStat::getPersonalBusyMinutes,
+                                Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(GroupStatsResponse.MemberStat::getUserId))
+                .collect(Collectors.toList());
+        List<GroupStatsResponse.CategoryStat> categoryStats = categories.entrySet().stream()
+                .map(e -> GroupStatsResponse.CategoryStat.builder()
+                        .category(e.getKey())
+                        .scheduleCount(e.getValue()[0])
+                        .busyMinutes(e.getValue()[1])
+                        .build())
+                .sorted(Comparator.comparing(GroupStatsResponse.CategoryStat::getScheduleCount).reversed())
+                .collect(Collectors.toList());
+
+        log.info("【群组统计】groupId: {}, 成员: {}, 分批: {}, 天数: {}, 耗时: {}ms",
+                groupId, memberIds.size(), futures.size(), days, System.currentTimeMillis() - startMs);
+        return GroupStatsResponse.builder()
+                .groupId(groupId)
+                .startDate(startDate.toString())
+                .endDate(endDate.toString())
+                .memberCount(memberIds.size())
+                .groupScheduleCount(groupCount)
+                .groupBusyMinutes(groupMinutes)
+                .categories(categoryStats)
+                .members(memberStats)
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 加载一批成员：用户信息、隐私可见性、公开成员的个人日程聚合
+     */
+    private ChunkResult loadChunk(String requesterId, List<String> memberIds, LocalDate startDate, LocalDate endDate) {
+        ChunkResult result = new ChunkResult();
+        for (User user : userRepository.findAllById(memberIds)) {
+            result.users.put(user.getUserId(), user);
+        }
+        Set<String> visible = privacyService.filterVisibleUsers(memberIds, PrivacyField.SCHEDULE_STATS, requesterId);
+        if (visible.isEmpty()) {
+            return result;
+        }
+        visible.forEach(memberId -> result.personal.put(memberId, new long[2]));
+        for (MemberActivityRow row : scheduleRepository.aggregatePersonalActivityByUsers(visible, startDate, endDate)) {
+            long minutes = row.getBusyMinutes() != null ? row.getBusyMinutes() : 0L;
+            add(result.personal, row.getUserId(), row.getScheduleCount(), minutes);
+            add(result.categories, row.getCategory(), row.getScheduleCount(), minutes);
+        }
+        return result;
+    }
+
+    private static void add(Map<String, long[]> totals, String key, long count, long minutes) {
+        long[] total = totals.computeIfAbsent(key, k -> new long[2]);
+        total[0] += count;
+        total[1] += minutes;
+    }
+
+    private static ChunkResult join(CompletableFuture<ChunkResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 单批成员的加载结果：成员ID -> 用户，公开成员ID -> {日程数, 分钟}，分类 -> {日程数, 分钟}
+     */
+    private static class ChunkResult {
+        private final Map<String, User> users = new HashMap<>();
+        private final Map<String, long[]> personal = new HashMap<>();
+        private final Map<String, long[]> categories = new HashMap<>();
+    }
+
+    private static class StatsThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "group-stats-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
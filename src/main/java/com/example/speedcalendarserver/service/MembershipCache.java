@@ -0,0 +1,134 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.UserGroup;
+import com.example.speedcalendarserver.event.GroupMembershipChangedEvent;
+import com.example.speedcalendarserver.repository.UserGroupRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 群组成员关系缓存
+ *
+ * <p>
+ * 正向：userId -> 所属群组ID（按加入时间降序）；反向：groupId -> 成员ID。
+ * 日程读取、统计、AI 工具每次请求都需要成员关系，缓存后不再为此单独查库。
+ *
+ * <p>
+ * 成员关系变化时由 {@link GroupMembershipChangedEvent} 在事务提交后失效，
+ * 并先于索引等下游监听执行，保证它们重建时读到的是新关系。
+ * 命中率通过 Micrometer 暴露：/actuator/metrics/cache.gets?tag=cache:membership.userGroups
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class MembershipCache {
+
+    private final UserGroupRepository userGroupRepository;
+
+    /**
+     * userId -> 所属群组ID
+     */
+    private final Cache<String, List<String>> groupsByUser;
+
+    /**
+     * groupId -> 成员ID
+     */
+    private final Cache<String, Set<String>> membersByGroup;
+
+    public MembershipCache(UserGroupRepository userGroupRepository,
+            ScheduleCacheConfig cacheConfig,
+            MeterRegistry meterRegistry) {
+        this.userGroupRepository = userGroupRepository;
+        ScheduleCacheConfig.MembershipConfig config = cacheConfig.getMembership();
+        this.groupsByUser = Caffeine.newBuilder()
+                .maximumSize(config.getMaxUsers())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        this.membersByGroup = Caffeine.newBuilder()
+                .maximumSize(config.getMaxGroups())
+                .expireAfterWrite(config.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, groupsByUser, "membership.userGroups");
+        CaffeineCacheMetrics.monitor(meterRegistry, membersByGroup, "membership.groupMembers");
+    }
+
+    /**
+     * 获取用户所属的所有群组ID（按加入时间降序，不可修改）
+     */
+    public List<String> getGroupIds(String userId) {
+        return groupsByUser.get(userId, id -> userGroupRepository.findByUserIdOrderByJoinedAtDesc(id).stream()
+                .map(UserGroup::getGroupId)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    /**
+     * 批量获取多个用户所属的群组ID，未命中的用户合并为一次查询
+     *
+     * @return userId -> 群组ID（按加入时间降序，不可修改）
+     */
+    public Map<String, List<String>> getGroupIds(Collection<String> userIds) {
+        return groupsByUser.getAll(userIds, this::loadGroupIds);
+    }
+
+    /**
+     * 判断用户是否为群组成员
+     */
+    public boolean isMember(String userId, String groupId) {
+        return getGroupIds(userId).contains(groupId);
+    }
+
+    /**
+     * 获取群组的所有成员ID（不可修改）
+     */
+    public Set<String> getMemberIds(String groupId) {
+        return membersByGroup.get(groupId, id -> userGroupRepository.findByGroupId(id).stream()
+                .map(UserGroup::getUserId)
+                .collect(Collectors.toUnmodifiableSet()));
+    }
+
+    private Map<String, List<String>> loadGroupIds(Collection<? extends String> userIds) {
+        Map<String, List<UserGroup>> byUser = userGroupRepository.findByUserIdIn(List.copyOf(userIds)).stream()
+                .collect(Collectors.groupingBy(UserGroup::getUserId));
+        Map<String, List<String>> loaded = new HashMap<>();
+        for (String userId : userIds) {
+            loaded.put(userId, byUser.getOrDefault(userId, List.of()).stream()
+                    .sorted(Comparator.comparing(UserGroup::getJoinedAt,
+                            Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).reversed())
+                    .map(UserGroup::getGroupId)
+                    .collect(Collectors.toUnmodifiableList()));
+        }
+        return loaded;
+    }
+
+    /**
+     * 成员关系变更提交后失效相关用户与群组
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        groupsByUser.invalidateAll(event.getUserIds());
+        membersByGroup.invalidate(event.getGroupId());
+        log.debug("【MembershipCache】群组 {} 成员关系变更，失效 {} 个用户", event.getGroupId(), event.getUserIds().size());
+    }
+}
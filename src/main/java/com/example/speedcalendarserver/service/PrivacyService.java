@@ -143,6 +143,37 @@ public class PrivacyService {
         return filteredInfo;
     }
 
+    /**
+     * 批量判断若干用户的某个字段对请求者是否可见
+     * 性能优化：缓存未命中的用户合并为一次 IN 查询
+     *
+     * @param userIds 目标用户ID
+     * @param field 隐私字段
+     * @param requesterId 请求者ID（查看者）
+     * @return 可见的用户ID
+     */
+    public Set<String> filterVisibleUsers(Collection<String> userIds, PrivacyField field, String requesterId) {
+        List<String> missing = userIds.stream()
+                .filter(userId -> !privacyCache.containsKey(userId))
+                .collect(Collectors.toList());
+        if (!missing.isEmpty()) {
+            Map<String, Map<String, VisibilityLevel>> loaded = new HashMap<>();
+            missing.forEach(userId -> loaded.put(userId, new HashMap<>()));
+            for (UserPrivacySetting setting : privacySettingRepository.findByUserIdIn(missing)) {
+                loaded.get(setting.getUserId()).put(setting.getFieldName(), setting.getVisibilityLevel());
+            }
+            loaded.forEach(privacyCache::putIfAbsent);
+        }
+
+        // 目前没有好友系统，都是陌生人
+        boolean isFriend = false;
+        return userIds.stream()
+                .filter(userId -> getPrivacySettingsMap(userId)
+                        .getOrDefault(field.getFieldName(), field.getDefaultLevel())
+                        .isVisible(userId.equals(requesterId), isFriend))
+                .collect(Collectors.toSet());
+    }
+
     /**
      * 获取用户隐私设置Map（带缓存）
      * 性能优化：优先从缓存读取，缓存未命中才查询数据库
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.List;
 
 /**
  * 悬浮窗专用工具类（仅保留创建日程）
@@ -127,14 +128,15 @@ public class QuickScheduleTools {
             String groupInfo = (actualGroupId != null && result.getGroupName() != null) ? "，群组：" + result.getGroupName()
                     : "";
 
-            return String.format("✅ 日程创建成功！\n📅 标题：%s\n📆 日期：%s\n⏰ 时间：%s%s%s%s%s",
+            return String.format("✅ 日程创建成功！\n📅 标题：%s\n📆 日期：%s\n⏰ 时间：%s%s%s%s%s%s",
                     result.getTitle(),
                     result.getScheduleDate(),
                     timeInfo,
                     locationInfo,
                     reminderInfo,
                     repeatInfo,
-                    groupInfo);
+                    groupInfo,
+                    getConflictText(result.getConflicts()));
 
         } catch (DateTimeParseException e) {
             log.error("【QuickScheduleTools】日期格式错误", e);
@@ -145,6 +147,25 @@ public class QuickScheduleTools {
         }
     }
 
+    /**
+     * 时间冲突提示，供模型转告用户；无冲突时为空串
+     */
+    private String getConflictText(List<ScheduleDTO> conflicts) {
+        if (conflicts == null || conflicts.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder("\n⚠️ 与以下日程时间冲突：");
+        for (ScheduleDTO c : conflicts) {
+            sb.append(String.format("\n- 【%s】%s %s - %s%s",
+                    c.getTitle(),
+                    c.getScheduleDate(),
+                    c.getStartTime(),
+                    c.getEndTime() != null ? c.getEndTime() : "未设置",
+                    c.getGroupName() != null ? "（群组：" + c.getGroupName() + "）" : ""));
+        }
+        return sb.toString();
+    }
+
     /**
      * 获取重复类型的中文描述
      */
@@ -0,0 +1,225 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.MonthDay;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 重复日程展开器
+ *
+ * <p>
+ * 将 daily/weekly/monthly/yearly 系列按查询窗口展开为具体的发生日期。
+ * 起点直接按步长计算，不从系列首日逐个迭代，展开代价只与窗口内的发生次数有关。
+ *
+ * <p>
+ * 展开结果按 (系列, 版本, 窗口) 缓存在有界缓存中；系列被修改后 updatedAt 等字段变化，
+ * 旧条目自然失效并由 LRU 淘汰。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Component
+public class RecurrenceExpander {
+
+    public static final String REPEAT_NONE = "none";
+    public static final String REPEAT_DAILY = "daily";
+    public static final String REPEAT_WEEKLY = "weekly";
+    public static final String REPEAT_MONTHLY = "monthly";
+    public static final String REPEAT_YEARLY = "yearly";
+
+    /**
+     * 展开结果排序：日期升序，同日内无开始时间（全天）的排在前面，与数据库 ORDER BY 的 NULL 语义一致
+     */
+    public static final Comparator<Occurrence> OCCURRENCE_ORDER = Comparator
+            .comparing(Occurrence::date)
+            .thenComparing(o -> o.schedule().getStartTime(), Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int maxOccurrencesPerSeries;
+
+    private final Cache<SeriesWindow, List<LocalDate>> occurrenceCache;
+
+    public RecurrenceExpander(ScheduleCacheConfig cacheConfig) {
+        ScheduleCacheConfig.RecurrenceConfig config = cacheConfig.getRecurrence();
+        this.maxOccurrencesPerSeries = config.getMaxOccurrencesPerSeries();
+        this.occurrenceCache = Caffeine.newBuilder()
+                .maximumSize(config.getMaxCachedWindows())
+                .build();
+    }
+
+    /**
+     * 一次具体的日程发生
+     *
+     * @param schedule 日程（重复系列时为系列本身）
+     * @param date     本次发生的日期
+     */
+    public record Occurrence(Schedule schedule, LocalDate date) {
+    }
+
+    /**
+     * 缓存键：系列的所有展开相关字段 + 查询窗口
+     */
+    private record SeriesWindow(String scheduleId, LocalDateTime version, String repeatType,
+            LocalDate seriesStart, LocalDate seriesEnd, LocalDate from, LocalDate to) {
+    }
+
+    /**
+     * 判断日程是否为重复系列
+     */
+    public static boolean isRecurring(Schedule schedule) {
+        String type = schedule.getRepeatType();
+        return REPEAT_DAILY.equals(type) || REPEAT_WEEKLY.equals(type)
+                || REPEAT_MONTHLY.equals(type) || REPEAT_YEARLY.equals(type);
+    }
+
+    /**
+     * 将日程列表展开为窗口 [from, to] 内的所有发生，并按日期、开始时间排序
+     *
+     * @param schedules 查询结果（普通日程 + 窗口开始前起始的重复系列）
+     * @param from      窗口起始日期（含）
+     * @param to        窗口结束日期（含）
+     * @return 发生列表
+     */
+    public List<Occurrence> expand(List<Schedule> schedules, LocalDate from, LocalDate to) {
+        List<Occurrence> result = new ArrayList<>(schedules.size());
+        for (Schedule schedule : schedules) {
+            if (!isRecurring(schedule)) {
+                LocalDate date = schedule.getScheduleDate();
+                if (!date.isBefore(from) && !date.isAfter(to)) {
+                    result.add(new Occurrence(schedule, date));
+                }
+                continue;
+            }
+            for (LocalDate date : occurrences(schedule, from, to)) {
+                result.add(new Occurrence(schedule, date));
+            }
+        }
+        result.sort(OCCURRENCE_ORDER);
+        return result;
+    }
+
+    /**
+     * 同 {@link #occurrences}，但不写入展开缓存；用于窗口逐次滑动、同一窗口不会再次查询的场景
+     */
+    public List<LocalDate> occurrencesUncached(Schedule schedule, LocalDate from, LocalDate to) {
+        if (!isRecurring(schedule)) {
+            return occurrences(schedule, from, to);
+        }
+        return compute(schedule.getRepeatType(), schedule.getScheduleDate(), schedule.getRepeatEndDate(), from, to);
+    }
+
+    /**
+     * 计算单个系列在窗口 [from, to] 内的发生日期
+     *
+     * @param schedule 日程
+     * @param from     窗口起始日期（含）
+     * @param to       窗口结束日期（含）
+     * @return 升序的发生日期（不可修改）
+     */
+    public List<LocalDate> occurrences(Schedule schedule, LocalDate from, LocalDate to) {
+        if (!isRecurring(schedule)) {
+            LocalDate date = schedule.getScheduleDate();
+            return !date.isBefore(from) && !date.isAfter(to) ? List.of(date) : List.of();
+        }
+        SeriesWindow key = new SeriesWindow(schedule.getScheduleId(), schedule.getUpdatedAt(),
+                schedule.getRepeatType(), schedule.getScheduleDate(), schedule.getRepeatEndDate(), from, to);
+        return occurrenceCache.get(key, k -> compute(k.repeatType(), k.seriesStart(), k.seriesEnd(), from, to));
+    }
+
+    private List<LocalDate> compute(String repeatType, LocalDate start, LocalDate until,
+            LocalDate from, LocalDate to) {
+        LocalDate limit = until != null && until.isBefore(to) ? until : to;
+        if (limit.isBefore(from) || limit.isBefore(start)) {
+            return List.of();
+        }
+        LocalDate windowStart = from.isAfter(start) ? from : start;
+
+        List<LocalDate> dates = switch (repeatType) {
+            case REPEAT_DAILY -> fixedStep(start, windowStart, limit, 1);
+            case REPEAT_WEEKLY -> fixedStep(start, windowStart, limit, 7);
+            case REPEAT_MONTHLY -> monthly(start, windowStart, limit);
+            case REPEAT_YEARLY -> yearly(start, windowStart, limit);
+            default -> List.of();
+        };
+        return List.copyOf(dates);
+    }
+
+    /**
+     * 固定天数步长（每天 / 每周）
+     */
+    private List<LocalDate> fixedStep(LocalDate start, LocalDate windowStart, LocalDate limit, int stepDays) {
+        long offset = ChronoUnit.DAYS.between(start, windowStart);
+        long k = (offset + stepDays - 1) / stepDays;
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate d = start.plusDays(k * stepDays); !d.isAfter(limit); d = d.plusDays(stepDays)) {
+            if (!add(dates, d)) {
+                break;
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * 每月同一天；当月没有该日（如 31 日）时跳过，与 RFC 5545 BYMONTHDAY 语义一致
+     */
+    private List<LocalDate> monthly(LocalDate start, LocalDate windowStart, LocalDate limit) {
+        int dayOfMonth = start.getDayOfMonth();
+        YearMonth last = YearMonth.from(limit);
+        List<LocalDate> dates = new ArrayList<>();
+        for (YearMonth ym = YearMonth.from(windowStart); !ym.isAfter(last); ym = ym.plusMonths(1)) {
+            if (!ym.isValidDay(dayOfMonth)) {
+                continue;
+            }
+            LocalDate d = ym.atDay(dayOfMonth);
+            if (d.isBefore(windowStart) || d.isAfter(limit)) {
+                continue;
+            }
+            if (!add(dates, d)) {
+                break;
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * 每年同月同日；2 月 29 日只在闰年发生
+     */
+    private List<LocalDate> yearly(LocalDate start, LocalDate windowStart, LocalDate limit) {
+        MonthDay monthDay = MonthDay.from(start);
+        List<LocalDate> dates = new ArrayList<>();
+        for (int year = windowStart.getYear(); year <= limit.getYear(); year++) {
+            if (!monthDay.isValidYear(year)) {
+                continue;
+            }
+            LocalDate d = monthDay.atYear(year);
+            if (d.isBefore(windowStart) || d.isAfter(limit)) {
+                continue;
+            }
+            if (!add(dates, d)) {
+                break;
+            }
+        }
+        return dates;
+    }
+
+    private boolean add(List<LocalDate> dates, LocalDate date) {
+        if (dates.size() >= maxOccurrencesPerSeries) {
+            log.warn("【RecurrenceExpander】单个系列展开次数超过上限 {}，已截断", maxOccurrencesPerSeries);
+            return false;
+        }
+        dates.add(date);
+        return true;
+    }
+}
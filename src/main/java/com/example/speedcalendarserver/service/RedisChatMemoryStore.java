@@ -0,0 +1,189 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ChatMemoryConfig;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Redis 聊天记忆存储（多实例共享）
+ *
+ * <p>
+ * 每个会话一个 Redis 列表（JSON 序列化的消息，保留最后 maxMessages 条），读写都会续期 TTL，
+ * 同一会话的后续轮次落到任意实例都能拿到最新记忆，无需粘性会话。读取为 LRANGE + PEXPIRE 一次管道往返，
+ * 写入由 Lua 脚本原子地整体替换列表。未命中时由 {@link DatabaseChatMemoryStore} 从 chat_messages 加载窗口。
+ *
+ * <p>
+ * Redis 不可用时在 failureBackoff 时长内改用 {@link DatabaseChatMemoryStore} 的进程内记忆；
+ * 恢复后删除这段时间内在本地更新过的会话，下次访问从数据库重新加载，避免读到故障前的旧列表。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(prefix = "chat.memory", name = "store", havingValue = "redis")
+public class RedisChatMemoryStore implements ChatMemoryStore {
+
+    private static final String KEY_PREFIX = "chat:mem:";
+
+    /**
+     * KEYS[1] = 会话键；ARGV[1] = TTL 毫秒，ARGV[2] = 保留条数，ARGV[3..] = 消息
+     */
+    private static final RedisScript<Long> REPLACE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) " +
+            "if #ARGV > 2 then " +
+            "  redis.call('RPUSH', KEYS[1], unpack(ARGV, 3)) " +
+            "  redis.call('LTRIM', KEYS[1], -tonumber(ARGV[2]), -1) " +
+            "  redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "end " +
+            "return 1", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final DatabaseChatMemoryStore databaseStore;
+    private final ChatMemoryConfig.RedisConfig config;
+
+    /**
+     * Redis 故障期间在本地更新过的会话，恢复后需删除其 Redis 列表
+     */
+    private final Set<String> localSessions = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Redis 故障后恢复尝试的时间点（毫秒）
+     */
+    private volatile long redisRetryAt;
+
+    public RedisChatMemoryStore(StringRedisTemplate redisTemplate,
+            DatabaseChatMemoryStore databaseStore,
+            ChatMemoryConfig chatMemoryConfig) {
+        this.redisTemplate = redisTemplate;
+        this.databaseStore = databaseStore;
+        this.config = chatMemoryConfig.getRedis();
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object sessionId) {
+        String sid = sessionId.toString();
+        if (!redisAvailable()) {
+            return databaseStore.getMessages(sid);
+        }
+        try {
+            List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                stringConnection.lRange(key(sid), 0, -1);
+                stringConnection.pExpire(key(sid), config.getTtl().toMillis());
+                return null;
+            });
+            @SuppressWarnings("unchecked")
+            List<String> values = (List<String>) results.get(0);
+            if (values != null && !values.isEmpty()) {
+                List<ChatMessage> messages = new ArrayList<>(values.size());
+                for (String json : values) {
+                    messages.add(ChatMessageDeserializer.messageFromJson(json));
+                }
+                return messages;
+            }
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+            return databaseStore.getMessages(sid);
+        } catch (RuntimeException e) {
+            // 反序列化失败：丢弃该会话列表，按未命中处理
+            log.warn("【RedisChatMemory】会话 {} 记忆解析失败，从数据库重新加载: {}", sid, e.getMessage());
+        }
+
+        List<ChatMessage> messages = databaseStore.loadWindow(sid);
+        write(sid, messages);
+        log.info("【RedisChatMemory】会话 {} 从数据库加载了 {} 条历史消息", sid, messages.size());
+        return messages;
+    }
+
+    @Override
+    public void updateMessages(Object sessionId, List<ChatMessage> messages) {
+        String sid = sessionId.toString();
+        if (!redisAvailable() || !write(sid, messages)) {
+            databaseStore.updateMessages(sid, messages);
+            localSessions.add(sid);
+        }
+    }
+
+    @Override
+    public void deleteMessages(Object sessionId) {
+        String sid = sessionId.toString();
+        databaseStore.deleteMessages(sid);
+        try {
+            redisTemplate.delete(key(sid));
+        } catch (DataAccessException e) {
+            // 删除失败时记为本地会话，恢复后再删；同时等待 TTL 过期
+            localSessions.add(sid);
+            markRedisDown(e);
+        }
+    }
+
+    /**
+     * 原子地整体替换会话列表，返回是否写入成功
+     */
+    private boolean write(String sid, List<ChatMessage> messages) {
+        List<String> args = new ArrayList<>(messages.size() + 2);
+        args.add(String.valueOf(config.getTtl().toMillis()));
+        args.add(String.valueOf(config.getMaxMessages()));
+        for (ChatMessage message : messages) {
+            args.add(ChatMessageSerializer.messageToJson(message));
+        }
+        try {
+            redisTemplate.execute(REPLACE_SCRIPT, List.of(key(sid)), args.toArray());
+            return true;
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+            return false;
+        }
+    }
+
+    private boolean redisAvailable() {
+        if (System.currentTimeMillis() < redisRetryAt) {
+            return false;
+        }
+        if (!localSessions.isEmpty()) {
+            List<String> sessions = new ArrayList<>(localSessions);
+            try {
+                redisTemplate.delete(sessions.stream().map(RedisChatMemoryStore::key).toList());
+            } catch (DataAccessException e) {
+                markRedisDown(e);
+                return false;
+            }
+            sessions.forEach(localSessions::remove);
+            log.info("【RedisChatMemory】Redis 已恢复，丢弃 {} 个故障期间在本地更新的会话列表", sessions.size());
+        }
+        return true;
+    }
+
+    private void markRedisDown(DataAccessException e) {
+        if (System.currentTimeMillis() >= redisRetryAt) {
+            // 上一次故障期间留下的本地记忆可能已过时，重新从数据库加载
+            databaseStore.clearAllCache();
+        }
+        redisRetryAt = System.currentTimeMillis() + config.getFailureBackoff().toMillis();
+        log.warn("【RedisChatMemory】Redis 访问失败，{} 秒内使用本地记忆: {}",
+                config.getFailureBackoff().toSeconds(), e.getMessage());
+    }
+
+    private static String key(String sessionId) {
+        return KEY_PREFIX + sessionId;
+    }
+}
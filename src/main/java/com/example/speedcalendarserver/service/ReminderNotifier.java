@@ -0,0 +1,23 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.ReminderDTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 提醒投递通道
+ * 由 {@link ReminderScheduler} 在派发线程中按批调用，实现方不应长时间阻塞
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public interface ReminderNotifier {
+
+    /**
+     * 投递一批提醒
+     *
+     * @param remindersByUser userId -> 该用户本批到期的提醒
+     */
+    void notify(Map<String, List<ReminderDTO>> remindersByUser);
+}
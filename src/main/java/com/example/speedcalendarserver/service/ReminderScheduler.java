@@ -0,0 +1,427 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ReminderConfig;
+import com.example.speedcalendarserver.dto.ReminderDTO;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.util.TimingWheel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 日程提醒调度器
+ *
+ * <p>
+ * 每隔一个窗口从数据库加载之后到期的提醒，放入 {@link TimingWheel}；内存中只有最近两个窗口内的提醒。
+ * 非重复日程按提前量逐个取值走 idx_reminder_date (reminder_minutes, schedule_date) 范围查询，
+ * 每个提前量只扫描提醒落在窗口内的一两天；重复系列无法按日期范围定位，启动时全量加载一次常驻内存，
+ * 之后由写入事件增量维护并按 seriesRefresh 定期重新加载校正，每个窗口只在内存中展开。
+ * 时间轮线程每个刻度推进一次，到期项交给派发线程按批回查数据库校验后投递给各 {@link ReminderNotifier}。
+ *
+ * <p>
+ * 日程创建 / 修改 / 删除提交后按 scheduleId O(1) 取消并重新计算；启动时补发 missedGrace 内错过的提醒，
+ * 因此重启前后可能重复投递（至少一次）。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ReminderScheduler {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private final ScheduleRepository scheduleRepository;
+    private final RecurrenceExpander recurrenceExpander;
+    private final MembershipCache membershipCache;
+    private final List<ReminderNotifier> notifiers;
+    private final ReminderConfig config;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * scheduleId -> 待触发的提醒；窗口远小于 1 天，同一日程在轮中至多一次发生
+     */
+    private final TimingWheel<String, Pending> wheel;
+
+    /**
+     * 设置了提醒的重复系列：scheduleId -> 日程快照
+     */
+    private final Map<String, Schedule> series = new ConcurrentHashMap<>();
+
+    /**
+     * 滑动加载期间被修改过的日程 -> 修改时间 (nanoTime)，加载时不得用旧数据覆盖
+     */
+    private final Map<String, Long> changedDuringLoad = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService ticker;
+    private ExecutorService dispatcher;
+
+    /**
+     * 已加载到的时间点（毫秒），之后到期的提醒由下一次滑动加载
+     */
+    private volatile long loadedUntil;
+    private volatile boolean running;
+
+    public ReminderScheduler(ScheduleRepository scheduleRepository,
+            RecurrenceExpander recurrenceExpander,
+            MembershipCache membershipCache,
+            List<ReminderNotifier> notifiers,
+            ReminderConfig config) {
+        this.scheduleRepository = scheduleRepository;
+        this.recurrenceExpander = recurrenceExpander;
+        this.membershipCache = membershipCache;
+        this.notifiers = notifiers;
+        this.config = config;
+        this.wheel = new TimingWheel<>(config.getTick().toMillis(), System.currentTimeMillis());
+    }
+
+    /**
+     * 启动时钟与窗口加载；首次加载从 now - missedGrace 开始，补发重启期间错过的提醒
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("【提醒调度】未启用");
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(daemon("reminder-wheel"));
+        dispatcher = Executors.newSingleThreadExecutor(daemon("reminder-dispatch"));
+        loadedUntil = System.currentTimeMillis() - config.getMissedGrace().toMillis();
+        running = true;
+
+        long tick = config.getTick().toMillis();
+        long window = config.getWindow().toMillis();
+        long refresh = config.getSeriesRefresh().toMillis();
+        dispatcher.execute(this::refreshSeries);
+        dispatcher.execute(this::slide);
+        ticker.scheduleAtFixedRate(() -> dispatcher.execute(this::refreshSeries), refresh, refresh,
+                TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(this::tick, tick, tick, TimeUnit.MILLISECONDS);
+        ticker.scheduleAtFixedRate(() -> dispatcher.execute(this::slide), window, window, TimeUnit.MILLISECONDS);
+        log.info("【提醒调度】已启动, 刻度: {}ms, 窗口: {}ms", tick, window);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+    }
+
+    /**
+     * 当前在时间轮中等待触发的提醒数
+     */
+    public int pendingCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    /**
+     * 日程写入提交后取消旧提醒，并按新内容重新放入（只处理最近两个窗口，之后的由滑动加载）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        long changedAt = System.nanoTime();
+        List<ScheduleChangedEvent.Change> changes = event.getChanges();
+        synchronized (wheel) {
+            for (ScheduleChangedEvent.Change change : changes) {
+                changedDuringLoad.put(change.scheduleId(), changedAt);
+                wheel.cancel(change.scheduleId());
+            }
+        }
+        for (ScheduleChangedEvent.Change change : changes) {
+            trackSeries(change.scheduleId(), change.after());
+        }
+        long now = System.currentTimeMillis();
+        for (ScheduleChangedEvent.Change change : changes) {
+            Schedule after = change.after();
+            if (after != null && after.getIsDeleted() == 0) {
+                scheduleWithin(after, now, now + 2 * config.getWindow().toMillis(), Long.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * 批量导入提交后把插入的日程补进已加载的窗口，重复系列加入常驻集合
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        if (!running) {
+            return;
+        }
+        long changedAt = System.nanoTime();
+        List<Schedule> inserted = event.getInserted();
+        for (Schedule s : inserted) {
+            changedDuringLoad.put(s.getScheduleId(), changedAt);
+            trackSeries(s.getScheduleId(), s);
+        }
+        long from = System.currentTimeMillis();
+        long to = loadedUntil;
+        if (to > from) {
+            inserted.forEach(s -> scheduleWithin(s, from, to, Long.MAX_VALUE));
+        }
+    }
+
+    private void tick() {
+        try {
+            List<TimingWheel.Entry<String, Pending>> expired;
+            synchronized (wheel) {
+                expired = wheel.advance(System.currentTimeMillis());
+            }
+            if (!expired.isEmpty()) {
+                dispatcher.execute(() -> dispatch(expired));
+            }
+        } catch (RuntimeException e) {
+            // 周期任务抛出异常后会被取消，必须吞掉
+            log.error("【提醒调度】时间轮推进失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 加载 [loadedUntil, now + 2 * window) 内到期的提醒：非重复日程按提前量范围查询，重复系列在内存中展开
+     */
+    private void slide() {
+        long from = loadedUntil;
+        long to = System.currentTimeMillis() + 2 * config.getWindow().toMillis();
+        if (to <= from) {
+            return;
+        }
+        long loadStart = System.nanoTime();
+        try {
+            PageRequest page = PageRequest.of(0, PAGE_SIZE);
+            int scheduled = 0;
+            for (Integer lead : scheduleRepository.findReminderLeads((int) config.getMaxLead().toMinutes())) {
+                // 提醒时间 = 日期 + 开始时间 - lead 落在 [from, to) 内，则日期落在 [from + lead, to + lead] 所在的日期之间
+                LocalDate startDate = toLocal(from + lead * 60_000L).toLocalDate();
+                LocalDate endDate = toLocal(to + lead * 60_000L).toLocalDate();
+                LocalDate lastDate = startDate.minusDays(1);
+                String lastId = "";
+                while (true) {
+                    List<Schedule> schedules = scheduleRepository.findReminderSchedulesAfter(
+                            lead, startDate, endDate, lastDate, lastId, page);
+                    for (Schedule s : schedules) {
+                        if (scheduleWithin(s, from, to, loadStart)) {
+                            scheduled++;
+                        }
+                    }
+                    if (schedules.size() < PAGE_SIZE) {
+                        break;
+                    }
+                    Schedule last = schedules.get(schedules.size() - 1);
+                    lastDate = last.getScheduleDate();
+                    lastId = last.getScheduleId();
+                }
+            }
+            LocalDate today = toLocal(from).toLocalDate();
+            for (Schedule s : series.values()) {
+                if (s.getRepeatEndDate() != null && s.getRepeatEndDate().isBefore(today)) {
+                    series.remove(s.getScheduleId(), s);
+                } else if (scheduleWithin(s, from, to, loadStart)) {
+                    scheduled++;
+                }
+            }
+            loadedUntil = to;
+            log.info("【提醒调度】加载窗口 {} ~ {}, 新增: {}, 待触发: {}, 耗时: {}ms", toLocal(from), toLocal(to),
+                    scheduled, pendingCount(), (System.nanoTime() - loadStart) / 1_000_000);
+        } catch (RuntimeException e) {
+            // loadedUntil 不前移，下次滑动重试
+            log.error("【提醒调度】加载窗口失败: {}", e.getMessage(), e);
+        } finally {
+            changedDuringLoad.values().removeIf(t -> t < loadStart);
+        }
+    }
+
+    /**
+     * 从数据库重新加载全部设置了提醒的重复系列；加载期间被修改过的系列以事件为准
+     */
+    private void refreshSeries() {
+        long loadStart = System.nanoTime();
+        try {
+            int maxLead = (int) config.getMaxLead().toMinutes();
+            LocalDate since = LocalDate.now(zone);
+            PageRequest page = PageRequest.of(0, PAGE_SIZE);
+            Map<String, Schedule> loaded = new HashMap<>();
+            String lastId = "";
+            while (true) {
+                List<Schedule> batch = scheduleRepository.findReminderSeriesAfter(maxLead, since, lastId, page);
+                batch.forEach(s -> loaded.put(s.getScheduleId(), s));
+                if (batch.size() < PAGE_SIZE) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getScheduleId();
+            }
+            // compute 与事件中的 put / remove 互斥：事件先标记再写入，标记晚于本次检查的写入会覆盖加载结果
+            loaded.forEach((id, s) -> series.compute(id, (k, current) -> changedSince(id, loadStart) ? current : s));
+            for (String id : List.copyOf(series.keySet())) {
+                if (!loaded.containsKey(id)) {
+                    series.computeIfPresent(id, (k, current) -> changedSince(id, loadStart) ? current : null);
+                }
+            }
+            log.info("【提醒调度】加载重复系列 {} 个, 耗时: {}ms", series.size(),
+                    (System.nanoTime() - loadStart) / 1_000_000);
+        } catch (RuntimeException e) {
+            // 保留现有集合，下次刷新重试
+            log.error("【提醒调度】加载重复系列失败: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 按写入后的日程维护常驻的重复系列集合
+     */
+    private void trackSeries(String scheduleId, Schedule after) {
+        if (after != null && after.getIsDeleted() == 0 && RecurrenceExpander.isRecurring(after)
+                && after.getReminderMinutes() != null && after.getReminderMinutes() >= 0
+                && after.getReminderMinutes() <= config.getMaxLead().toMinutes()) {
+            series.put(scheduleId, after);
+        } else {
+            series.remove(scheduleId);
+        }
+    }
+
+    private boolean changedSince(String scheduleId, long loadStart) {
+        Long changedAt = changedDuringLoad.get(scheduleId);
+        return changedAt != null && changedAt >= loadStart;
+    }
+
+    /**
+     * 若日程在 [fromMs, toMs) 内有到期的提醒则放入时间轮
+     *
+     * @param loadStart 数据读取开始时间 (nanoTime)；此后被修改过的日程以事件为准，不覆盖
+     * @return 是否放入
+     */
+    private boolean scheduleWithin(Schedule s, long fromMs, long toMs, long loadStart) {
+        Integer minutes = s.getReminderMinutes();
+        if (minutes == null || minutes < 0 || minutes > config.getMaxLead().toMinutes()) {
+            return false;
+        }
+        long leadMs = minutes * 60_000L;
+        LocalDate first = toLocal(fromMs + leadMs).toLocalDate().minusDays(1);
+        LocalDate last = toLocal(toMs + leadMs).toLocalDate();
+        for (LocalDate date : recurrenceExpander.occurrencesUncached(s, first, last)) {
+            long fireAt = fireAt(s, date);
+            if (fireAt >= fromMs && fireAt < toMs) {
+                if (loadStart != Long.MAX_VALUE && changedSince(s.getScheduleId(), loadStart)) {
+                    return false;
+                }
+                synchronized (wheel) {
+                    wheel.schedule(s.getScheduleId(), new Pending(date), fireAt);
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 回查当前数据校验后按批投递；日程已删除、提醒时间已变化的过期项直接丢弃
+     */
+    private void dispatch(List<TimingWheel.Entry<String, Pending>> expired) {
+        for (int i = 0; i < expired.size(); i += config.getBatchSize()) {
+            List<TimingWheel.Entry<String, Pending>> batch =
+                    expired.subList(i, Math.min(expired.size(), i + config.getBatchSize()));
+            try {
+                Map<String, Schedule> current = scheduleRepository.findAllById(
+                        batch.stream().map(TimingWheel.Entry::getKey).collect(Collectors.toList())).stream()
+                        .collect(Collectors.toMap(Schedule::getScheduleId, Function.identity()));
+
+                Map<String, List<ReminderDTO>> byUser = new HashMap<>();
+                for (TimingWheel.Entry<String, Pending> entry : batch) {
+                    Schedule s = current.get(entry.getKey());
+                    LocalDate date = entry.getValue().date();
+                    if (s == null || s.getIsDeleted() != 0 || s.getReminderMinutes() == null
+                            || fireAt(s, date) != entry.getExpireAtMillis()
+                            || recurrenceExpander.occurrencesUncached(s, date, date).isEmpty()) {
+                        continue;
+                    }
+                    ReminderDTO reminder = toReminder(s, date, entry.getExpireAtMillis());
+                    Set<String> recipients = s.getGroupId() != null
+                            ? membershipCache.getMemberIds(s.getGroupId())
+                            : Set.of(s.getUserId());
+                    recipients.forEach(u -> byUser.computeIfAbsent(u, k -> new ArrayList<>()).add(reminder));
+                }
+                if (byUser.isEmpty()) {
+                    continue;
+                }
+                for (ReminderNotifier notifier : notifiers) {
+                    notifier.notify(byUser);
+                }
+                log.info("【提醒调度】投递 {} 条提醒给 {} 个用户", batch.size(), byUser.size());
+            } catch (RuntimeException e) {
+                log.error("【提醒调度】投递失败, 本批 {} 条: {}", batch.size(), e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * 提醒时间 = 发生日期的开始时间（全天日程为 allDayTime）- reminderMinutes
+     */
+    private long fireAt(Schedule s, LocalDate date) {
+        LocalTime time = ScheduleIndexService.isAllDay(s) ? config.getAllDayTime() : s.getStartTime();
+        return date.atTime(time).minusMinutes(s.getReminderMinutes()).atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private ReminderDTO toReminder(Schedule s, LocalDate date, long remindAt) {
+        return ReminderDTO.builder()
+                .scheduleId(s.getScheduleId())
+                .title(s.getTitle())
+                .date(date.toString())
+                .startTime(ScheduleIndexService.isAllDay(s) ? null : s.getStartTime().toString())
+                .location(s.getLocation())
+                .groupId(s.getGroupId())
+                .reminderMinutes(s.getReminderMinutes())
+                .remindAt(remindAt)
+                .build();
+    }
+
+    private LocalDateTime toLocal(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), zone);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * 时间轮中的提醒：对应的发生日期
+     */
+    private record Pending(LocalDate date) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.dto.ScheduleDensityResponse;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.GroupMembershipChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.DailyDensityRow;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 年视图日程密度服务
+ *
+ * <p>
+ * 非重复日程由按日期分组的计数查询得到（个人、群组各一条索引对齐的查询），重复系列单独取出后展开计数，
+ * 与按月 / 按范围获取日程返回的条数一致。结果按用户缓存（每个用户一张 年份 → 密度 的表），日程写入、批量导入、
+ * 成员关系变化提交后按用户整体失效，每个用户只需一次缓存操作。
+ *
+ * <p>
+ * 失效移除的是整张表：失效前已开始的加载只会写入这张已脱离缓存的旧表，之后的请求新建表并重新加载，
+ * 因此不会在缓存中留下写入前的旧结果。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ScheduleDensityService {
+
+    private final ScheduleRepository scheduleRepository;
+    private final MembershipCache membershipCache;
+    private final RecurrenceExpander recurrenceExpander;
+
+    private final Cache<String, Map<Integer, ScheduleDensityResponse>> densities;
+
+    public ScheduleDensityService(ScheduleRepository scheduleRepository,
+            MembershipCache membershipCache,
+            RecurrenceExpander recurrenceExpander,
+            ScheduleCacheConfig cacheConfig) {
+        this.scheduleRepository = scheduleRepository;
+        this.membershipCache = membershipCache;
+        this.recurrenceExpander = recurrenceExpander;
+        ScheduleCacheConfig.DensityConfig config = cacheConfig.getDensity();
+        this.densities = Caffeine.newBuilder()
+                .maximumSize(config.getMaxUsers())
+                .expireAfterWrite(config.getTtl())
+                .build();
+    }
+
+    /**
+     * 获取用户某年每天的日程数与重要标记（个人 + 所属群组）
+     *
+     * @throws IllegalArgumentException 年份无效
+     */
+    public ScheduleDensityResponse getDensity(String userId, int year) {
+        if (year < 1 || year > 9999) {
+            throw new IllegalArgumentException("无效的年份: " + year);
+        }
+        Map<Integer, ScheduleDensityResponse> years = densities.get(userId, k -> new ConcurrentHashMap<>());
+        return years.computeIfAbsent(year, y -> load(userId, y));
+    }
+
+    /**
+     * 日程写入提交后使可见该日程的用户缓存失效
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Set<String> users = new HashSet<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            collectAudience(change.before(), users);
+            collectAudience(change.after(), users);
+        }
+        invalidateUsers(users);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        invalidateUsers(event.getGroupId() != null
+                ? membershipCache.getMemberIds(event.getGroupId())
+                : Set.of(event.getUserId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        invalidateUsers(event.getUserIds());
+    }
+
+    private ScheduleDensityResponse load(String userId, int year) {
+        long startMs = System.currentTimeMillis();
+        LocalDate startDate = LocalDate.of(year, 1, 1);
+        LocalDate endDate = LocalDate.of(year, 12, 31);
+        int[] counts = new int[startDate.lengthOfYear()];
+        int[] important = new int[counts.length];
+
+        List<String> groupIds = membershipCache.getGroupIds(userId);
+        List<DailyDensityRow> rows = scheduleRepository.findPersonalDailyDensity(userId, startDate, endDate);
+        List<Schedule> series = scheduleRepository.findPersonalSeriesByDateRange(userId, startDate, endDate);
+        if (!groupIds.isEmpty()) {
+            rows = concat(rows, scheduleRepository.findGroupDailyDensity(groupIds, startDate, endDate));
+            series = concat(series, scheduleRepository.findGroupSeriesByDateRange(groupIds, startDate, endDate));
+        }
+
+        for (DailyDensityRow row : rows) {
+            int day = row.scheduleDate().getDayOfYear() - 1;
+            counts[day] += row.scheduleCount().intValue();
+            if (row.important() != null && row.important() == 1) {
+                important[day] = 1;
+            }
+        }
+        for (Schedule s : series) {
+            boolean isImportant = Integer.valueOf(1).equals(s.getIsImportant());
+            for (LocalDate date : recurrenceExpander.occurrencesUncached(s, startDate, endDate)) {
+                int day = date.getDayOfYear() - 1;
+                counts[day]++;
+                if (isImportant) {
+                    important[day] = 1;
+                }
+            }
+        }
+
+        log.debug("【日程密度】userId: {}, year: {}, 分组行: {}, 系列: {}, 耗时: {}ms",
+                userId, year, rows.size(), series.size(), System.currentTimeMillis() - startMs);
+        return ScheduleDensityResponse.builder()
+                .year(year)
+                .counts(counts)
+                .important(important)
+                .build();
+    }
+
+    private void collectAudience(Schedule schedule, Set<String> users) {
+        if (schedule == null) {
+            return;
+        }
+        if (schedule.getGroupId() == null) {
+            users.add(schedule.getUserId());
+        } else {
+            users.addAll(membershipCache.getMemberIds(schedule.getGroupId()));
+        }
+    }
+
+    /**
+     * 失效受影响用户的所有年份，每个用户一次按键删除
+     */
+    private void invalidateUsers(Collection<String> userIds) {
+        if (!userIds.isEmpty()) {
+            densities.invalidateAll(userIds);
+        }
+    }
+
+    private static <T> List<T> concat(List<T> a, List<T> b) {
+        if (b.isEmpty()) {
+            return a;
+        }
+        List<T> merged = new ArrayList<>(a.size() + b.size());
+        merged.addAll(a);
+        merged.addAll(b);
+        return merged;
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.ScheduleDTO;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.util.ICalendarWriter;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * 日程导出服务 (ICS / JSON)
+ *
+ * <p>
+ * 个人日程与群组日程分别按主键 keyset 分页读取，每页写出并刷新后即可回收。导出不在事务内执行且关闭了 open-in-view，
+ * 每次分页查询使用各自的 EntityManager 并在返回后关闭，不会在持久化上下文中累积实体，
+ * 内存占用只与页大小有关，与用户日程总量无关。重复日程按系列导出（ICS 中为 RRULE）。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleExportService {
+
+    private static final int PAGE_SIZE = 500;
+
+    private final ScheduleRepository scheduleRepository;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 以 iCalendar 格式写出用户的全部日程（个人 + 所属群组）
+     */
+    public void exportIcs(String userId, OutputStream out) throws IOException {
+        ZoneId zone = ZoneId.systemDefault();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ICalendarWriter ics = new ICalendarWriter(writer);
+
+        ScheduleICalendarMapper.writeHeader(ics, zone);
+        long count = forEachPage(userId, (page, groups) -> {
+            for (Schedule s : page) {
+                GroupMetadataCache.GroupMeta group = s.getGroupId() != null ? groups.get(s.getGroupId()) : null;
+                ScheduleICalendarMapper.writeEvent(ics, s, group != null ? group.name() : null, zone);
+            }
+            ics.flush();
+        });
+        ics.end("VCALENDAR");
+        ics.flush();
+        log.info("【日程导出】userId: {}, 格式: ics, 条数: {}", userId, count);
+    }
+
+    /**
+     * 以 JSON 数组格式写出用户的全部日程，元素结构同 ScheduleDTO
+     */
+    public void exportJson(String userId, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8);
+        // 由调用方负责关闭（gzip 需要 finish）
+        generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+
+        generator.writeStartArray();
+        long count = forEachPage(userId, (page, groups) -> {
+            for (Schedule s : page) {
+                ScheduleDTO dto = ScheduleDTO.fromEntity(s);
+                if (s.getGroupId() != null) {
+                    GroupMetadataCache.GroupMeta group = groups.get(s.getGroupId());
+                    dto.setGroupName(group != null ? group.name() : "未知群组");
+                }
+                generator.writeObject(dto);
+            }
+            generator.flush();
+        });
+        generator.writeEndArray();
+        generator.close();
+        log.info("【日程导出】userId: {}, 格式: json, 条数: {}", userId, count);
+    }
+
+    /**
+     * 依次按页遍历个人日程与群组日程
+     *
+     * @return 遍历的日程总数
+     */
+    private long forEachPage(String userId, PageConsumer consumer) throws IOException {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+        long count = 0;
+
+        String lastId = "";
+        while (true) {
+            List<Schedule> schedules = scheduleRepository.findPersonalPageAfter(userId, lastId, page);
+            if (schedules.isEmpty()) {
+                break;
+            }
+            count += consume(schedules, consumer);
+            lastId = schedules.get(schedules.size() - 1).getScheduleId();
+        }
+
+        List<String> groupIds = membershipCache.getGroupIds(userId);
+        lastId = "";
+        while (!groupIds.isEmpty()) {
+            List<Schedule> schedules = scheduleRepository.findGroupPageAfter(groupIds, lastId, page);
+            if (schedules.isEmpty()) {
+                break;
+            }
+            count += consume(schedules, consumer);
+            lastId = schedules.get(schedules.size() - 1).getScheduleId();
+        }
+        return count;
+    }
+
+    private int consume(List<Schedule> schedules, PageConsumer consumer) throws IOException {
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(schedules.stream()
+                .map(Schedule::getGroupId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+        consumer.accept(schedules, groups);
+        return schedules.size();
+    }
+
+    @FunctionalInterface
+    private interface PageConsumer {
+        void accept(List<Schedule> page, Map<String, GroupMetadataCache.GroupMeta> groups) throws IOException;
+    }
+}
@@ -0,0 +1,431 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.CreateScheduleRequest;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.util.ICalendarReader;
+import com.example.speedcalendarserver.util.ICalendarWriter;
+
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 日程与 iCalendar VEVENT 之间的映射
+ *
+ * <p>
+ * 定时日程使用 TZID 本地时间（服务器时区），全天日程使用 VALUE=DATE；
+ * repeatType / repeatEndDate 映射为 RRULE 的 FREQ / UNTIL。
+ * RFC 5545 对 FREQ=MONTHLY 的 31 日、FREQ=YEARLY 的 2 月 29 日同样跳过不存在的日期，
+ * 与 {@link RecurrenceExpander} 的展开规则一致。
+ *
+ * <p>
+ * 导入方向逐个读取 VEVENT，只暂存当前事件的属性；无法用日程模型表达的内容
+ * （INTERVAL &gt; 1、多值 BYDAY、单次修改的 RECURRENCE-ID 等）作为失败条目返回原因。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public final class ScheduleICalendarMapper {
+
+    static final String PRODID = "-//SpeedCalendar//Schedule Export//ZH";
+    static final String UID_SUFFIX = "@speedcalendar";
+    static final String X_GROUP = "X-SPEEDCALENDAR-GROUP";
+    static final String X_COLOR = "X-SPEEDCALENDAR-COLOR";
+
+    static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    /**
+     * 与 schedules 表列长度一致，导入时超长截断，避免单条超长导致整批写入失败
+     */
+    private static final int MAX_TITLE = 200;
+    private static final int MAX_LOCATION = 200;
+    private static final int MAX_CATEGORY = 50;
+    private static final int MAX_COLOR = 20;
+    private static final int MAX_NOTES = 20000;
+
+    private ScheduleICalendarMapper() {
+    }
+
+    /**
+     * 写入 VCALENDAR 头部
+     */
+    public static void writeHeader(ICalendarWriter ics, ZoneId zone) throws IOException {
+        ics.begin("VCALENDAR")
+                .property("VERSION", "2.0")
+                .property("PRODID", PRODID)
+                .property("CALSCALE", "GREGORIAN")
+                .text("X-WR-CALNAME", "SpeedCalendar")
+                .property("X-WR-TIMEZONE", zone.getId());
+    }
+
+    /**
+     * 写入一个 VEVENT
+     *
+     * @param groupName 群组日程的群组名称，个人日程为 null
+     */
+    public static void writeEvent(ICalendarWriter ics, Schedule s, String groupName, ZoneId zone) throws IOException {
+        boolean allDay = ScheduleIndexService.isAllDay(s);
+        LocalDateTime stamp = s.getUpdatedAt() != null ? s.getUpdatedAt() : LocalDateTime.now();
+
+        ics.begin("VEVENT")
+                .property("UID", s.getScheduleId() + UID_SUFFIX)
+                .property("DTSTAMP", utc(stamp, zone));
+        if (allDay) {
+            ics.property("DTSTART;VALUE=DATE", s.getScheduleDate().format(DATE))
+                    .property("DTEND;VALUE=DATE", s.getScheduleDate().plusDays(1).format(DATE));
+        } else {
+            String tzid = ";TZID=" + zone.getId();
+            ics.property("DTSTART" + tzid, s.getScheduleDate().atTime(s.getStartTime()).format(LOCAL_DATE_TIME));
+            if (s.getEndTime() != null) {
+                // 结束时间早于开始时间视为跨午夜
+                LocalDateTime end = s.getScheduleDate().atTime(s.getEndTime());
+                if (s.getEndTime().isBefore(s.getStartTime())) {
+                    end = end.plusDays(1);
+                }
+                ics.property("DTEND" + tzid, end.format(LOCAL_DATE_TIME));
+            }
+        }
+        ics.property("RRULE", rrule(s, allDay, zone))
+                .text("SUMMARY", s.getTitle())
+                .text("LOCATION", s.getLocation())
+                .text("DESCRIPTION", s.getNotes())
+                .text("CATEGORIES", s.getCategory())
+                .property("PRIORITY", Integer.valueOf(1).equals(s.getIsImportant()) ? "1" : null)
+                .text(X_GROUP, groupName)
+                .text(X_COLOR, s.getColor());
+        if (s.getReminderMinutes() != null && s.getReminderMinutes() >= 0) {
+            ics.begin("VALARM")
+                    .property("ACTION", "DISPLAY")
+                    .property("TRIGGER", "-PT" + s.getReminderMinutes() + "M")
+                    .text("DESCRIPTION", s.getTitle())
+                    .end("VALARM");
+        }
+        ics.end("VEVENT");
+    }
+
+    /**
+     * repeatType / repeatEndDate -> RRULE，不重复时返回 null
+     * UNTIL 的值类型须与 DTSTART 一致：全天为 DATE，定时为 UTC 时间
+     */
+    static String rrule(Schedule s, boolean allDay, ZoneId zone) {
+        if (!RecurrenceExpander.isRecurring(s)) {
+            return null;
+        }
+        String freq = switch (s.getRepeatType()) {
+            case RecurrenceExpander.REPEAT_DAILY -> "DAILY";
+            case RecurrenceExpander.REPEAT_WEEKLY -> "WEEKLY";
+            case RecurrenceExpander.REPEAT_MONTHLY -> "MONTHLY";
+            case RecurrenceExpander.REPEAT_YEARLY -> "YEARLY";
+            default -> null;
+        };
+        if (freq == null) {
+            return null;
+        }
+        String rule = "FREQ=" + freq;
+        if (s.getRepeatEndDate() != null) {
+            rule += ";UNTIL=" + (allDay
+                    ? s.getRepeatEndDate().format(DATE)
+                    : utc(s.getRepeatEndDate().atTime(LocalTime.MAX), zone));
+        }
+        return rule;
+    }
+
+    static String utc(LocalDateTime local, ZoneId zone) {
+        return local.atZone(zone).withZoneSameInstant(ZoneOffset.UTC).format(UTC_DATE_TIME);
+    }
+
+    /**
+     * 读取下一个 VEVENT，文件结束时返回 null
+     *
+     * @param index 该事件在文件中的序号（从 0 开始），用于结果定位
+     */
+    public static ImportedEvent readEvent(ICalendarReader ics, int index, ZoneId zone) throws IOException {
+        Map<String, ICalendarReader.ContentLine> props = null;
+        // VEVENT 内嵌套组件的深度（VALARM 等）
+        int nested = 0;
+        boolean inAlarm = false;
+        Integer reminder = null;
+
+        ICalendarReader.ContentLine line;
+        while ((line = ics.next()) != null) {
+            String name = line.name();
+            if ("BEGIN".equals(name)) {
+                if (props == null) {
+                    if ("VEVENT".equalsIgnoreCase(line.value())) {
+                        props = new HashMap<>();
+                    }
+                } else {
+                    nested++;
+                    inAlarm = nested == 1 && "VALARM".equalsIgnoreCase(line.value()) && reminder == null;
+                }
+            } else if ("END".equals(name)) {
+                if (props == null) {
+                    continue;
+                }
+                if (nested > 0) {
+                    nested--;
+                    inAlarm = false;
+                } else {
+                    try {
+                        return new ImportedEvent(index, toCreateRequest(props, reminder, zone), null);
+                    } catch (IllegalArgumentException | DateTimeException e) {
+                        return new ImportedEvent(index, null, e.getMessage());
+                    } catch (IndexOutOfBoundsException e) {
+                        return new ImportedEvent(index, null, "无法解析的日期或时间");
+                    }
+                }
+            } else if (props != null && nested == 0) {
+                props.putIfAbsent(name, line);
+            } else if (inAlarm && "TRIGGER".equals(name)) {
+                reminder = reminderMinutes(line);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * VEVENT 属性 -> 创建请求，无法表达时抛出 IllegalArgumentException
+     */
+    static CreateScheduleRequest toCreateRequest(Map<String, ICalendarReader.ContentLine> props, Integer reminder,
+            ZoneId zone) {
+        if (props.containsKey("RECURRENCE-ID")) {
+            throw new IllegalArgumentException("重复日程的单次修改暂不支持");
+        }
+        ICalendarReader.ContentLine status = props.get("STATUS");
+        if (status != null && "CANCELLED".equalsIgnoreCase(status.value())) {
+            throw new IllegalArgumentException("已取消的日程");
+        }
+        ICalendarReader.ContentLine dtStart = props.get("DTSTART");
+        if (dtStart == null) {
+            throw new IllegalArgumentException("缺少 DTSTART");
+        }
+
+        CreateScheduleRequest request = new CreateScheduleRequest();
+        request.setTitle(truncate(text(props, "SUMMARY"), MAX_TITLE));
+        request.setLocation(truncate(text(props, "LOCATION"), MAX_LOCATION));
+        request.setNotes(truncate(text(props, "DESCRIPTION"), MAX_NOTES));
+
+        LocalDate startDate;
+        if (isDate(dtStart)) {
+            startDate = LocalDate.parse(dtStart.value().substring(0, 8), DATE);
+            request.setIsAllDay(true);
+        } else {
+            LocalDateTime start = dateTime(dtStart, zone);
+            LocalDateTime end = end(props, start, zone);
+            startDate = start.toLocalDate();
+            request.setIsAllDay(false);
+            request.setStartTime(start.toLocalTime().truncatedTo(ChronoUnit.MINUTES).toString());
+            // 日程模型只能表达 24 小时以内（可跨午夜）的时段
+            if (end != null && !end.isBefore(start) && end.isBefore(start.plusDays(1))) {
+                request.setEndTime(end.toLocalTime().truncatedTo(ChronoUnit.MINUTES).toString());
+            }
+        }
+        request.setScheduleDate(startDate.toString());
+
+        ICalendarReader.ContentLine rrule = props.get("RRULE");
+        if (rrule != null) {
+            applyRrule(request, rrule.value(), startDate, zone);
+        }
+
+        String categories = props.containsKey("CATEGORIES") ? props.get("CATEGORIES").value() : null;
+        if (categories != null && !categories.isBlank()) {
+            request.setCategory(truncate(ICalendarReader.unescape(categories.split("(?<!\\\\),", 2)[0]).trim(),
+                    MAX_CATEGORY));
+        }
+        ICalendarReader.ContentLine priority = props.get("PRIORITY");
+        if (priority != null) {
+            // RFC 5545: 1-4 为高优先级
+            int value = parseIntOrZero(priority.value());
+            request.setIsImportant(value >= 1 && value <= 4);
+        }
+        String color = text(props, X_COLOR);
+        if (color != null && color.startsWith("#") && color.length() <= MAX_COLOR) {
+            request.setColor(color);
+        }
+        request.setReminderMinutes(reminder);
+        request.setIsAiGenerated(false);
+        return request;
+    }
+
+    /**
+     * RRULE -> repeatType / repeatEndDate，COUNT 折算为结束日期
+     */
+    private static void applyRrule(CreateScheduleRequest request, String rrule, LocalDate start, ZoneId zone) {
+        Map<String, String> parts = new HashMap<>();
+        for (String part : rrule.split(";")) {
+            int eq = part.indexOf('=');
+            if (eq > 0) {
+                parts.put(part.substring(0, eq).trim().toUpperCase(), part.substring(eq + 1).trim());
+            }
+        }
+        String repeatType = switch (parts.getOrDefault("FREQ", "").toUpperCase()) {
+            case "DAILY" -> RecurrenceExpander.REPEAT_DAILY;
+            case "WEEKLY" -> RecurrenceExpander.REPEAT_WEEKLY;
+            case "MONTHLY" -> RecurrenceExpander.REPEAT_MONTHLY;
+            case "YEARLY" -> RecurrenceExpander.REPEAT_YEARLY;
+            default -> null;
+        };
+        String interval = parts.get("INTERVAL");
+        if (repeatType == null || (interval != null && !"1".equals(interval))
+                || !byRulesMatchStart(parts, repeatType, start)) {
+            throw new IllegalArgumentException("不支持的重复规则: " + rrule);
+        }
+        request.setRepeatType(repeatType);
+
+        String until = parts.get("UNTIL");
+        String count = parts.get("COUNT");
+        if (until != null && until.length() >= 8) {
+            LocalDate endDate = until.endsWith("Z")
+                    ? LocalDateTime.parse(until.substring(0, 15), LOCAL_DATE_TIME)
+                            .atZone(ZoneOffset.UTC).withZoneSameInstant(zone).toLocalDate()
+                    : LocalDate.parse(until.substring(0, 8), DATE);
+            request.setRepeatEndDate(endDate.toString());
+        } else if (count != null) {
+            int n = Math.max(1, parseIntOrZero(count)) - 1;
+            LocalDate endDate = switch (repeatType) {
+                case RecurrenceExpander.REPEAT_DAILY -> start.plusDays(n);
+                case RecurrenceExpander.REPEAT_WEEKLY -> start.plusWeeks(n);
+                case RecurrenceExpander.REPEAT_MONTHLY -> start.plusMonths(n);
+                default -> start.plusYears(n);
+            };
+            request.setRepeatEndDate(endDate.toString());
+        }
+    }
+
+    /**
+     * BY* 规则只有在单值且与 DTSTART 一致时（如 WEEKLY;BYDAY=MO 且 DTSTART 是周一）才只是重复了起始日期，可以忽略；
+     * 其余情况会改变发生日期，日程模型无法表达
+     */
+    private static boolean byRulesMatchStart(Map<String, String> parts, String repeatType, LocalDate start) {
+        for (Map.Entry<String, String> e : parts.entrySet()) {
+            if (!e.getKey().startsWith("BY")) {
+                continue;
+            }
+            String value = e.getValue().trim().toUpperCase();
+            boolean matches = switch (e.getKey()) {
+                case "BYDAY" -> RecurrenceExpander.REPEAT_WEEKLY.equals(repeatType)
+                        && value.equals(start.getDayOfWeek().name().substring(0, 2));
+                case "BYMONTHDAY" -> (RecurrenceExpander.REPEAT_MONTHLY.equals(repeatType)
+                        || RecurrenceExpander.REPEAT_YEARLY.equals(repeatType))
+                        && value.equals(String.valueOf(start.getDayOfMonth()));
+                case "BYMONTH" -> RecurrenceExpander.REPEAT_YEARLY.equals(repeatType)
+                        && value.equals(String.valueOf(start.getMonthValue()));
+                default -> false;
+            };
+            if (!matches) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * DTEND，缺失时由 DURATION 推算
+     */
+    private static LocalDateTime end(Map<String, ICalendarReader.ContentLine> props, LocalDateTime start,
+            ZoneId zone) {
+        ICalendarReader.ContentLine dtEnd = props.get("DTEND");
+        if (dtEnd != null) {
+            return isDate(dtEnd) ? null : dateTime(dtEnd, zone);
+        }
+        ICalendarReader.ContentLine duration = props.get("DURATION");
+        return duration != null ? start.plus(duration(duration.value())) : null;
+    }
+
+    /**
+     * 带 Z 后缀为 UTC，带 TZID 按该时区，否则为浮动时间；统一换算到服务器时区
+     */
+    private static LocalDateTime dateTime(ICalendarReader.ContentLine line, ZoneId zone) {
+        String value = line.value();
+        LocalDateTime local = LocalDateTime.parse(value.substring(0, Math.min(15, value.length())), LOCAL_DATE_TIME);
+        ZoneId source = zone;
+        if (value.endsWith("Z")) {
+            source = ZoneOffset.UTC;
+        } else if (line.param("TZID") != null) {
+            try {
+                source = ZoneId.of(line.param("TZID").replaceFirst("^/", ""));
+            } catch (DateTimeException e) {
+                // 非 IANA 时区名（如 Windows 时区），按服务器时区处理
+            }
+        }
+        return local.atZone(source).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    private static boolean isDate(ICalendarReader.ContentLine line) {
+        return "DATE".equalsIgnoreCase(line.param("VALUE")) || line.value().length() == 8;
+    }
+
+    /**
+     * VALARM TRIGGER -> 提前提醒分钟数，只支持相对开始时间的提前提醒
+     */
+    private static Integer reminderMinutes(ICalendarReader.ContentLine trigger) {
+        if (trigger.param("VALUE") != null || "END".equalsIgnoreCase(trigger.param("RELATED"))) {
+            return null;
+        }
+        try {
+            Duration offset = duration(trigger.value());
+            return offset.isNegative() || offset.isZero() ? (int) -offset.toMinutes() : null;
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * iCalendar 时长，额外支持 java.time 不识别的周（如 P1W）
+     *
+     * @throws DateTimeParseException 无法解析（包括 -PXW 这类非法的周数）
+     */
+    private static Duration duration(String value) {
+        String v = value.trim();
+        int w = v.indexOf('W');
+        if (w > 0) {
+            boolean negative = v.startsWith("-");
+            try {
+                long weeks = Long.parseLong(v.substring(v.indexOf('P') + 1, w));
+                return Duration.ofDays(7 * (negative ? -weeks : weeks));
+            } catch (NumberFormatException | ArithmeticException | IndexOutOfBoundsException e) {
+                throw new DateTimeParseException("无法解析的时长: " + v, v, 0);
+            }
+        }
+        return Duration.parse(v);
+    }
+
+    private static String text(Map<String, ICalendarReader.ContentLine> props, String name) {
+        ICalendarReader.ContentLine line = props.get(name);
+        return line != null ? ICalendarReader.unescape(line.value()) : null;
+    }
+
+    private static String truncate(String value, int max) {
+        return value != null && value.length() > max ? value.substring(0, max) : value;
+    }
+
+    private static int parseIntOrZero(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * 读取出的事件：request 与 error 二者其一为 null
+     *
+     * @param index   事件在文件中的序号
+     * @param request 映射得到的创建请求
+     * @param error   无法导入的原因
+     */
+    public record ImportedEvent(int index, CreateScheduleRequest request, String error) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.BatchScheduleResponse;
+import com.example.speedcalendarserver.dto.CreateScheduleRequest;
+import com.example.speedcalendarserver.dto.ScheduleImportProgress;
+import com.example.speedcalendarserver.util.ICalendarReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 日程导入服务 (ICS)
+ *
+ * <p>
+ * 上传文件按内容行流式解析，每攒满 CHUNK_SIZE 个事件交给 {@link ScheduleService#importSchedules}
+ * 在独立事务中批量插入，内存中只保留当前块；每块提交后通过 SSE 推送进度。
+ * 已提交的块不随后续失败回滚，中止时进度事件给出已导入条数。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleImportService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    /**
+     * 结束事件中最多返回的失败条目数
+     */
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ScheduleService scheduleService;
+    private final MembershipCache membershipCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 正在导入的用户，同一用户同时只允许一个导入任务
+     */
+    private final Set<String> running = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 导入为重 IO 任务，使用独立的小线程池，避免占满请求线程与公共线程池
+     */
+    private final ExecutorService executor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(16), new ImportThreadFactory());
+
+    /**
+     * 异步导入 ICS 文件，进度与结果通过 emitter 推送，结束后关闭输入流
+     *
+     * @param groupId 导入到的群组，为空则导入为个人日程
+     * @throws SecurityException     不是该群组成员
+     * @throws IllegalStateException 该用户已有导入任务，或任务队列已满
+     */
+    public void importIcs(String userId, String groupId, InputStream in, SseEmitter emitter) {
+        String targetGroupId = groupId != null && !groupId.isBlank() ? groupId : null;
+        if (targetGroupId != null && !membershipCache.isMember(userId, targetGroupId)) {
+            throw new SecurityException("您不是该群组成员，无法操作此群组日程");
+        }
+        if (!running.add(userId)) {
+            throw new IllegalStateException("已有导入任务正在进行，请稍后再试");
+        }
+        try {
+            executor.execute(() -> {
+                try (in) {
+                    run(userId, targetGroupId, in, emitter);
+                } catch (IOException e) {
+                    log.warn("【日程导入】关闭上传文件失败: {}", e.getMessage());
+                } finally {
+                    running.remove(userId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(userId);
+            throw new IllegalStateException("导入任务繁忙，请稍后再试");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String userId, String groupId, InputStream in, SseEmitter emitter) {
+        long startMs = System.currentTimeMillis();
+        ZoneId zone = ZoneId.systemDefault();
+        Progress progress = new Progress(emitter);
+        List<CreateScheduleRequest> chunk = new ArrayList<>(CHUNK_SIZE);
+        int chunkOffset = 0;
+
+        try (ICalendarReader ics = new ICalendarReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024))) {
+            ScheduleICalendarMapper.ImportedEvent event;
+            while ((event = ScheduleICalendarMapper.readEvent(ics, progress.processed, zone)) != null) {
+                progress.processed++;
+                if (event.error() != null) {
+                    progress.fail(event.index(), event.error());
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    chunkOffset = event.index();
+                }
+                chunk.add(event.request());
+                if (chunk.size() >= CHUNK_SIZE) {
+                    progress.add(scheduleService.importSchedules(userId, groupId, chunk, chunkOffset));
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    progress.send(false);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                progress.add(scheduleService.importSchedules(userId, groupId, chunk, chunkOffset));
+            }
+            progress.send(true);
+            emitter.complete();
+            log.info("【日程导入】userId: {}, 事件: {}, 导入: {}, 失败: {}, 耗时: {}ms", userId,
+                    progress.processed, progress.imported, progress.failed, System.currentTimeMillis() - startMs);
+        } catch (Exception e) {
+            log.error("【日程导入失败】userId: {}, 已导入: {}, {}", userId, progress.imported, e.getMessage(), e);
+            progress.abort("导入中止: " + e.getMessage());
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 导入进度，只在导入线程内访问
+     */
+    private class Progress {
+
+        private final SseEmitter emitter;
+        private final List<BatchScheduleResponse.ItemResult> errors = new ArrayList<>();
+        private int processed;
+        private int imported;
+        private int failed;
+
+        /**
+         * 客户端断开后不再推送，导入继续完成
+         */
+        private boolean clientGone;
+
+        Progress(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void add(BatchScheduleResponse chunkResult) {
+            imported += chunkResult.getSuccessCount();
+            failed += chunkResult.getFailureCount();
+            chunkResult.getResults().forEach(this::record);
+        }
+
+        void fail(int index, String message) {
+            failed++;
+            record(BatchScheduleResponse.ItemResult.builder()
+                    .op("import")
+                    .index(index)
+                    .success(false)
+                    .message(message)
+                    .build());
+        }
+
+        void send(boolean done) {
+            emit(snapshot(done).build());
+        }
+
+        void abort(String message) {
+            emit(snapshot(true).error(message).build());
+        }
+
+        private ScheduleImportProgress.ScheduleImportProgressBuilder snapshot(boolean done) {
+            return ScheduleImportProgress.builder()
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .done(done)
+                    .errors(done ? errors : null);
+        }
+
+        private void record(BatchScheduleResponse.ItemResult result) {
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(result);
+            }
+        }
+
+        private void emit(ScheduleImportProgress data) {
+            if (clientGone) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON));
+            } catch (IOException | IllegalStateException e) {
+                clientGone = true;
+                log.warn("【日程导入】推送进度失败，继续导入: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static class ImportThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "schedule-import-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,448 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.GroupMembershipChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 用户日程区间索引
+ *
+ * <p>
+ * 为活跃用户在内存中维护按月分片的日程索引：每个分片保存该月所有发生（含重复系列展开）
+ * 按开始时刻排序的 long[] 起止分钟数组，范围 / 临近查询通过二分查找直接定位，不访问数据库。
+ *
+ * <p>
+ * 分片首次访问时按缺失月份一次性从 {@link ScheduleSegmentCache} 加载（个人分段与群组分段合并）；日程写入在事务提交后通过
+ * {@link ScheduleChangedEvent} 增量更新已加载的分片，成员关系变化时整个用户索引失效重建。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ScheduleIndexService {
+
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    /**
+     * 冲突检测时无结束时间的日程按 1 小时计（与忙闲位图一致）
+     */
+    private static final long DEFAULT_DURATION_MINUTES = 60;
+
+    private final ScheduleRepository scheduleRepository;
+    private final MembershipCache membershipCache;
+    private final RecurrenceExpander recurrenceExpander;
+    private final ScheduleSegmentCache segmentCache;
+    private final int maxMonthsPerUser;
+
+    /**
+     * userId -> 用户索引
+     */
+    private final Cache<String, UserIndex> indexes;
+
+    public ScheduleIndexService(ScheduleRepository scheduleRepository,
+            MembershipCache membershipCache,
+            RecurrenceExpander recurrenceExpander,
+            ScheduleSegmentCache segmentCache,
+            ScheduleCacheConfig cacheConfig) {
+        this.scheduleRepository = scheduleRepository;
+        this.membershipCache = membershipCache;
+        this.recurrenceExpander = recurrenceExpander;
+        this.segmentCache = segmentCache;
+        ScheduleCacheConfig.IndexConfig config = cacheConfig.getIndex();
+        this.maxMonthsPerUser = config.getMaxMonthsPerUser();
+        this.indexes = Caffeine.newBuilder()
+                .maximumSize(config.getMaxUsers())
+                .expireAfterAccess(config.getIdleTtl())
+                .build();
+    }
+
+    /**
+     * 查询日期范围 [from, to] 内的所有发生（个人 + 所属群组），按日期、开始时间排序
+     */
+    public List<RecurrenceExpander.Occurrence> findByDateRange(String userId, LocalDate from, LocalDate to) {
+        List<YearMonth> months = monthsBetween(from, to);
+        if (months.size() > maxMonthsPerUser) {
+            // 超长范围不进入索引，避免挤掉常用月份
+            return loadDirect(userId, from, to);
+        }
+
+        UserIndex index = indexes.get(userId, this::newIndex);
+        Map<YearMonth, MonthSlice> slices = slicesFor(index, months);
+
+        long fromMinute = minuteOf(from, LocalTime.MIN);
+        long toMinuteExclusive = minuteOf(to.plusDays(1), LocalTime.MIN);
+        List<RecurrenceExpander.Occurrence> result = new ArrayList<>();
+        for (YearMonth month : months) {
+            slices.get(month).collect(fromMinute, toMinuteExclusive, result);
+        }
+        return result;
+    }
+
+    /**
+     * 查询临近日程：开始时刻在 [from, to] 内的定时日程，以及日期落在范围内的全天日程
+     */
+    public List<RecurrenceExpander.Occurrence> findNearby(String userId, LocalDateTime from, LocalDateTime to) {
+        long fromMinute = minuteOf(from.toLocalDate(), from.toLocalTime());
+        long toMinute = minuteOf(to.toLocalDate(), to.toLocalTime());
+        return findByDateRange(userId, from.toLocalDate(), to.toLocalDate()).stream()
+                .filter(o -> {
+                    if (isAllDay(o.schedule())) {
+                        return true;
+                    }
+                    long start = minuteOf(o.date(), o.schedule().getStartTime());
+                    return start >= fromMinute && start <= toMinute;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 查询与 date 当天 [startTime, endTime) 重叠的定时日程（个人 + 所属群组），全天日程不计
+     *
+     * <p>
+     * 在开始分钟数有序的分片上二分定位 [start - maxDuration, end)，只检查该区间内的发生；
+     * 无结束时间按 1 小时计，结束早于开始视为跨午夜，因此需要同时查看前一天与后一天所在的月份。
+     *
+     * @param excludeScheduleId 排除的日程（更新时为自身），可为 null
+     */
+    public List<RecurrenceExpander.Occurrence> findOverlapping(String userId, LocalDate date,
+            LocalTime startTime, LocalTime endTime, String excludeScheduleId) {
+        long fromMinute = minuteOf(date, startTime);
+        long toMinute = endTime == null ? fromMinute + DEFAULT_DURATION_MINUTES : minuteOf(date, endTime);
+        if (toMinute <= fromMinute) {
+            toMinute += MINUTES_PER_DAY;
+        }
+
+        List<YearMonth> months = monthsBetween(date.minusDays(1), date.plusDays(1));
+        Map<YearMonth, MonthSlice> slices = slicesFor(indexes.get(userId, this::newIndex), months);
+
+        List<RecurrenceExpander.Occurrence> result = new ArrayList<>();
+        for (YearMonth month : months) {
+            slices.get(month).collectOverlapping(fromMinute, toMinute, result);
+        }
+        if (excludeScheduleId != null) {
+            result.removeIf(o -> excludeScheduleId.equals(o.schedule().getScheduleId()));
+        }
+        return result;
+    }
+
+    /**
+     * 使指定用户的索引失效
+     */
+    public void invalidate(String userId) {
+        indexes.invalidate(userId);
+    }
+
+    /**
+     * 日程写入提交后增量更新受影响用户的已加载分片，整批变更对每个用户只重建一次分片
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Set<String> affectedUsers = new HashSet<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            collectAudience(change.before(), affectedUsers);
+            collectAudience(change.after(), affectedUsers);
+        }
+
+        for (String userId : affectedUsers) {
+            UserIndex index = indexes.getIfPresent(userId);
+            if (index != null) {
+                apply(index, event.getChanges());
+            }
+        }
+    }
+
+    /**
+     * 批量写入（导入）提交后丢弃受影响用户的索引，下次访问重新加载
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        if (event.getGroupId() != null) {
+            indexes.invalidateAll(membershipCache.getMemberIds(event.getGroupId()));
+        } else {
+            indexes.invalidate(event.getUserId());
+        }
+    }
+
+    /**
+     * 成员关系变化后，相关用户可见的群组日程集合改变，直接丢弃其索引
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMembershipChanged(GroupMembershipChangedEvent event) {
+        indexes.invalidateAll(event.getUserIds());
+    }
+
+    private void collectAudience(Schedule schedule, Set<String> users) {
+        if (schedule == null) {
+            return;
+        }
+        if (schedule.getGroupId() == null) {
+            users.add(schedule.getUserId());
+            return;
+        }
+        users.addAll(membershipCache.getMemberIds(schedule.getGroupId()));
+    }
+
+    private UserIndex newIndex(String userId) {
+        return new UserIndex(userId, Set.copyOf(membershipCache.getGroupIds(userId)));
+    }
+
+    /**
+     * 取出所需月份的分片，缺失的月份合并为一次分段缓存读取
+     */
+    private Map<YearMonth, MonthSlice> slicesFor(UserIndex index, List<YearMonth> months) {
+        Map<YearMonth, MonthSlice> found = new HashMap<>();
+        List<YearMonth> missing = new ArrayList<>();
+        long version;
+        synchronized (index) {
+            for (YearMonth month : months) {
+                MonthSlice slice = index.slices.get(month);
+                if (slice != null) {
+                    found.put(month, slice);
+                } else {
+                    missing.add(month);
+                }
+            }
+            version = index.version;
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        Map<YearMonth, MonthSlice> loaded = loadSlices(index, missing);
+        found.putAll(loaded);
+
+        synchronized (index) {
+            // 加载期间有写入提交时不落入索引，下次访问重新加载
+            if (index.version == version) {
+                index.slices.putAll(loaded);
+                index.trimTo(maxMonthsPerUser);
+            }
+        }
+        return found;
+    }
+
+    private Map<YearMonth, MonthSlice> loadSlices(UserIndex index, List<YearMonth> missing) {
+        Map<YearMonth, List<Schedule>> segments = segmentCache.load(index.userId, index.groupIds, missing);
+
+        Map<YearMonth, MonthSlice> loaded = new HashMap<>();
+        segments.forEach((month, masters) -> loaded.put(month, rebuild(month, masters)));
+        log.debug("【ScheduleIndex】用户 {} 加载 {} 个月份分片", index.userId, missing.size());
+        return loaded;
+    }
+
+    private List<RecurrenceExpander.Occurrence> loadDirect(String userId, LocalDate from, LocalDate to) {
+        List<Schedule> schedules = scheduleRepository.findSchedulesAndSeriesForUserAndGroupsByDateRange(
+                userId, membershipCache.getGroupIds(userId), from, to);
+        return recurrenceExpander.expand(schedules, from, to);
+    }
+
+    /**
+     * 将一批日程变更应用到用户已加载的各月分片，每个受影响的分片只重建一次
+     */
+    private void apply(UserIndex index, List<ScheduleChangedEvent.Change> changes) {
+        // 同一日程多次变更时以最后一次为准
+        Map<String, Schedule> latest = new LinkedHashMap<>();
+        for (ScheduleChangedEvent.Change change : changes) {
+            latest.put(change.scheduleId(), change.after());
+        }
+        List<Schedule> visible = latest.values().stream()
+                .filter(after -> after != null && after.getIsDeleted() == 0 && index.canSee(after))
+                .collect(Collectors.toList());
+        synchronized (index) {
+            index.slices.replaceAll((month, slice) -> {
+                List<Schedule> masters = new ArrayList<>(slice.masters);
+                boolean touched = masters.removeIf(s -> latest.containsKey(s.getScheduleId()));
+                for (Schedule after : visible) {
+                    if (!recurrenceExpander.occurrences(after, month.atDay(1), month.atEndOfMonth()).isEmpty()) {
+                        masters.add(after);
+                        touched = true;
+                    }
+                }
+                return touched ? rebuild(month, masters) : slice;
+            });
+            index.version++;
+        }
+    }
+
+    private MonthSlice rebuild(YearMonth month, List<Schedule> masters) {
+        LocalDate monthStart = month.atDay(1);
+        LocalDate monthEnd = month.atEndOfMonth();
+        List<RecurrenceExpander.Occurrence> occurrences = new ArrayList<>();
+        for (Schedule schedule : masters) {
+            recurrenceExpander.occurrences(schedule, monthStart, monthEnd)
+                    .forEach(d -> occurrences.add(new RecurrenceExpander.Occurrence(schedule, d)));
+        }
+        return MonthSlice.of(masters, occurrences);
+    }
+
+    private static List<YearMonth> monthsBetween(LocalDate from, LocalDate to) {
+        List<YearMonth> months = new ArrayList<>();
+        YearMonth last = YearMonth.from(to);
+        for (YearMonth ym = YearMonth.from(from); !ym.isAfter(last); ym = ym.plusMonths(1)) {
+            months.add(ym);
+        }
+        return months;
+    }
+
+    static boolean isAllDay(Schedule schedule) {
+        return schedule.getStartTime() == null || Integer.valueOf(1).equals(schedule.getIsAllDay());
+    }
+
+    /**
+     * 以本地时间计的绝对分钟数（epochDay * 1440 + 当日分钟），只用于比较，不涉及时区换算
+     */
+    static long minuteOf(LocalDate date, LocalTime time) {
+        LocalTime t = time != null ? time : LocalTime.MIN;
+        return date.toEpochDay() * MINUTES_PER_DAY + t.getHour() * 60L + t.getMinute();
+    }
+
+    /**
+     * 单个用户的索引：所属群组 + 按月份访问顺序排列的分片
+     */
+    private static final class UserIndex {
+        private final String userId;
+        private final Set<String> groupIds;
+        /**
+         * 访问顺序的 LinkedHashMap，超出上限时淘汰最久未访问的月份；所有访问需持有 this 锁
+         */
+        private final LinkedHashMap<YearMonth, MonthSlice> slices = new LinkedHashMap<>(16, 0.75f, true);
+        private long version;
+
+        private UserIndex(String userId, Set<String> groupIds) {
+            this.userId = userId;
+            this.groupIds = groupIds;
+        }
+
+        private boolean canSee(Schedule schedule) {
+            return schedule.getGroupId() == null
+                    ? userId.equals(schedule.getUserId())
+                    : groupIds.contains(schedule.getGroupId());
+        }
+
+        private void trimTo(int maxMonths) {
+            var it = slices.entrySet().iterator();
+            while (slices.size() > maxMonths && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * 单月分片：不可变，写入时整体重建后替换
+     */
+    static final class MonthSlice {
+        /**
+         * 该月至少发生一次的日程（重复系列只出现一次）
+         */
+        final List<Schedule> masters;
+        final RecurrenceExpander.Occurrence[] occurrences;
+        /**
+         * 各发生的开始 / 结束分钟数，与 occurrences 下标一一对应，按开始升序
+         */
+        final long[] starts;
+        final long[] ends;
+        /**
+         * 该月最长的单次时长（分钟），用于重叠查询时向前回溯的边界
+         */
+        final long maxDuration;
+
+        private MonthSlice(List<Schedule> masters, RecurrenceExpander.Occurrence[] occurrences,
+                long[] starts, long[] ends, long maxDuration) {
+            this.masters = masters;
+            this.occurrences = occurrences;
+            this.starts = starts;
+            this.ends = ends;
+            this.maxDuration = maxDuration;
+        }
+
+        static MonthSlice of(List<Schedule> masters, List<RecurrenceExpander.Occurrence> occurrences) {
+            RecurrenceExpander.Occurrence[] sorted = occurrences.toArray(new RecurrenceExpander.Occurrence[0]);
+            Arrays.sort(sorted, RecurrenceExpander.OCCURRENCE_ORDER);
+            long[] starts = new long[sorted.length];
+            long[] ends = new long[sorted.length];
+            long maxDuration = 0;
+            for (int i = 0; i < sorted.length; i++) {
+                Schedule s = sorted[i].schedule();
+                LocalDate date = sorted[i].date();
+                starts[i] = minuteOf(date, s.getStartTime());
+                if (isAllDay(s)) {
+                    ends[i] = starts[i] + MINUTES_PER_DAY;
+                } else if (s.getEndTime() != null) {
+                    long end = minuteOf(date, s.getEndTime());
+                    // 结束时间早于开始时间视为跨午夜
+                    ends[i] = end >= starts[i] ? end : end + MINUTES_PER_DAY;
+                } else {
+                    ends[i] = starts[i];
+                }
+                maxDuration = Math.max(maxDuration, ends[i] - starts[i]);
+            }
+            return new MonthSlice(List.copyOf(masters), sorted, starts, ends, maxDuration);
+        }
+
+        /**
+         * 收集开始分钟数落在 [fromMinute, toMinuteExclusive) 内的发生
+         */
+        void collect(long fromMinute, long toMinuteExclusive, List<RecurrenceExpander.Occurrence> out) {
+            for (int i = lowerBound(starts, fromMinute); i < starts.length && starts[i] < toMinuteExclusive; i++) {
+                out.add(occurrences[i]);
+            }
+        }
+
+        /**
+         * 收集与 [fromMinute, toMinute) 重叠的定时发生；开始早于 fromMinute - maxDuration 的发生不可能重叠
+         */
+        void collectOverlapping(long fromMinute, long toMinute, List<RecurrenceExpander.Occurrence> out) {
+            long lookBack = Math.max(maxDuration, DEFAULT_DURATION_MINUTES);
+            for (int i = lowerBound(starts, fromMinute - lookBack); i < starts.length && starts[i] < toMinute; i++) {
+                if (isAllDay(occurrences[i].schedule())) {
+                    continue;
+                }
+                long end = ends[i] > starts[i] ? ends[i] : starts[i] + DEFAULT_DURATION_MINUTES;
+                if (end > fromMinute) {
+                    out.add(occurrences[i]);
+                }
+            }
+        }
+
+        /**
+         * 第一个 >= key 的下标
+         */
+        static int lowerBound(long[] values, long key) {
+            int lo = 0;
+            int hi = values.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[mid] < key) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.dto.ScheduleDTO;
+import com.example.speedcalendarserver.dto.ScheduleSearchResponse;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.util.BigramIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 日程全文搜索服务
+ *
+ * <p>
+ * 按作用域（个人 / 群组，与 {@link ScheduleSegmentCache} 相同的划分）在内存中维护标题、备注、地点的
+ * {@link BigramIndex}；作用域首次搜索时按主键分页从数据库构建，之后由 {@link ScheduleChangedEvent} 增量维护，
+ * 批量导入后整体重建。搜索合并用户个人作用域与所属各群组作用域的结果，按 (日期, 开始时间, ID) 排序后以游标分页。
+ *
+ * <p>
+ * 索引缓存按权重（已索引文本的字符数，每条日程另加固定开销）限制总量，而不是按作用域个数：
+ * 单个大群组的索引可能比上千个个人作用域还大。增量更新经 computeIfPresent 写回，权重随之重新计算。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ScheduleSearchService {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int LOAD_PAGE_SIZE = 1000;
+
+    /**
+     * 每条日程快照与倒排项的固定开销，折算为字符数计入权重
+     */
+    private static final int PER_SCHEDULE_WEIGHT = 64;
+
+    /**
+     * 结果顺序，同时是游标比较的依据；全天日程（无开始时间）排在当天最前
+     */
+    private static final Comparator<Schedule> SEARCH_ORDER = Comparator
+            .comparing(Schedule::getScheduleDate)
+            .thenComparing(Schedule::getStartTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(Schedule::getScheduleId);
+
+    private final ScheduleRepository scheduleRepository;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+
+    /**
+     * 作用域 ("u:" + userId / "g:" + groupId) -> 倒排索引
+     */
+    private final Cache<String, ScopeIndex> indexes;
+
+    public ScheduleSearchService(ScheduleRepository scheduleRepository,
+            MembershipCache membershipCache,
+            GroupMetadataCache groupMetadataCache,
+            ScheduleCacheConfig cacheConfig,
+            MeterRegistry meterRegistry) {
+        this.scheduleRepository = scheduleRepository;
+        this.membershipCache = membershipCache;
+        this.groupMetadataCache = groupMetadataCache;
+        ScheduleCacheConfig.SearchConfig config = cacheConfig.getSearch();
+        this.indexes = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxWeight())
+                .weigher((String scope, ScopeIndex index) -> index.weight())
+                .expireAfterAccess(config.getIdleTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexes, "schedule.search");
+    }
+
+    /**
+     * 搜索标题、备注或地点包含全部关键词的日程（个人 + 所属群组）
+     *
+     * @param query  关键词，空白分隔多个关键词时须全部匹配
+     * @param from   只返回该日期及之后的日程（重复系列只要未结束即返回），为 null 时不限
+     * @param cursor 上一页返回的 nextCursor，首页为空
+     * @param limit  每页条数
+     * @throws IllegalArgumentException 关键词为空或游标无效
+     */
+    public ScheduleSearchResponse search(String userId, String query, LocalDate from, String cursor, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("搜索关键词不能为空");
+        }
+        Schedule after = cursor == null || cursor.isBlank() ? null : Cursor.decode(cursor).toKey();
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        long startNs = System.nanoTime();
+        List<String> scopes = new ArrayList<>();
+        scopes.add(personalScope(userId));
+        membershipCache.getGroupIds(userId).forEach(groupId -> scopes.add(groupScope(groupId)));
+
+        List<Schedule> hits = new ArrayList<>();
+        for (String scope : scopes) {
+            ScopeIndex index = indexes.get(scope, this::load);
+            synchronized (index) {
+                for (String scheduleId : index.text.search(query)) {
+                    Schedule s = index.schedules.get(scheduleId);
+                    if ((from == null || notBefore(s, from))
+                            && (after == null || SEARCH_ORDER.compare(after, s) < 0)) {
+                        hits.add(s);
+                    }
+                }
+            }
+        }
+        hits.sort(SEARCH_ORDER);
+
+        boolean hasMore = hits.size() > pageSize;
+        List<Schedule> page = hasMore ? hits.subList(0, pageSize) : hits;
+        log.info("【日程搜索】userId: {}, 作用域: {}, 命中: {}, 耗时: {}μs",
+                userId, scopes.size(), hits.size(), (System.nanoTime() - startNs) / 1000);
+        return ScheduleSearchResponse.builder()
+                .items(toDTOs(page))
+                .nextCursor(hasMore ? Cursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
+    }
+
+    /**
+     * 日程写入提交后更新已加载的作用域索引（归属群组变化时从旧作用域移除），整批变更每个作用域只加锁一次
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        // 按作用域分组，保持写入顺序：先从变更前的作用域移除，再放入变更后的作用域
+        Map<String, List<Consumer<ScopeIndex>>> updates = new LinkedHashMap<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            String scheduleId = change.scheduleId();
+            Schedule after = change.after();
+            if (change.before() != null) {
+                updates.computeIfAbsent(scopeOf(change.before()), k -> new ArrayList<>())
+                        .add(index -> index.remove(scheduleId));
+            }
+            if (after != null && after.getIsDeleted() == 0) {
+                updates.computeIfAbsent(scopeOf(after), k -> new ArrayList<>())
+                        .add(index -> index.put(after));
+            }
+        }
+        // computeIfPresent 与正在进行的加载互斥，加载完成后再应用本次变更
+        updates.forEach((scope, ops) -> indexes.asMap().computeIfPresent(scope, (key, index) -> {
+            ops.forEach(op -> op.accept(index));
+            return index;
+        }));
+    }
+
+    /**
+     * 批量写入（导入）提交后丢弃该作用域的索引，下次搜索重新构建
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        indexes.invalidate(event.getGroupId() != null
+                ? groupScope(event.getGroupId())
+                : personalScope(event.getUserId()));
+    }
+
+    /**
+     * 按主键分页读取作用域内全部未删除日程构建索引
+     */
+    private ScopeIndex load(String scope) {
+        long startMs = System.currentTimeMillis();
+        String id = scope.substring(2);
+        boolean group = scope.startsWith("g:");
+        PageRequest page = PageRequest.of(0, LOAD_PAGE_SIZE);
+        ScopeIndex index = new ScopeIndex();
+        String lastId = "";
+        while (true) {
+            List<Schedule> batch = group
+                    ? scheduleRepository.findGroupPageAfter(List.of(id), lastId, page)
+                    : scheduleRepository.findPersonalPageAfter(id, lastId, page);
+            batch.forEach(index::put);
+            if (batch.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            lastId = batch.get(batch.size() - 1).getScheduleId();
+        }
+        log.debug("【日程搜索】构建索引 {}, 日程: {}, 耗时: {}ms", scope, index.schedules.size(),
+                System.currentTimeMillis() - startMs);
+        return index;
+    }
+
+    private static boolean notBefore(Schedule s, LocalDate from) {
+        if (!s.getScheduleDate().isBefore(from)) {
+            return true;
+        }
+        return RecurrenceExpander.isRecurring(s)
+                && (s.getRepeatEndDate() == null || !s.getRepeatEndDate().isBefore(from));
+    }
+
+    private List<ScheduleDTO> toDTOs(List<Schedule> schedules) {
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(schedules.stream()
+                .map(Schedule::getGroupId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+
+        return schedules.stream()
+                .map(s -> {
+                    ScheduleDTO dto = ScheduleDTO.fromEntity(s);
+                    if (s.getGroupId() != null) {
+                        GroupMetadataCache.GroupMeta group = groups.get(s.getGroupId());
+                        dto.setGroupName(group != null ? group.name() : "未知群组");
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static String scopeOf(Schedule schedule) {
+        return schedule.getGroupId() == null ? personalScope(schedule.getUserId()) : groupScope(schedule.getGroupId());
+    }
+
+    private static String personalScope(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String groupScope(String groupId) {
+        return "g:" + groupId;
+    }
+
+    /**
+     * 单个作用域的索引：日程快照 + 倒排索引；所有访问需持有 this 锁
+     */
+    private static final class ScopeIndex {
+        private final Map<String, Schedule> schedules = new HashMap<>();
+        private final BigramIndex<String> text = new BigramIndex<>();
+
+        /**
+         * 已索引文本的总字符数
+         */
+        private long textLength;
+
+        private synchronized void put(Schedule s) {
+            Schedule previous = schedules.put(s.getScheduleId(), s);
+            if (previous != null) {
+                textLength -= textLength(previous);
+            }
+            textLength += textLength(s);
+            text.put(s.getScheduleId(), s.getTitle(), s.getNotes(), s.getLocation());
+        }
+
+        private synchronized void remove(String scheduleId) {
+            Schedule previous = schedules.remove(scheduleId);
+            if (previous != null) {
+                textLength -= textLength(previous);
+            }
+            text.remove(scheduleId);
+        }
+
+        /**
+         * 缓存权重：文本字符数 + 每条日程的固定开销，超过 int 范围时取上限
+         */
+        private synchronized int weight() {
+            return (int) Math.min(Integer.MAX_VALUE, textLength + (long) schedules.size() * PER_SCHEDULE_WEIGHT);
+        }
+
+        private static int textLength(Schedule s) {
+            return length(s.getTitle()) + length(s.getNotes()) + length(s.getLocation());
+        }
+
+        private static int length(String value) {
+            return value == null ? 0 : value.length();
+        }
+    }
+
+    /**
+     * 搜索游标：Base64URL("scheduleDate|startTime|scheduleId")，对客户端不透明
+     */
+    private record Cursor(LocalDate scheduleDate, LocalTime startTime, String scheduleId) {
+
+        static Cursor of(Schedule s) {
+            return new Cursor(s.getScheduleDate(), s.getStartTime(), s.getScheduleId());
+        }
+
+        /**
+         * 只含排序字段的日程，用于与 SEARCH_ORDER 比较
+         */
+        Schedule toKey() {
+            return Schedule.builder().scheduleDate(scheduleDate).startTime(startTime).scheduleId(scheduleId).build();
+        }
+
+        String encode() {
+            String raw = scheduleDate + "|" + (startTime != null ? startTime : "") + "|" + scheduleId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                return new Cursor(LocalDate.parse(parts[0]),
+                        parts[1].isEmpty() ? null : LocalTime.parse(parts[1]), parts[2]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的搜索游标");
+            }
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Redis 日程分段缓存
+ *
+ * <p>
+ * 按 (用户, 月份) 缓存个人日程、按 (群组, 月份) 缓存群组日程，读取时合并。
+ * 群组日程对所有成员相同，因此一个 500 人群组每月只占一个分段，而不是 500 份重复的查询结果。
+ *
+ * <p>
+ * 每个分段保存该月至少发生一次的日程（重复系列只存主记录），键中带有作用域的代数：
+ * 普通日程写入只删除其所在月份的分段；重复系列可能影响任意月份，写入时递增作用域代数，
+ * 旧代数的分段不再被读取，随 TTL 自然过期。
+ *
+ * <p>
+ * 回填带有作用域版本校验：读取分段时同时读取版本，提交后的失效先递增版本再删除分段，
+ * 回填由 Lua 脚本在版本未变时才写入。提交前读到旧数据的加载若在失效之后回填，会因版本变化被丢弃。
+ *
+ * <p>
+ * Redis 不可用时在 failureBackoff 时长内直接查询数据库，不影响业务请求。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class ScheduleSegmentCache {
+
+    private static final String SEGMENT_KEY_PREFIX = "schedule:seg:";
+    private static final String GENERATION_KEY_PREFIX = "schedule:gen:";
+    private static final String VERSION_KEY_PREFIX = "schedule:ver:";
+
+    /**
+     * KEYS[1] = 作用域版本键，KEYS[2..] = 分段键；ARGV[1] = 读取时的版本，ARGV[2] = TTL 秒，ARGV[3..] = 分段内容
+     */
+    private static final String WRITE_IF_VERSION_SCRIPT =
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end " +
+            "for i = 2, #KEYS do redis.call('SETEX', KEYS[i], ARGV[2], ARGV[i + 1]) end " +
+            "return 1";
+    private static final TypeReference<List<Schedule>> SCHEDULE_LIST = new TypeReference<>() {
+    };
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final ScheduleRepository scheduleRepository;
+    private final RecurrenceExpander recurrenceExpander;
+    private final ScheduleCacheConfig.SegmentConfig config;
+
+    /**
+     * Redis 故障后恢复尝试的时间点（毫秒）
+     */
+    private volatile long redisRetryAt;
+
+    public ScheduleSegmentCache(StringRedisTemplate redisTemplate,
+            ObjectMapper objectMapper,
+            ScheduleRepository scheduleRepository,
+            RecurrenceExpander recurrenceExpander,
+            ScheduleCacheConfig cacheConfig) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.scheduleRepository = scheduleRepository;
+        this.recurrenceExpander = recurrenceExpander;
+        this.config = cacheConfig.getSegment();
+    }
+
+    /**
+     * 加载用户在各月份可见的日程（个人分段 + 所属群组分段合并）
+     *
+     * @param userId   用户ID
+     * @param groupIds 用户所属群组
+     * @param months   需要的月份，升序
+     * @return 月份 -> 该月至少发生一次的日程
+     */
+    public Map<YearMonth, List<Schedule>> load(String userId, Collection<String> groupIds, List<YearMonth> months) {
+        String personal = personalScope(userId);
+        List<String> scopes = new ArrayList<>();
+        scopes.add(personal);
+        groupIds.forEach(groupId -> scopes.add(groupScope(groupId)));
+
+        Map<String, String> generations = new HashMap<>();
+        Map<String, String> versions = new HashMap<>();
+        Map<String, Map<YearMonth, List<Schedule>>> segments = readSegments(scopes, months, generations, versions);
+
+        Map<String, Map<String, List<Schedule>>> toWrite = new HashMap<>();
+        loadMissingPersonal(userId, personal, months, segments, generations, toWrite);
+        loadMissingGroups(groupIds, months, segments, generations, toWrite);
+        writeSegments(toWrite, versions);
+
+        Map<YearMonth, List<Schedule>> merged = new LinkedHashMap<>();
+        for (YearMonth month : months) {
+            List<Schedule> schedules = new ArrayList<>();
+            for (String scope : scopes) {
+                schedules.addAll(segments.get(scope).getOrDefault(month, List.of()));
+            }
+            merged.put(month, schedules);
+        }
+        return merged;
+    }
+
+    /**
+     * 日程写入提交后删除受影响的分段（先递增作用域版本，使并发加载的回填失效）；重复系列变更时递增作用域代数
+     * 整批变更合并为一轮 Redis 请求
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        Set<String> bumpScopes = new HashSet<>();
+        Map<String, Set<YearMonth>> staleMonths = new HashMap<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            for (Schedule schedule : new Schedule[] { change.before(), change.after() }) {
+                if (schedule == null) {
+                    continue;
+                }
+                String scope = scopeOf(schedule);
+                if (RecurrenceExpander.isRecurring(schedule)) {
+                    bumpScopes.add(scope);
+                } else {
+                    staleMonths.computeIfAbsent(scope, k -> new HashSet<>())
+                            .add(YearMonth.from(schedule.getScheduleDate()));
+                }
+            }
+        }
+        bumpScopes.forEach(staleMonths::remove);
+
+        // 失效不受故障退避限制：跳过失效会让 Redis 恢复后继续返回脏分段
+        try {
+            List<String> scopes = new ArrayList<>(staleMonths.keySet());
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                bumpScopes.forEach(scope -> stringConnection.incr(GENERATION_KEY_PREFIX + scope));
+                scopes.forEach(scope -> stringConnection.incr(VERSION_KEY_PREFIX + scope));
+                return null;
+            });
+            if (!scopes.isEmpty()) {
+                Map<String, String> generations = readGenerations(scopes);
+                List<String> keys = new ArrayList<>();
+                staleMonths.forEach((scope, months) -> months
+                        .forEach(month -> keys.add(segmentKey(scope, generations.get(scope), month))));
+                redisTemplate.delete(keys);
+            }
+        } catch (DataAccessException e) {
+            log.warn("【ScheduleSegment】{} 条日程变更的分段失效失败，等待 TTL 过期: {}",
+                    event.getChanges().size(), e.getMessage());
+        }
+    }
+
+    /**
+     * 批量写入（导入）提交后递增作用域代数，所有月份分段一并失效
+     * 先于索引失效执行，避免索引按旧分段重新加载
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        if (!config.isEnabled()) {
+            return;
+        }
+        String scope = event.getGroupId() != null ? groupScope(event.getGroupId()) : personalScope(event.getUserId());
+        try {
+            redisTemplate.opsForValue().increment(GENERATION_KEY_PREFIX + scope);
+        } catch (DataAccessException e) {
+            log.warn("【ScheduleSegment】{} 分段失效失败，等待 TTL 过期: {}", scope, e.getMessage());
+        }
+    }
+
+    /**
+     * 批量读取各作用域的代数、版本与分段，未命中或 Redis 不可用时对应月份缺失
+     */
+    private Map<String, Map<YearMonth, List<Schedule>>> readSegments(List<String> scopes, List<YearMonth> months,
+            Map<String, String> generations, Map<String, String> versions) {
+        Map<String, Map<YearMonth, List<Schedule>>> segments = new HashMap<>();
+        scopes.forEach(scope -> segments.put(scope, new HashMap<>()));
+        if (!redisAvailable()) {
+            return segments;
+        }
+        try {
+            generations.putAll(readGenerations(scopes));
+            versions.putAll(readCounters(VERSION_KEY_PREFIX, scopes));
+            List<String> keys = new ArrayList<>(scopes.size() * months.size());
+            for (String scope : scopes) {
+                for (YearMonth month : months) {
+                    keys.add(segmentKey(scope, generations.get(scope), month));
+                }
+            }
+            List<String> values = redisTemplate.opsForValue().multiGet(keys);
+            int i = 0;
+            for (String scope : scopes) {
+                for (YearMonth month : months) {
+                    String json = values != null ? values.get(i) : null;
+                    i++;
+                    List<Schedule> schedules = json != null ? parse(json) : null;
+                    if (schedules != null) {
+                        segments.get(scope).put(month, schedules);
+                    }
+                }
+            }
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+            generations.clear();
+        }
+        return segments;
+    }
+
+    private Map<String, String> readGenerations(List<String> scopes) {
+        return readCounters(GENERATION_KEY_PREFIX, scopes);
+    }
+
+    private Map<String, String> readCounters(String prefix, List<String> scopes) {
+        List<String> keys = scopes.stream().map(scope -> prefix + scope).collect(Collectors.toList());
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        Map<String, String> generations = new HashMap<>();
+        for (int i = 0; i < scopes.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            generations.put(scopes.get(i), value != null ? value : "0");
+        }
+        return generations;
+    }
+
+    private void loadMissingPersonal(String userId, String scope, List<YearMonth> months,
+            Map<String, Map<YearMonth, List<Schedule>>> segments, Map<String, String> generations,
+            Map<String, Map<String, List<Schedule>>> toWrite) {
+        Map<YearMonth, List<Schedule>> cached = segments.get(scope);
+        List<YearMonth> missing = months.stream().filter(m -> !cached.containsKey(m)).collect(Collectors.toList());
+        if (missing.isEmpty()) {
+            return;
+        }
+        List<Schedule> schedules = scheduleRepository.findPersonalSchedulesAndSeriesByDateRange(
+                userId, missing.get(0).atDay(1), missing.get(missing.size() - 1).atEndOfMonth());
+        for (YearMonth month : missing) {
+            List<Schedule> segment = occurringIn(schedules, month);
+            cached.put(month, segment);
+            if (generations.containsKey(scope)) {
+                toWrite.computeIfAbsent(scope, k -> new HashMap<>())
+                        .put(segmentKey(scope, generations.get(scope), month), segment);
+            }
+        }
+    }
+
+    /**
+     * 所有缺失的 (群组, 月份) 合并为一次 IN 查询
+     */
+    private void loadMissingGroups(Collection<String> groupIds, List<YearMonth> months,
+            Map<String, Map<YearMonth, List<Schedule>>> segments, Map<String, String> generations,
+            Map<String, Map<String, List<Schedule>>> toWrite) {
+        Set<String> missingGroups = new HashSet<>();
+        YearMonth first = null;
+        YearMonth last = null;
+        for (String groupId : groupIds) {
+            Map<YearMonth, List<Schedule>> cached = segments.get(groupScope(groupId));
+            for (YearMonth month : months) {
+                if (!cached.containsKey(month)) {
+                    missingGroups.add(groupId);
+                    first = first == null || month.isBefore(first) ? month : first;
+                    last = last == null || month.isAfter(last) ? month : last;
+                }
+            }
+        }
+        if (missingGroups.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<Schedule>> byGroup = scheduleRepository.findGroupSchedulesAndSeriesByDateRange(
+                missingGroups, first.atDay(1), last.atEndOfMonth()).stream()
+                .collect(Collectors.groupingBy(Schedule::getGroupId));
+        for (String groupId : missingGroups) {
+            String scope = groupScope(groupId);
+            Map<YearMonth, List<Schedule>> cached = segments.get(scope);
+            List<Schedule> schedules = byGroup.getOrDefault(groupId, List.of());
+            for (YearMonth month : months) {
+                if (cached.containsKey(month)) {
+                    continue;
+                }
+                List<Schedule> segment = occurringIn(schedules, month);
+                cached.put(month, segment);
+                if (generations.containsKey(scope)) {
+                    toWrite.computeIfAbsent(scope, k -> new HashMap<>())
+                            .put(segmentKey(scope, generations.get(scope), month), segment);
+                }
+            }
+        }
+    }
+
+    private List<Schedule> occurringIn(List<Schedule> schedules, YearMonth month) {
+        LocalDate monthStart = month.atDay(1);
+        LocalDate monthEnd = month.atEndOfMonth();
+        return schedules.stream()
+                .filter(s -> !recurrenceExpander.occurrences(s, monthStart, monthEnd).isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 回填分段，单次管道写入，每个作用域执行一次版本校验脚本；
+     * 代数读取后被递增的分段会写到旧代数下，不会被读到；版本读取后有写入提交的作用域不回填
+     */
+    private void writeSegments(Map<String, Map<String, List<Schedule>>> toWrite, Map<String, String> versions) {
+        if (toWrite.isEmpty() || !redisAvailable()) {
+            return;
+        }
+        String ttlSeconds = String.valueOf(config.getTtl().toSeconds());
+        List<ScopeWrite> writes = new ArrayList<>();
+        toWrite.forEach((scope, segments) -> {
+            List<String> keys = new ArrayList<>();
+            List<String> payloads = new ArrayList<>();
+            keys.add(VERSION_KEY_PREFIX + scope);
+            segments.forEach((key, schedules) -> {
+                try {
+                    payloads.add(objectMapper.writeValueAsString(schedules));
+                    keys.add(key);
+                } catch (JsonProcessingException e) {
+                    log.warn("【ScheduleSegment】分段 {} 序列化失败: {}", key, e.getMessage());
+                }
+            });
+            List<String> keysAndArgs = new ArrayList<>(keys);
+            keysAndArgs.add(versions.getOrDefault(scope, "0"));
+            keysAndArgs.add(ttlSeconds);
+            keysAndArgs.addAll(payloads);
+            writes.add(new ScopeWrite(keys.size(), keysAndArgs.toArray(new String[0])));
+        });
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (ScopeWrite write : writes) {
+                    stringConnection.eval(WRITE_IF_VERSION_SCRIPT, ReturnType.INTEGER, write.numKeys(),
+                            write.keysAndArgs());
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            markRedisDown(e);
+        }
+    }
+
+    private List<Schedule> parse(String json) {
+        try {
+            return objectMapper.readValue(json, SCHEDULE_LIST);
+        } catch (JsonProcessingException e) {
+            log.warn("【ScheduleSegment】分段反序列化失败，按未命中处理: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private boolean redisAvailable() {
+        return config.isEnabled() && System.currentTimeMillis() >= redisRetryAt;
+    }
+
+    private void markRedisDown(DataAccessException e) {
+        redisRetryAt = System.currentTimeMillis() + config.getFailureBackoff().toMillis();
+        log.warn("【ScheduleSegment】Redis 访问失败，{} 秒内直接查询数据库: {}",
+                config.getFailureBackoff().toSeconds(), e.getMessage());
+    }
+
+    private static String scopeOf(Schedule schedule) {
+        return schedule.getGroupId() == null ? personalScope(schedule.getUserId()) : groupScope(schedule.getGroupId());
+    }
+
+    private static String personalScope(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String groupScope(String groupId) {
+        return "g:" + groupId;
+    }
+
+    private static String segmentKey(String scope, String generation, YearMonth month) {
+        return SEGMENT_KEY_PREFIX + scope + ":" + generation + ":" + month;
+    }
+
+    /**
+     * 单个作用域的回填脚本参数
+     */
+    private record ScopeWrite(int numKeys, String[] keysAndArgs) {
+    }
+}
@@ -1,26 +1,38 @@
 package com.example.speedcalendarserver.service;
 
+import com.example.speedcalendarserver.dto.BatchScheduleRequest;
+import com.example.speedcalendarserver.dto.BatchScheduleResponse;
+import com.example.speedcalendarserver.dto.BatchUpdateScheduleRequest;
 import com.example.speedcalendarserver.dto.CreateScheduleRequest;
 import com.example.speedcalendarserver.dto.ScheduleDTO;
 import com.example.speedcalendarserver.dto.UpdateScheduleRequest;
-import com.example.speedcalendarserver.entity.Group;
 import com.example.speedcalendarserver.entity.Schedule;
 import com.example.speedcalendarserver.entity.UserGroup;
-import com.example.speedcalendarserver.repository.GroupRepository;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
 import com.example.speedcalendarserver.repository.ScheduleRepository;
 import com.example.speedcalendarserver.repository.UserGroupRepository;
+import com.example.speedcalendarserver.util.IdGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -34,9 +46,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ScheduleService {
 
+    /**
+     * 单次批量操作的条目上限
+     */
+    public static final int MAX_BATCH_SIZE = 1000;
+
     private final ScheduleRepository scheduleRepository;
     private final UserGroupRepository userGroupRepository;
-    private final GroupRepository groupRepository;
+    private final ScheduleIndexService scheduleIndexService;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+    private final Validator validator;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * 按日期获取日程列表 (个人 + 所属群组)
@@ -44,12 +65,7 @@ public class ScheduleService {
      */
     public List<ScheduleDTO> getSchedulesByDate(String userId, String dateStr) {
         LocalDate date = LocalDate.parse(dateStr);
-        List<String> groupIds = getMemberGroupIds(userId);
-
-        List<Schedule> schedules = scheduleRepository.findSchedulesForUserAndGroupsByDateRange(
-                userId, groupIds, date, date);
-
-        return enrichScheduleDTOs(schedules);
+        return getSchedulesByRange(userId, date, date);
     }
 
     /**
@@ -81,37 +97,16 @@ public class ScheduleService {
         LocalDateTime startTimeLimit = now.minusHours(3);
         LocalDateTime endTimeLimit = now.plusHours(24);
 
-        // 获取日期跨度，可能跨2-3天
-        LocalDate startDate = startTimeLimit.toLocalDate();
-        LocalDate endDate = endTimeLimit.toLocalDate();
-
-        List<ScheduleDTO> allInRange = getSchedulesByRange(userId, startDate, endDate);
-
-        // 内存中根据精确时间过滤
-        return allInRange.stream()
-                .filter(dto -> {
-                    if (dto.getIsAllDay()) {
-                        // 全天日程，只要日期在范围内就包含
-                        return true;
-                    }
-                    if (dto.getStartDateTime() == null)
-                        return false;
-
-                    LocalDateTime scheduleStart = LocalDateTime.parse(
-                            dto.getStartDateTime().substring(0, 19)); // 简单截取处理
-                    return !scheduleStart.isBefore(startTimeLimit) && !scheduleStart.isAfter(endTimeLimit);
-                })
-                .collect(Collectors.toList());
+        // 由区间索引按开始时刻过滤，全天日程只要日期在范围内就包含
+        return enrichScheduleDTOs(scheduleIndexService.findNearby(userId, startTimeLimit, endTimeLimit));
     }
 
     /**
      * 按时间范围获取日程列表 (内部实现)
+     * 由用户区间索引应答，重复系列已展开为每次发生
      */
     private List<ScheduleDTO> getSchedulesByRange(String userId, LocalDate startDate, LocalDate endDate) {
-        List<String> groupIds = getMemberGroupIds(userId);
-        List<Schedule> schedules = scheduleRepository.findSchedulesForUserAndGroupsByDateRange(
-                userId, groupIds, startDate, endDate);
-        return enrichScheduleDTOs(schedules);
+        return enrichScheduleDTOs(scheduleIndexService.findByDateRange(userId, startDate, endDate));
     }
 
     /**
@@ -125,8 +120,19 @@ public class ScheduleService {
         }
 
         // 2. 构建实体
-        Schedule schedule = Schedule.builder()
-                .scheduleId(UUID.randomUUID().toString())
+        Schedule schedule = buildSchedule(userId, request);
+
+        Schedule saved = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(ScheduleChangedEvent.created(saved.toBuilder().build()));
+        return withConflicts(userId, saved);
+    }
+
+    /**
+     * 由创建请求构建日程实体（未保存）
+     */
+    private Schedule buildSchedule(String userId, CreateScheduleRequest request) {
+        return Schedule.builder()
+                .scheduleId(IdGenerator.nextId())
                 .userId(userId)
                 .groupId(request.getGroupId())
                 .title(request.getTitle())
@@ -145,9 +151,6 @@ public class ScheduleService {
                 .isAiGenerated(request.getIsAiGenerated() != null && request.getIsAiGenerated() ? 1 : 0)
                 .isDeleted(0)
                 .build();
-
-        Schedule saved = scheduleRepository.save(schedule);
-        return convertToDTO(saved);
     }
 
     /**
@@ -160,6 +163,7 @@ public class ScheduleService {
 
         // 1. 权限校验
         checkPermission(userId, schedule, "修改");
+        Schedule before = schedule.toBuilder().build();
 
         // 2. V1.2: 归属变更校验
         if (request.getGroupId() != null) {
@@ -171,6 +175,17 @@ public class ScheduleService {
         }
 
         // 3. 更新字段
+        applyUpdate(schedule, request);
+
+        Schedule updated = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(ScheduleChangedEvent.updated(before, updated.toBuilder().build()));
+        return withConflicts(userId, updated);
+    }
+
+    /**
+     * 将更新请求中非空的字段写入日程（不含归属群组）
+     */
+    private void applyUpdate(Schedule schedule, UpdateScheduleRequest request) {
         if (request.getTitle() != null)
             schedule.setTitle(request.getTitle());
         if (request.getScheduleDate() != null)
@@ -197,9 +212,6 @@ public class ScheduleService {
             schedule.setRepeatType(request.getRepeatType());
         if (request.getRepeatEndDate() != null)
             schedule.setRepeatEndDate(LocalDate.parse(request.getRepeatEndDate()));
-
-        Schedule updated = scheduleRepository.save(schedule);
-        return convertToDTO(updated);
     }
 
     /**
@@ -211,19 +223,205 @@ public class ScheduleService {
                 .orElseThrow(() -> new RuntimeException("日程不存在或已被删除"));
 
         checkPermission(userId, schedule, "删除");
+        Schedule before = schedule.toBuilder().build();
 
         schedule.setIsDeleted(1);
-        scheduleRepository.save(schedule);
+        Schedule deleted = scheduleRepository.save(schedule);
+        eventPublisher.publishEvent(ScheduleChangedEvent.deleted(before, deleted.toBuilder().build()));
+    }
+
+    /**
+     * 批量创建 / 更新 / 删除日程
+     *
+     * 逐条校验（参数、成员身份、权限），失败的条目记录原因后跳过；
+     * 通过校验的条目在同一事务内写入，插入与更新均走 JDBC 批处理。
+     * 用户在各群组中的角色只查询一次，待更新 / 删除的日程一次 IN 查询加载。
+     *
+     * @throws IllegalArgumentException 条目为空或超过上限
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BatchScheduleResponse batchSchedules(String userId, BatchScheduleRequest request) {
+        List<CreateScheduleRequest> creates = request.getCreates() != null ? request.getCreates() : List.of();
+        List<BatchUpdateScheduleRequest> updates = request.getUpdates() != null ? request.getUpdates() : List.of();
+        List<String> deletes = request.getDeletes() != null ? request.getDeletes() : List.of();
+        int total = creates.size() + updates.size() + deletes.size();
+        if (total == 0) {
+            throw new IllegalArgumentException("批量操作不能为空");
+        }
+        if (total > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("单次批量操作最多 " + MAX_BATCH_SIZE + " 条");
+        }
+
+        // groupId -> 角色
+        Map<String, String> roles = userGroupRepository.findByUserIdOrderByJoinedAtDesc(userId).stream()
+                .collect(Collectors.toMap(UserGroup::getGroupId, ug -> ug.getRole() != null ? ug.getRole() : "member"));
+
+        List<BatchScheduleResponse.ItemResult> results = new ArrayList<>(total);
+        List<Schedule> inserts = new ArrayList<>();
+        // 变更前快照（创建为 null）与被修改实体，按操作顺序一一对应
+        List<Schedule> befores = new ArrayList<>();
+        List<Schedule> changed = new ArrayList<>();
+
+        // 1. 创建
+        for (int i = 0; i < creates.size(); i++) {
+            CreateScheduleRequest item = creates.get(i);
+            String error = validateItem(item);
+            if (error == null) {
+                if (item.getGroupId() != null && item.getGroupId().isBlank()) {
+                    item.setGroupId(null);
+                }
+                if (item.getScheduleDate() == null) {
+                    error = "日程日期不能为空";
+                } else if (item.getGroupId() != null && !roles.containsKey(item.getGroupId())) {
+                    error = "您不是该群组成员，无法操作此群组日程";
+                } else {
+                    error = checkFormats(item.getScheduleDate(), item.getStartTime(), item.getEndTime(),
+                            item.getRepeatEndDate());
+                }
+            }
+            if (error != null) {
+                results.add(itemResult("create", i, null, error));
+                continue;
+            }
+            Schedule schedule = buildSchedule(userId, item);
+            inserts.add(schedule);
+            befores.add(null);
+            changed.add(schedule);
+            results.add(itemResult("create", i, schedule.getScheduleId(), null));
+        }
+
+        // 2. 一次加载所有待更新 / 删除的日程
+        Set<String> targetIds = new HashSet<>(deletes);
+        updates.stream().filter(java.util.Objects::nonNull).forEach(u -> targetIds.add(u.getScheduleId()));
+        targetIds.remove(null);
+        Map<String, Schedule> targets = scheduleRepository.findAllById(targetIds).stream()
+                .filter(s -> s.getIsDeleted() == 0)
+                .collect(Collectors.toMap(Schedule::getScheduleId, s -> s));
+
+        // 3. 更新
+        for (int i = 0; i < updates.size(); i++) {
+            BatchUpdateScheduleRequest item = updates.get(i);
+            String error = validateItem(item);
+            Schedule schedule = error == null ? targets.get(item.getScheduleId()) : null;
+            String newGroupId = null;
+            if (error == null && (schedule == null || schedule.getIsDeleted() == 1)) {
+                error = "日程不存在或已被删除";
+            } else if (error == null && !canModify(userId, schedule, roles)) {
+                error = "权限不足，无法修改此日程";
+            } else if (error == null) {
+                newGroupId = item.getGroupId() == null || item.getGroupId().isBlank() ? null : item.getGroupId();
+                if (newGroupId != null && !roles.containsKey(newGroupId)) {
+                    error = "您不是该群组成员，无法操作此群组日程";
+                } else {
+                    error = checkFormats(item.getScheduleDate(), item.getStartTime(), item.getEndTime(),
+                            item.getRepeatEndDate());
+                }
+            }
+            if (error != null) {
+                results.add(itemResult("update", i, item != null ? item.getScheduleId() : null, error));
+                continue;
+            }
+            befores.add(schedule.toBuilder().build());
+            if (item.getGroupId() != null) {
+                schedule.setGroupId(newGroupId);
+            }
+            applyUpdate(schedule, item);
+            changed.add(schedule);
+            results.add(itemResult("update", i, schedule.getScheduleId(), null));
+        }
+
+        // 4. 删除 (逻辑删除)
+        for (int i = 0; i < deletes.size(); i++) {
+            String scheduleId = deletes.get(i);
+            Schedule schedule = scheduleId != null ? targets.get(scheduleId) : null;
+            String error = null;
+            if (schedule == null || schedule.getIsDeleted() == 1) {
+                error = "日程不存在或已被删除";
+            } else if (!canModify(userId, schedule, roles)) {
+                error = "权限不足，无法删除此日程";
+            }
+            if (error != null) {
+                results.add(itemResult("delete", i, scheduleId, error));
+                continue;
+            }
+            befores.add(schedule.toBuilder().build());
+            schedule.setIsDeleted(1);
+            changed.add(schedule);
+            results.add(itemResult("delete", i, scheduleId, null));
+        }
+
+        // 5. 批量写入：新实体 persist，已加载实体由脏检查生成 UPDATE，flush 时按批发送
+        scheduleRepository.saveAll(inserts);
+        scheduleRepository.flush();
+
+        // 整批只发布一个事件，监听方一次处理全部变更
+        if (!changed.isEmpty()) {
+            List<ScheduleChangedEvent.Change> changes = new ArrayList<>(changed.size());
+            for (int i = 0; i < changed.size(); i++) {
+                changes.add(new ScheduleChangedEvent.Change(befores.get(i), changed.get(i).toBuilder().build()));
+            }
+            eventPublisher.publishEvent(new ScheduleChangedEvent(changes));
+        }
+
+        int successCount = changed.size();
+        log.info("【批量日程】userId: {}, 成功: {}, 失败: {}", userId, successCount, total - successCount);
+        return BatchScheduleResponse.builder()
+                .results(results)
+                .successCount(successCount)
+                .failureCount(total - successCount)
+                .build();
+    }
+
+    /**
+     * 导入一批日程（仅创建），供 ICS 导入按块调用
+     *
+     * 与批量创建使用相同的逐条校验；整块在一个事务内 JDBC 批量插入。
+     * 为避免逐条事件造成大量缓存失效请求，提交后只发布一个 {@link ScheduleBulkChangedEvent}。
+     *
+     * @param groupId 导入到的群组，个人日程为 null（调用方已校验成员身份）
+     * @param offset  本块第一条在文件中的序号，用于结果定位
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public BatchScheduleResponse importSchedules(String userId, String groupId, List<CreateScheduleRequest> items,
+            int offset) {
+        List<BatchScheduleResponse.ItemResult> failures = new ArrayList<>();
+        List<Schedule> inserts = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            CreateScheduleRequest item = items.get(i);
+            String error = validateItem(item);
+            if (error == null) {
+                item.setGroupId(groupId);
+                error = checkFormats(item.getScheduleDate(), item.getStartTime(), item.getEndTime(),
+                        item.getRepeatEndDate());
+            }
+            if (error != null) {
+                failures.add(itemResult("import", offset + i, null, error));
+                continue;
+            }
+            inserts.add(buildSchedule(userId, item));
+        }
+
+        scheduleRepository.saveAll(inserts);
+        scheduleRepository.flush();
+        if (!inserts.isEmpty()) {
+            List<Schedule> snapshots = inserts.stream().map(s -> s.toBuilder().build()).toList();
+            eventPublisher.publishEvent(groupId != null
+                    ? ScheduleBulkChangedEvent.ofGroup(groupId, snapshots)
+                    : ScheduleBulkChangedEvent.ofUser(userId, snapshots));
+        }
+
+        return BatchScheduleResponse.builder()
+                .results(failures)
+                .successCount(inserts.size())
+                .failureCount(failures.size())
+                .build();
     }
 
     /**
      * 获取用户所属的所有群组ID
      */
     public List<String> getMemberGroupIds(String userId) {
-        return userGroupRepository.findByUserIdOrderByJoinedAtDesc(userId)
-                .stream()
-                .map(UserGroup::getGroupId)
-                .collect(Collectors.toList());
+        return membershipCache.getGroupIds(userId);
     }
 
     /**
@@ -232,12 +430,8 @@ public class ScheduleService {
      * @param userId 用户ID
      * @return 群组列表
      */
-    public List<Group> getMemberGroups(String userId) {
-        List<String> groupIds = getMemberGroupIds(userId);
-        if (groupIds.isEmpty()) {
-            return List.of();
-        }
-        return groupRepository.findAllById(groupIds);
+    public List<GroupMetadataCache.GroupMeta> getMemberGroups(String userId) {
+        return List.copyOf(groupMetadataCache.getAll(getMemberGroupIds(userId)).values());
     }
 
     /**
@@ -258,24 +452,23 @@ public class ScheduleService {
         }
 
         // 1. 优先按 ID 尝试匹配
-        UserGroup directRelation = userGroupRepository.findByUserIdAndGroupId(userId, groupIdOrName);
-        if (directRelation != null) {
+        if (membershipCache.isMember(userId, groupIdOrName)) {
             return groupIdOrName;
         }
 
         // 2. 获取用户所有群组，按名称匹配
-        List<Group> memberGroups = getMemberGroups(userId);
+        List<GroupMetadataCache.GroupMeta> memberGroups = getMemberGroups(userId);
         if (memberGroups.isEmpty()) {
             return null;
         }
 
         // 按名称精确匹配
-        List<Group> exactMatches = memberGroups.stream()
-                .filter(g -> g.getName().equals(groupIdOrName))
+        List<GroupMetadataCache.GroupMeta> exactMatches = memberGroups.stream()
+                .filter(g -> g.name().equals(groupIdOrName))
                 .collect(Collectors.toList());
 
         if (exactMatches.size() == 1) {
-            return exactMatches.get(0).getId();
+            return exactMatches.get(0).id();
         }
 
         if (exactMatches.size() > 1) {
@@ -284,18 +477,18 @@ public class ScheduleService {
         }
 
         // 3. 按名称子串匹配（包含关系）
-        List<Group> containsMatches = memberGroups.stream()
-                .filter(g -> g.getName().contains(groupIdOrName) || groupIdOrName.contains(g.getName()))
+        List<GroupMetadataCache.GroupMeta> containsMatches = memberGroups.stream()
+                .filter(g -> g.name().contains(groupIdOrName) || groupIdOrName.contains(g.name()))
                 .collect(Collectors.toList());
 
         if (containsMatches.size() == 1) {
-            return containsMatches.get(0).getId();
+            return containsMatches.get(0).id();
         }
 
         if (containsMatches.size() > 1) {
             // 多个匹配，返回第一个（或者可以抛出异常让用户明确）
             log.warn("【ScheduleService】群组名称「{}」匹配到多个群组，使用第一个匹配", groupIdOrName);
-            return containsMatches.get(0).getId();
+            return containsMatches.get(0).id();
         }
 
         return null;
@@ -311,6 +504,59 @@ public class ScheduleService {
         }
     }
 
+    /**
+     * 批量操作的权限判断，与 checkPermission 规则一致，角色来自预先加载的 groupId -> role
+     */
+    private boolean canModify(String userId, Schedule schedule, Map<String, String> roles) {
+        if (schedule.getUserId().equals(userId)) {
+            return true;
+        }
+        String role = schedule.getGroupId() != null ? roles.get(schedule.getGroupId()) : null;
+        return "owner".equals(role) || "admin".equals(role);
+    }
+
+    /**
+     * 批量条目的 Bean Validation 校验，返回第一条错误信息
+     */
+    private String validateItem(Object item) {
+        if (item == null) {
+            return "请求条目为空";
+        }
+        return validator.validate(item).stream()
+                .map(ConstraintViolation::getMessage)
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * 校验日期 / 时间字段格式，返回错误信息；写入实体前调用，避免半途解析失败留下部分修改
+     */
+    private String checkFormats(String date, String startTime, String endTime, String repeatEndDate) {
+        try {
+            if (date != null)
+                LocalDate.parse(date);
+            if (startTime != null)
+                LocalTime.parse(startTime);
+            if (endTime != null)
+                LocalTime.parse(endTime);
+            if (repeatEndDate != null)
+                LocalDate.parse(repeatEndDate);
+            return null;
+        } catch (DateTimeParseException e) {
+            return "日期或时间格式错误: " + e.getParsedString();
+        }
+    }
+
+    private BatchScheduleResponse.ItemResult itemResult(String op, int index, String scheduleId, String error) {
+        return BatchScheduleResponse.ItemResult.builder()
+                .op(op)
+                .index(index)
+                .scheduleId(scheduleId)
+                .success(error == null)
+                .message(error)
+                .build();
+    }
+
     /**
      * 权限校验逻辑 (符合 V2.2 规约)
      */
@@ -331,34 +577,79 @@ public class ScheduleService {
      * 批量填充来源名称 (符合 V1.2 规约)
      * 使用 Map 批量缓存群组名称，避免在循环中频繁查库 (类似 JOIN 效果)
      */
-    private List<ScheduleDTO> enrichScheduleDTOs(List<Schedule> schedules) {
+    private List<ScheduleDTO> enrichScheduleDTOs(List<RecurrenceExpander.Occurrence> occurrences) {
         // 提取所有不为空的 groupId
-        List<String> groupIds = schedules.stream()
-                .map(Schedule::getGroupId)
+        List<String> groupIds = occurrences.stream()
+                .map(o -> o.schedule().getGroupId())
                 .filter(java.util.Objects::nonNull)
                 .distinct()
                 .collect(Collectors.toList());
 
-        // 批量查询群组名称映射
-        Map<String, String> groupNameMap = groupRepository.findAllById(groupIds).stream()
-                .collect(Collectors.toMap(Group::getId, Group::getName));
+        // 批量获取群组元数据，未命中部分一次查询
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(groupIds);
 
-        return schedules.stream()
-                .map(s -> {
-                    ScheduleDTO dto = convertToDTO(s);
+        return occurrences.stream()
+                .map(o -> {
+                    Schedule s = o.schedule();
+                    ScheduleDTO dto = ScheduleDTO.fromEntity(s, o.date());
                     if (s.getGroupId() != null) {
-                        dto.setGroupName(groupNameMap.getOrDefault(s.getGroupId(), "未知群组"));
+                        GroupMetadataCache.GroupMeta group = groups.get(s.getGroupId());
+                        dto.setGroupName(group != null ? group.name() : "未知群组");
                     }
                     return dto;
                 })
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 转换为 DTO 并附上与首次发生时间重叠的日程（个人 + 所属群组，全天日程不参与）
+     * 由用户区间索引应答；检测失败只记录日志，不影响写入
+     *
+     * <p>
+     * 检测在事务提交后进行（先于调用方拿到返回值）：索引与分段缓存加载时若读到本事务未提交的日程，
+     * 会把它写入内存索引与共享的 Redis 分段，事务回滚后仍然残留。
+     */
+    private ScheduleDTO withConflicts(String userId, Schedule s) {
+        ScheduleDTO dto = convertToDTO(s);
+        if (ScheduleIndexService.isAllDay(s)) {
+            return dto;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            attachConflicts(userId, s, dto);
+            return dto;
+        }
+        Schedule snapshot = s.toBuilder().build();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                // 在本事务的 AFTER_COMMIT 事件监听之后执行，索引已反映本次写入
+                attachConflicts(userId, snapshot, dto);
+            }
+        });
+        return dto;
+    }
+
+    private void attachConflicts(String userId, Schedule s, ScheduleDTO dto) {
+        try {
+            List<RecurrenceExpander.Occurrence> overlaps = scheduleIndexService.findOverlapping(
+                    userId, s.getScheduleDate(), s.getStartTime(), s.getEndTime(), s.getScheduleId());
+            if (!overlaps.isEmpty()) {
+                dto.setConflicts(enrichScheduleDTOs(overlaps));
+            }
+        } catch (RuntimeException e) {
+            log.warn("【日程冲突】检测失败, scheduleId: {}, 原因: {}", s.getScheduleId(), e.getMessage());
+        }
+    }
+
     private ScheduleDTO convertToDTO(Schedule s) {
-        ScheduleDTO dto = ScheduleDTO.fromEntity(s);
+        return convertToDTO(s, s.getScheduleDate());
+    }
+
+    private ScheduleDTO convertToDTO(Schedule s, LocalDate occurrenceDate) {
+        ScheduleDTO dto = ScheduleDTO.fromEntity(s, occurrenceDate);
         // 单个转换时也填充名称
         if (s.getGroupId() != null) {
-            groupRepository.findById(s.getGroupId()).ifPresent(g -> dto.setGroupName(g.getName()));
+            groupMetadataCache.get(s.getGroupId()).ifPresent(g -> dto.setGroupName(g.name()));
         }
         return dto;
     }
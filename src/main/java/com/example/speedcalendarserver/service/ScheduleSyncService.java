@@ -0,0 +1,268 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.ScheduleChangesResponse;
+import com.example.speedcalendarserver.dto.ScheduleDTO;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.entity.ScheduleScopeMove;
+import com.example.speedcalendarserver.entity.UserGroup;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.repository.ScheduleScopeMoveRepository;
+import com.example.speedcalendarserver.repository.UserGroupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 日程增量同步服务
+ *
+ * <p>
+ * 游标为最后一条变更的 (updatedAt, scheduleId)，按该二元组做 keyset 分页：
+ * 个人与群组日程各自走 (user_id, updated_at) / (group_id, updated_at) 索引取前 limit+1 条，内存归并后截取。
+ *
+ * <p>
+ * 实体回调写入的 updatedAt 早于事务提交，慢事务提交后其变更可能落在已发出的游标之前而被漏掉。
+ * 因此日程写入在提交前（BEFORE_COMMIT）把本事务涉及的日程 updated_at 统一改为当前时间，
+ * 其与真正提交之间只剩提交本身的耗时；查询只返回 SETTLE_LAG 之前的变更以覆盖这段间隔。
+ *
+ * <p>
+ * 增量查询按日程当前归属筛选，日程在个人/群组之间迁移后原作用域的成员看不到它，
+ * 因此迁移同时写入 schedule_scope_moves，对日程当前已不可见的用户按迁移时间返回删除墓碑。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleSyncService {
+
+    public static final int DEFAULT_LIMIT = 200;
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * 只同步早于 当前时间 - SETTLE_LAG 的变更，须大于提交前改写 updated_at 到事务真正提交的间隔
+     */
+    private static final Duration SETTLE_LAG = Duration.ofSeconds(5);
+
+    /**
+     * 首次同步的起点（早于任何数据）
+     */
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * 用户不属于任何群组时代替空的 groupIds，避免生成 IN ()
+     */
+    private static final List<String> NO_GROUPS = List.of("");
+
+    private static final Comparator<Schedule> CHANGE_ORDER = Comparator
+            .comparing(Schedule::getUpdatedAt)
+            .thenComparing(Schedule::getScheduleId);
+
+    private final ScheduleRepository scheduleRepository;
+    private final ScheduleScopeMoveRepository scopeMoveRepository;
+    private final UserGroupRepository userGroupRepository;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+
+    /**
+     * 拉取游标之后的日程变更
+     *
+     * @param userId 用户ID
+     * @param since  上次返回的 nextCursor，首次同步为空（此时不返回删除墓碑）
+     * @param limit  单页条数
+     * @throws IllegalArgumentException 游标无效
+     */
+    public ScheduleChangesResponse getChanges(String userId, String since, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        boolean initial = since == null || since.isBlank();
+        Cursor cursor = initial ? new Cursor(ORIGIN, "", ORIGIN) : Cursor.decode(since);
+        List<String> groupIds = membershipCache.getGroupIds(userId);
+
+        if (!initial && joinedGroupAfter(userId, cursor.issuedAt())) {
+            return ScheduleChangesResponse.builder()
+                    .changes(List.of())
+                    .nextCursor(since)
+                    .hasMore(false)
+                    .fullResync(true)
+                    .groupIds(groupIds)
+                    .build();
+        }
+
+        LocalDateTime until = LocalDateTime.now().minus(SETTLE_LAG).truncatedTo(ChronoUnit.SECONDS);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<Schedule> merged = new ArrayList<>(scheduleRepository.findPersonalChangesAfter(
+                userId, cursor.updatedAt(), cursor.scheduleId(), until, page));
+        if (!groupIds.isEmpty()) {
+            merged.addAll(scheduleRepository.findGroupChangesAfter(
+                    groupIds, cursor.updatedAt(), cursor.scheduleId(), until, page));
+        }
+        List<String> visibleGroups = groupIds.isEmpty() ? NO_GROUPS : groupIds;
+        if (!initial) {
+            // 首次同步不返回墓碑，迁移记录只在增量同步时查询
+            List<ScheduleScopeMove> moves = new ArrayList<>(scopeMoveRepository.findPersonalMovesAfter(
+                    userId, visibleGroups, cursor.updatedAt(), cursor.scheduleId(), until, page));
+            if (!groupIds.isEmpty()) {
+                moves.addAll(scopeMoveRepository.findGroupMovesAfter(
+                        userId, visibleGroups, cursor.updatedAt(), cursor.scheduleId(), until, page));
+            }
+            moves.forEach(m -> merged.add(tombstone(m)));
+        }
+        merged.sort(CHANGE_ORDER);
+        dedupe(merged);
+
+        boolean hasMore = merged.size() > pageSize;
+        List<Schedule> changes = hasMore ? merged.subList(0, pageSize) : merged;
+
+        Cursor next = cursor;
+        if (!changes.isEmpty()) {
+            Schedule last = changes.get(changes.size() - 1);
+            next = new Cursor(last.getUpdatedAt(), last.getScheduleId(), until);
+        }
+        if (!hasMore && next.updatedAt().isBefore(until)) {
+            // 已追平 until，下次从 until 开始，避免空同步反复扫描沉降窗口之前的数据
+            next = new Cursor(until, "", until);
+        }
+
+        log.info("【日程增量同步】userId: {}, 变更: {}, hasMore: {}", userId, changes.size(), hasMore);
+        return ScheduleChangesResponse.builder()
+                .changes(toDTOs(changes, initial))
+                .nextCursor(next.encode())
+                .hasMore(hasMore)
+                .fullResync(false)
+                .groupIds(groupIds)
+                .build();
+    }
+
+    /**
+     * 提交前把本事务写入的日程 updated_at 改为同一时间点，并记录归属迁移
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        LocalDateTime at = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        Set<String> ids = new LinkedHashSet<>();
+        List<ScheduleScopeMove> moves = new ArrayList<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            ids.add(change.scheduleId());
+            Schedule before = change.before();
+            Schedule after = change.after();
+            if (before != null && after != null && before.getIsDeleted() == 0
+                    && !Objects.equals(before.getGroupId(), after.getGroupId())) {
+                moves.add(ScheduleScopeMove.builder()
+                        .scheduleId(before.getScheduleId())
+                        .userId(before.getUserId())
+                        .groupId(before.getGroupId())
+                        .movedAt(at)
+                        .build());
+            }
+        }
+        scheduleRepository.stampUpdatedAt(ids, at);
+        if (!moves.isEmpty()) {
+            scopeMoveRepository.saveAll(moves);
+            log.info("【日程增量同步】记录 {} 条归属迁移", moves.size());
+        }
+    }
+
+    /**
+     * 导入提交前把插入的日程 updated_at 改为同一时间点
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        LocalDateTime at = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        scheduleRepository.stampUpdatedAt(event.getInserted().stream().map(Schedule::getScheduleId).toList(), at);
+    }
+
+    /**
+     * 迁移记录转为迁移前归属下的删除墓碑
+     */
+    private static Schedule tombstone(ScheduleScopeMove move) {
+        return Schedule.builder()
+                .scheduleId(move.getScheduleId())
+                .userId(move.getUserId())
+                .groupId(move.getGroupId())
+                .updatedAt(move.getMovedAt())
+                .isDeleted(1)
+                .build();
+    }
+
+    /**
+     * 去掉排序后 (updatedAt, scheduleId) 相同的重复项（同一秒内多次迁移）
+     */
+    private static void dedupe(List<Schedule> sorted) {
+        for (int i = sorted.size() - 1; i > 0; i--) {
+            if (CHANGE_ORDER.compare(sorted.get(i), sorted.get(i - 1)) == 0) {
+                sorted.remove(i);
+            }
+        }
+    }
+
+    private boolean joinedGroupAfter(String userId, LocalDateTime time) {
+        // 按加入时间降序，第一条即最近加入
+        List<UserGroup> memberships = userGroupRepository.findByUserIdOrderByJoinedAtDesc(userId);
+        return !memberships.isEmpty() && memberships.get(0).getJoinedAt().isAfter(time);
+    }
+
+    private List<ScheduleDTO> toDTOs(List<Schedule> changes, boolean initial) {
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(changes.stream()
+                .map(Schedule::getGroupId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+
+        return changes.stream()
+                // 首次同步客户端本地为空，无需墓碑
+                .filter(s -> !initial || s.getIsDeleted() == 0)
+                .map(s -> {
+                    ScheduleDTO dto = ScheduleDTO.fromEntity(s);
+                    if (s.getGroupId() != null) {
+                        GroupMetadataCache.GroupMeta group = groups.get(s.getGroupId());
+                        dto.setGroupName(group != null ? group.name() : "未知群组");
+                    }
+                    return dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 同步游标：Base64URL("updatedAt|issuedAt|scheduleId")，对客户端不透明
+     *
+     * @param updatedAt  已同步到的最后一条变更的更新时间
+     * @param scheduleId 已同步到的最后一条变更的ID
+     * @param issuedAt   签发时的 until，此后加入的群组需要全量同步
+     */
+    private record Cursor(LocalDateTime updatedAt, String scheduleId, LocalDateTime issuedAt) {
+
+        String encode() {
+            String raw = updatedAt + "|" + issuedAt + "|" + scheduleId;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", 3);
+                return new Cursor(LocalDateTime.parse(parts[0]), parts[2], LocalDateTime.parse(parts[1]));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("无效的同步游标");
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.dto.ReminderDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * 通过 SSE 长连接投递提醒
+ *
+ * <p>
+ * 客户端订阅 GET /reminders/stream 后保持连接，提醒以 event: reminder 推送。
+ * 没有在线连接的用户目前只记录日志，接入移动推送后在此补发。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class SseReminderNotifier implements ReminderNotifier {
+
+    /**
+     * 连接超时，客户端超时后应自动重连
+     */
+    private static final long EMITTER_TIMEOUT_MS = 30 * 60 * 1000L;
+
+    /**
+     * userId -> 在线连接（同一用户可有多个设备）
+     */
+    private final Map<String, Set<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    /**
+     * 建立提醒订阅连接
+     */
+    public SseEmitter subscribe(String userId) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT_MS);
+        emitters.computeIfAbsent(userId, k -> new CopyOnWriteArraySet<>()).add(emitter);
+        Runnable remove = () -> emitters.computeIfPresent(userId, (k, set) -> {
+            set.remove(emitter);
+            return set.isEmpty() ? null : set;
+        });
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    @Override
+    public void notify(Map<String, List<ReminderDTO>> remindersByUser) {
+        int offline = 0;
+        for (Map.Entry<String, List<ReminderDTO>> entry : remindersByUser.entrySet()) {
+            Set<SseEmitter> userEmitters = emitters.get(entry.getKey());
+            if (userEmitters == null || userEmitters.isEmpty()) {
+                offline++;
+                continue;
+            }
+            for (SseEmitter emitter : userEmitters) {
+                try {
+                    emitter.send(SseEmitter.event().name("reminder").data(entry.getValue(), MediaType.APPLICATION_JSON));
+                } catch (IOException | IllegalStateException e) {
+                    // 连接已断开，由回调移除
+                    log.debug("【提醒推送】userId: {} 连接已断开: {}", entry.getKey(), e.getMessage());
+                    emitter.completeWithError(e);
+                }
+            }
+        }
+        if (offline > 0) {
+            log.debug("【提醒推送】{} 个用户无在线连接，待接入移动推送", offline);
+        }
+    }
+}
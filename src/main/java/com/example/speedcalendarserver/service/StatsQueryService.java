@@ -0,0 +1,330 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleDailyStatRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * 任意范围的日程统计查询
+ *
+ * <p>
+ * 按白名单中的维度和度量拼出 GROUP BY 语句在 MySQL 中聚合；个人与群组部分沿用
+ * {@code ScheduleRepository} 的拆分方式，各自走 idx_user_date / idx_group_date_deleted 后 UNION ALL。
+ * 结果按 (用户, 查询, 各作用域数据版本) 缓存，日程写入提交后递增对应作用域的版本，旧结果自然失效。
+ *
+ * <p>
+ * 与 {@link StatsService} 一致，重复日程只在其起始日期计一次。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class StatsQueryService {
+
+    /**
+     * 单次查询允许的最大跨度
+     */
+    public static final int MAX_RANGE_DAYS = 366 * 5;
+
+    public static final int MAX_DIMENSIONS = 3;
+
+    /**
+     * 分组维度；sql 为对内层 UNION 结果列的表达式
+     */
+    public enum Dimension {
+        CATEGORY("category", "category"),
+        WEEKDAY("weekday", "WEEKDAY(schedule_date) + 1"),
+        HOUR("hour", "HOUR(start_time)"),
+        MONTH("month", "DATE_FORMAT(schedule_date, '%Y-%m')"),
+        GROUP("groupId", "group_id"),
+        IS_AI_GENERATED("isAiGenerated", "is_ai_generated");
+
+        private final String key;
+        private final String sql;
+
+        Dimension(String key, String sql) {
+            this.key = key;
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * 度量
+     */
+    public enum Measure {
+        COUNT("count", "COUNT(*)"),
+        MINUTES("minutes", "SUM(duration_minutes)");
+
+        private final String key;
+        private final String sql;
+
+        Measure(String key, String sql) {
+            this.key = key;
+            this.sql = sql;
+        }
+    }
+
+    private static final String COLUMNS = "schedule_date, start_time, group_id, is_ai_generated, " +
+            "COALESCE(category, '其他') AS category, " +
+            ScheduleDailyStatRepository.DURATION_SQL + " AS duration_minutes ";
+
+    private final EntityManager entityManager;
+    private final MembershipCache membershipCache;
+    private final GroupMetadataCache groupMetadataCache;
+
+    private final Cache<QueryKey, List<Map<String, Object>>> results;
+
+    /**
+     * 作用域 -> 版本号，取自全局递增计数器，作用域之间、前后两次都不会复用同一个值
+     * 按访问过期并限制条数；条目缺失（从未出现或已被淘汰）时分配一个新版本，该作用域的旧结果随之失效
+     */
+    private final Cache<String, Long> scopeVersions;
+    private final AtomicLong versionCounter = new AtomicLong();
+
+    public StatsQueryService(EntityManager entityManager,
+            MembershipCache membershipCache,
+            GroupMetadataCache groupMetadataCache,
+            ScheduleCacheConfig cacheConfig) {
+        this.entityManager = entityManager;
+        this.membershipCache = membershipCache;
+        this.groupMetadataCache = groupMetadataCache;
+        ScheduleCacheConfig.StatsQueryConfig config = cacheConfig.getStatsQuery();
+        this.results = Caffeine.newBuilder()
+                .maximumSize(config.getMaxEntries())
+                .expireAfterWrite(config.getTtl())
+                .build();
+        this.scopeVersions = Caffeine.newBuilder()
+                .maximumSize(config.getMaxScopes())
+                .expireAfterAccess(config.getScopeIdleTtl())
+                .build();
+    }
+
+    /**
+     * 统计个人及所属群组日程
+     *
+     * @param groupBy  分组维度名（category / weekday / hour / month / group / isAiGenerated），可为空
+     * @param measures 度量名（count / minutes），为空时只统计 count
+     * @return 每个维度组合一行，包含各维度值与度量值，按维度升序
+     * @throws IllegalArgumentException 范围或维度、度量无效
+     */
+    public List<Map<String, Object>> query(String userId, LocalDate startDate, LocalDate endDate,
+            Collection<String> groupBy, Collection<String> measures) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("开始日期不能晚于结束日期");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("统计范围不能超过 " + MAX_RANGE_DAYS + " 天");
+        }
+        List<Dimension> dimensions = parseDimensions(groupBy);
+        List<Measure> measureList = parseMeasures(measures);
+
+        // 版本在查询之前读取：查询期间提交的写入会递增版本，使本次结果不再被命中
+        List<String> groupIds = List.copyOf(membershipCache.getGroupIds(userId));
+        List<Long> versions = new ArrayList<>(groupIds.size() + 1);
+        versions.add(versionOf(personalScope(userId)));
+        groupIds.forEach(groupId -> versions.add(versionOf(groupScope(groupId))));
+        QueryKey key = new QueryKey(userId, startDate, endDate, dimensions, measureList, groupIds, versions);
+
+        long startMs = System.currentTimeMillis();
+        List<Map<String, Object>> rows = results.get(key, this::execute);
+        log.debug("【统计查询】userId: {}, 维度: {}, 行数: {}, 耗时: {}ms",
+                userId, dimensions, rows.size(), System.currentTimeMillis() - startMs);
+        return rows;
+    }
+
+    /**
+     * 日程写入提交后递增前后所在作用域的版本（每个作用域一次）
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Set<String> scopes = new HashSet<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            if (change.before() != null) {
+                scopes.add(scopeOf(change.before()));
+            }
+            if (change.after() != null) {
+                scopes.add(scopeOf(change.after()));
+            }
+        }
+        scopes.forEach(this::bump);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        bump(event.getGroupId() != null ? groupScope(event.getGroupId()) : personalScope(event.getUserId()));
+    }
+
+    private List<Map<String, Object>> execute(QueryKey key) {
+        String union = "SELECT " + COLUMNS + "FROM schedules " +
+                "WHERE user_id = :userId AND schedule_date BETWEEN :startDate AND :endDate " +
+                "AND group_id IS NULL AND is_deleted = 0";
+        if (!key.groupIds().isEmpty()) {
+            union += " UNION ALL SELECT " + COLUMNS + "FROM schedules " +
+                    "WHERE group_id IN (:groupIds) AND schedule_date BETWEEN :startDate AND :endDate " +
+                    "AND is_deleted = 0";
+        }
+
+        List<String> select = new ArrayList<>();
+        key.dimensions().forEach(d -> select.add(d.sql));
+        key.measures().forEach(m -> select.add(m.sql));
+        StringBuilder sql = new StringBuilder("SELECT ")
+                .append(String.join(", ", select))
+                .append(" FROM (").append(union).append(") t");
+        if (!key.dimensions().isEmpty()) {
+            String ordinals = ordinals(key.dimensions().size());
+            sql.append(" GROUP BY ").append(ordinals).append(" ORDER BY ").append(ordinals);
+        }
+
+        Query query = entityManager.createNativeQuery(sql.toString())
+                .setParameter("userId", key.userId())
+                .setParameter("startDate", key.startDate())
+                .setParameter("endDate", key.endDate());
+        if (!key.groupIds().isEmpty()) {
+            query.setParameter("groupIds", key.groupIds());
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Object result : query.getResultList()) {
+            Object[] values = result instanceof Object[] array ? array : new Object[] { result };
+            Map<String, Object> row = new LinkedHashMap<>();
+            int i = 0;
+            for (Dimension dimension : key.dimensions()) {
+                row.put(dimension.key, dimensionValue(dimension, values[i++]));
+            }
+            for (Measure measure : key.measures()) {
+                row.put(measure.key, values[i] != null ? ((Number) values[i]).longValue() : 0L);
+                i++;
+            }
+            rows.add(row);
+        }
+        if (key.dimensions().contains(Dimension.GROUP)) {
+            fillGroupNames(rows);
+        }
+        return List.copyOf(rows);
+    }
+
+    private static Object dimensionValue(Dimension dimension, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (dimension) {
+            case WEEKDAY, HOUR -> ((Number) value).intValue();
+            case IS_AI_GENERATED -> value instanceof Boolean b ? b : ((Number) value).intValue() == 1;
+            default -> value.toString();
+        };
+    }
+
+    /**
+     * 群组维度附带群组名，个人日程（groupId 为 null）记为"个人"
+     */
+    private void fillGroupNames(List<Map<String, Object>> rows) {
+        Map<String, GroupMetadataCache.GroupMeta> groups = groupMetadataCache.getAll(rows.stream()
+                .map(row -> (String) row.get(Dimension.GROUP.key))
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList()));
+        for (Map<String, Object> row : rows) {
+            String groupId = (String) row.get(Dimension.GROUP.key);
+            GroupMetadataCache.GroupMeta group = groupId != null ? groups.get(groupId) : null;
+            row.put("groupName", groupId == null ? "个人" : group != null ? group.name() : "未知群组");
+        }
+    }
+
+    private static List<Dimension> parseDimensions(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return List.of();
+        }
+        Set<Dimension> dimensions = EnumSet.noneOf(Dimension.class);
+        List<Dimension> ordered = new ArrayList<>();
+        for (String name : names) {
+            Dimension dimension = Arrays.stream(Dimension.values())
+                    .filter(d -> d.key.equalsIgnoreCase(name.trim()) || d.name().equalsIgnoreCase(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("不支持的统计维度: " + name));
+            if (dimensions.add(dimension)) {
+                ordered.add(dimension);
+            }
+        }
+        if (ordered.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("统计维度不能超过 " + MAX_DIMENSIONS + " 个");
+        }
+        return List.copyOf(ordered);
+    }
+
+    private static List<Measure> parseMeasures(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return List.of(Measure.COUNT);
+        }
+        Set<Measure> measures = EnumSet.noneOf(Measure.class);
+        for (String name : names) {
+            try {
+                measures.add(Measure.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的统计度量: " + name);
+            }
+        }
+        return List.copyOf(measures);
+    }
+
+    private static String ordinals(int count) {
+        List<String> ordinals = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            ordinals.add(String.valueOf(i));
+        }
+        return String.join(", ", ordinals);
+    }
+
+    private long versionOf(String scope) {
+        return scopeVersions.get(scope, k -> versionCounter.incrementAndGet());
+    }
+
+    private void bump(String scope) {
+        scopeVersions.put(scope, versionCounter.incrementAndGet());
+    }
+
+    private static String scopeOf(Schedule schedule) {
+        return schedule.getGroupId() == null ? personalScope(schedule.getUserId()) : groupScope(schedule.getGroupId());
+    }
+
+    private static String personalScope(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String groupScope(String groupId) {
+        return "g:" + groupId;
+    }
+
+    /**
+     * 结果缓存键；群组列表与版本列表一一对应，成员关系或任一作用域变化都会得到新键
+     */
+    private record QueryKey(String userId, LocalDate startDate, LocalDate endDate,
+            List<Dimension> dimensions, List<Measure> measures,
+            List<String> groupIds, List<Long> versions) {
+    }
+}
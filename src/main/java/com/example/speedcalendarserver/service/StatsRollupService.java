@@ -0,0 +1,250 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.StatsRollupConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import com.example.speedcalendarserver.entity.ScheduleDailyStat;
+import com.example.speedcalendarserver.event.ScheduleBulkChangedEvent;
+import com.example.speedcalendarserver.event.ScheduleChangedEvent;
+import com.example.speedcalendarserver.repository.ScheduleDailyStatRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 日程统计日汇总维护
+ *
+ * <p>
+ * 日程写入在同一事务提交前（BEFORE_COMMIT）按 -before / +after 累加 (作用域, 日期, 分类) 的计数与时长，
+ * 整批变更先在内存中按桶合并，再以一次 JDBC 批量 upsert 写入，汇总与日程同时提交或回滚；批量导入同样按插入的日程累加。可选的后台线程按间隔逐个作用域从 schedules 重建，校正并发写入等造成的偏差。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+@Slf4j
+@Service
+public class StatsRollupService {
+
+    private final ScheduleDailyStatRepository statRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final StatsRollupConfig config;
+    private final TransactionTemplate transactionTemplate;
+
+    private ScheduledExecutorService rebuilder;
+
+    public StatsRollupService(ScheduleDailyStatRepository statRepository,
+            JdbcTemplate jdbcTemplate,
+            StatsRollupConfig config,
+            PlatformTransactionManager transactionManager) {
+        this.statRepository = statRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 读取若干作用域在日期范围内的汇总
+     */
+    public List<ScheduleDailyStat> findRollups(String userId, Collection<String> groupIds,
+            LocalDate startDate, LocalDate endDate) {
+        List<String> scopes = new ArrayList<>();
+        scopes.add(personalScope(userId));
+        groupIds.forEach(groupId -> scopes.add(groupScope(groupId)));
+        return statRepository.findByScopeKeyInAndStatDateBetween(scopes, startDate, endDate);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!config.isRebuildEnabled()) {
+            return;
+        }
+        rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "stats-rollup-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = config.getRebuildInterval().toMillis();
+        rebuilder.scheduleAtFixedRate(this::rebuildAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * 从 schedules 全量重建汇总
+     *
+     * <p>
+     * 逐个作用域在各自的小事务内 删除 + 重建，每次只锁定该作用域的日程与汇总行，
+     * 不会在整个重建期间阻塞日程写入。汇总表中已没有日程的作用域一并清空。
+     */
+    public void rebuildAll() {
+        long startMs = System.currentTimeMillis();
+        Set<String> scopes;
+        try {
+            scopes = new LinkedHashSet<>(statRepository.findScheduleScopes());
+            scopes.addAll(statRepository.findRollupScopes());
+        } catch (RuntimeException e) {
+            // 周期任务抛出异常后会被取消，必须吞掉
+            log.error("【统计汇总】读取作用域失败: {}", e.getMessage(), e);
+            return;
+        }
+        int failed = 0;
+        for (String scope : scopes) {
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> rebuildScope(scope));
+            } catch (RuntimeException e) {
+                failed++;
+                log.warn("【统计汇总】重建作用域 {} 失败: {}", scope, e.getMessage());
+            }
+        }
+        log.info("【统计汇总】全量重建完成, 作用域: {}, 失败: {}, 耗时: {}ms",
+                scopes.size(), failed, System.currentTimeMillis() - startMs);
+    }
+
+    private void rebuildScope(String scope) {
+        statRepository.deleteScope(scope);
+        if (scope.startsWith("g:")) {
+            statRepository.rebuildGroup(scope.substring(2));
+        } else {
+            statRepository.rebuildPersonal(scope.substring(2));
+        }
+    }
+
+    /**
+     * 日程写入提交前累加增量（整批合并后一次批量写入）
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onScheduleChanged(ScheduleChangedEvent event) {
+        Map<Bucket, Delta> deltas = new LinkedHashMap<>();
+        for (ScheduleChangedEvent.Change change : event.getChanges()) {
+            Schedule before = live(change.before());
+            Schedule after = live(change.after());
+            if (before != null && after != null && sameBucket(before, after)) {
+                long durationDelta = durationMinutes(after) - durationMinutes(before);
+                if (durationDelta != 0 || !Objects.equals(before.getColor(), after.getColor())) {
+                    add(deltas, after, 0, durationDelta, after.getColor());
+                }
+                continue;
+            }
+            if (before != null) {
+                add(deltas, before, -1, -durationMinutes(before), null);
+            }
+            if (after != null) {
+                add(deltas, after, 1, durationMinutes(after), after.getColor());
+            }
+        }
+        applyAll(deltas);
+    }
+
+    /**
+     * 批量导入提交前按插入的日程累加增量，与单条写入相同，不随导入规模重建整个作用域
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onBulkChanged(ScheduleBulkChangedEvent event) {
+        Map<Bucket, Delta> deltas = new LinkedHashMap<>();
+        for (Schedule s : event.getInserted()) {
+            if (live(s) != null) {
+                add(deltas, s, 1, durationMinutes(s), s.getColor());
+            }
+        }
+        applyAll(deltas);
+    }
+
+    private static void add(Map<Bucket, Delta> deltas, Schedule s, int countDelta, long durationDelta, String color) {
+        Delta delta = deltas.computeIfAbsent(new Bucket(scopeOf(s), s.getScheduleDate(), categoryOf(s)),
+                k -> new Delta());
+        delta.count += countDelta;
+        delta.minutes += durationDelta;
+        // 与 APPLY_DELTA_SQL、重建时的 MAX(color) 一致：同一桶取字典序最大的颜色
+        if (color != null && (delta.color == null || color.compareTo(delta.color) > 0)) {
+            delta.color = color;
+        }
+    }
+
+    private void applyAll(Map<Bucket, Delta> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((bucket, delta) -> {
+            // 计数与时长均抵消且未带新颜色的桶无需写入
+            if (delta.count != 0 || delta.minutes != 0 || delta.color != null) {
+                args.add(new Object[] { bucket.scope(), bucket.date(), bucket.category(),
+                        delta.count, delta.minutes, delta.color });
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(ScheduleDailyStatRepository.APPLY_DELTA_SQL, args);
+        }
+    }
+
+    private static Schedule live(Schedule s) {
+        return s != null && s.getIsDeleted() == 0 ? s : null;
+    }
+
+    private static boolean sameBucket(Schedule a, Schedule b) {
+        return scopeOf(a).equals(scopeOf(b))
+                && a.getScheduleDate().equals(b.getScheduleDate())
+                && categoryOf(a).equals(categoryOf(b));
+    }
+
+    /**
+     * 定时日程的时长（分钟），结束早于开始视为跨午夜；全天日程与无结束时间的日程为 0
+     * 与 ScheduleDailyStatRepository.DURATION_SQL 口径一致
+     */
+    static long durationMinutes(Schedule s) {
+        if (Integer.valueOf(1).equals(s.getIsAllDay()) || s.getStartTime() == null || s.getEndTime() == null) {
+            return 0;
+        }
+        int seconds = s.getEndTime().toSecondOfDay() - s.getStartTime().toSecondOfDay();
+        return Math.floorMod(seconds, 86400) / 60;
+    }
+
+    private static String categoryOf(Schedule s) {
+        return s.getCategory() == null ? "其他" : s.getCategory();
+    }
+
+    private static String scopeOf(Schedule s) {
+        return s.getGroupId() == null ? personalScope(s.getUserId()) : groupScope(s.getGroupId());
+    }
+
+    private static String personalScope(String userId) {
+        return "u:" + userId;
+    }
+
+    private static String groupScope(String groupId) {
+        return "g:" + groupId;
+    }
+
+    private record Bucket(String scope, LocalDate date, String category) {
+    }
+
+    private static class Delta {
+        private int count;
+        private long minutes;
+        private String color;
+    }
+}
@@ -1,7 +1,6 @@
 package com.example.speedcalendarserver.service;
 
-import com.example.speedcalendarserver.entity.Schedule;
-import com.example.speedcalendarserver.repository.ScheduleRepository;
+import com.example.speedcalendarserver.entity.ScheduleDailyStat;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -10,6 +9,7 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -19,12 +19,12 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class StatsService {
 
-    private final ScheduleRepository scheduleRepository;
+    private final StatsRollupService statsRollupService;
     private final ScheduleService scheduleService;
 
     /**
      * 获取分类占比统计 (饼状图数据)
-     * 返回示例: [{"category": "工作", "count": 12, "color": "#2196F3"}, ...]
+     * 返回示例: [{"category": "工作", "count": 12, "color": "#2196F3", "durationMinutes": 540}, ...]
      */
     public List<Map<String, Object>> getCategoryStats(String userId, String monthStr) {
         YearMonth yearMonth = YearMonth.parse(monthStr);
@@ -32,21 +32,30 @@ public class StatsService {
         LocalDate endDate = yearMonth.atEndOfMonth();
 
         List<String> groupIds = scheduleService.getMemberGroupIds(userId);
-        List<Schedule> schedules = scheduleRepository.findSchedulesForUserAndGroupsByDateRange(
-                userId, groupIds, startDate, endDate);
+        List<ScheduleDailyStat> rollups = statsRollupService.findRollups(userId, groupIds, startDate, endDate);
 
-        // 按分类分组统计
-        Map<String, List<Schedule>> groups = schedules.stream()
-                .collect(Collectors.groupingBy(s -> s.getCategory() == null ? "其他" : s.getCategory()));
+        // 按分类累加日汇总，同一分类取第一条带颜色的汇总作为代表色
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        Map<String, String> colors = new HashMap<>();
+        for (ScheduleDailyStat rollup : rollups) {
+            if (rollup.getScheduleCount() <= 0) {
+                continue;
+            }
+            long[] total = totals.computeIfAbsent(rollup.getCategory(), k -> new long[2]);
+            total[0] += rollup.getScheduleCount();
+            total[1] += rollup.getDurationMinutes();
+            if (rollup.getColor() != null) {
+                colors.putIfAbsent(rollup.getCategory(), rollup.getColor());
+            }
+        }
 
-        return groups.entrySet().stream()
+        return totals.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> map = new LinkedHashMap<>();
                     map.put("category", entry.getKey());
-                    map.put("count", (long) entry.getValue().size());
-                    // 取该分类下的第一个颜色作为代表色
-                    String color = entry.getValue().get(0).getColor();
-                    map.put("color", color != null ? color : "#9E9E9E");
+                    map.put("count", entry.getValue()[0]);
+                    map.put("color", colors.getOrDefault(entry.getKey(), "#9E9E9E"));
+                    map.put("durationMinutes", entry.getValue()[1]);
                     return map;
                 })
                 .sorted((a, b) -> Long.compare((long) b.get("count"), (long) a.get("count")))
@@ -68,8 +77,14 @@ public class StatsService {
         LocalDate endDate = currentMonday.plusWeeks(4).minusDays(1); // 加上当前周和后3周，共8周的周日
 
         List<String> groupIds = scheduleService.getMemberGroupIds(userId);
-        List<Schedule> schedules = scheduleRepository.findSchedulesForUserAndGroupsByDateRange(
-                userId, groupIds, startDate, endDate);
+        List<ScheduleDailyStat> rollups = statsRollupService.findRollups(userId, groupIds, startDate, endDate);
+
+        // 日汇总按所在周累加
+        long[] weekCounts = new long[8];
+        for (ScheduleDailyStat rollup : rollups) {
+            int week = (int) (ChronoUnit.DAYS.between(startDate, rollup.getStatDate()) / 7);
+            weekCounts[week] += Math.max(rollup.getScheduleCount(), 0);
+        }
 
         List<Map<String, Object>> result = new ArrayList<>();
         DateTimeFormatter labelFormatter = DateTimeFormatter.ofPattern("MM/dd");
@@ -79,15 +94,11 @@ public class StatsService {
         for (int i = 0; i < 8; i++) {
             LocalDate weekStart = startDate.plusWeeks(i);
             LocalDate weekEnd = weekStart.plusDays(6);
-            
-            long count = schedules.stream()
-                    .filter(s -> !s.getScheduleDate().isBefore(weekStart) && !s.getScheduleDate().isAfter(weekEnd))
-                    .count();
 
             Map<String, Object> weekData = new LinkedHashMap<>();
             weekData.put("weekLabel", weekStart.format(labelFormatter));
             weekData.put("weekRange", String.format("%s-%s", weekStart.format(rangeFormatter), weekEnd.format(rangeFormatter)));
-            weekData.put("count", count);
+            weekData.put("count", weekCounts[i]);
             result.add(weekData);
         }
 
@@ -0,0 +1,133 @@
+package com.example.speedcalendarserver.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 二元分词 (bigram) 倒排索引
+ *
+ * <p>
+ * 中文没有空格分词，按相邻两个字符切分即可覆盖任意长度的子串查询：文本的每个字符与每对相邻字符各为一个词项，
+ * 查询词切分后取各词项倒排表的交集，再以原文 contains 校验消除 bigram 拼接造成的误匹配，
+ * 结果与子串匹配完全一致。文本先做 NFKC 归一化与小写，全角 / 半角、大小写不敏感。
+ *
+ * <p>
+ * 非线程安全，由调用方加锁。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public class BigramIndex<K> {
+
+    /**
+     * 词项 -> 包含该词项的文档
+     */
+    private final Map<String, Set<K>> postings = new HashMap<>();
+
+    /**
+     * 文档 -> 归一化后的文本
+     */
+    private final Map<K, String> texts = new HashMap<>();
+
+    /**
+     * 写入文档；多个字段以换行分隔，词项与匹配都不会跨越字段
+     */
+    public void put(K key, String... fields) {
+        remove(key);
+        StringBuilder sb = new StringBuilder();
+        for (String field : fields) {
+            if (field != null && !field.isBlank()) {
+                sb.append(normalize(field)).append('\n');
+            }
+        }
+        String text = sb.toString();
+        texts.put(key, text);
+        for (String term : terms(text)) {
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(key);
+        }
+    }
+
+    public void remove(K key) {
+        String text = texts.remove(key);
+        if (text == null) {
+            return;
+        }
+        for (String term : terms(text)) {
+            Set<K> docs = postings.get(term);
+            if (docs != null && docs.remove(key) && docs.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public int size() {
+        return texts.size();
+    }
+
+    /**
+     * 查询包含全部关键词（空白分隔）的文档
+     */
+    public Set<K> search(String query) {
+        List<String> keywords = new ArrayList<>();
+        for (String keyword : normalize(query).split("\\s+")) {
+            if (!keyword.isEmpty()) {
+                keywords.add(keyword);
+            }
+        }
+        if (keywords.isEmpty()) {
+            return Set.of();
+        }
+
+        // 从最短的倒排表开始求交集
+        List<Set<K>> lists = new ArrayList<>();
+        for (String keyword : keywords) {
+            for (String term : terms(keyword)) {
+                Set<K> docs = postings.get(term);
+                if (docs == null) {
+                    return Set.of();
+                }
+                lists.add(docs);
+            }
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+        Set<K> result = new LinkedHashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        result.removeIf(key -> {
+            String text = texts.get(key);
+            return keywords.stream().anyMatch(keyword -> !text.contains(keyword));
+        });
+        return result;
+    }
+
+    static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 单字与相邻双字词项；含空白的组合不作为词项
+     */
+    private static Set<String> terms(String text) {
+        Set<String> terms = new HashSet<>();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            terms.add(String.valueOf(c));
+            if (i + 1 < text.length() && !Character.isWhitespace(text.charAt(i + 1))) {
+                terms.add(text.substring(i, i + 2));
+            }
+        }
+        return terms;
+    }
+}
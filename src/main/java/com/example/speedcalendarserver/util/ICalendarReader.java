@@ -0,0 +1,144 @@
+package com.example.speedcalendarserver.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * iCalendar (RFC 5545) 内容行流式读取工具
+ * 逐行读取并展开折行，只保留当前一行，不构建整棵组件树；与 {@link ICalendarWriter} 对应
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public class ICalendarReader implements Closeable {
+
+    /**
+     * 单个内容行（展开后）的最大字符数，超出部分丢弃，防止异常文件占满内存
+     */
+    private static final int MAX_LINE_CHARS = 64 * 1024;
+
+    private final BufferedReader reader;
+
+    /**
+     * 预读的下一物理行，用于判断是否为续行
+     */
+    private String lookahead;
+
+    public ICalendarReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+    }
+
+    /**
+     * 读取下一个内容行，已到末尾时返回 null；空行与无法解析的行被跳过
+     */
+    public ContentLine next() throws IOException {
+        while (true) {
+            String first = lookahead != null ? lookahead : reader.readLine();
+            lookahead = null;
+            if (first == null) {
+                return null;
+            }
+            if (!first.isEmpty() && first.charAt(0) == '\uFEFF') {
+                // UTF-8 BOM
+                first = first.substring(1);
+            }
+            StringBuilder sb = new StringBuilder(first);
+            String line;
+            while ((line = reader.readLine()) != null
+                    && !line.isEmpty() && (line.charAt(0) == ' ' || line.charAt(0) == '\t')) {
+                if (sb.length() < MAX_LINE_CHARS) {
+                    sb.append(line, 1, Math.min(line.length(), 1 + MAX_LINE_CHARS - sb.length()));
+                }
+            }
+            lookahead = line;
+
+            ContentLine parsed = parse(sb);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * 文本值反转义，与 {@link ICalendarWriter#escape} 对应
+     */
+    public static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char n = value.charAt(++i);
+                sb.append(n == 'n' || n == 'N' ? '\n' : n);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * NAME;PARAM=VALUE;PARAM="VALUE":VALUE，参数值中的冒号须在引号内
+     */
+    private static ContentLine parse(CharSequence line) {
+        int nameEnd = -1;
+        int colon = -1;
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == ';' && nameEnd < 0) {
+                nameEnd = i;
+            } else if (!quoted && c == ':') {
+                colon = i;
+                break;
+            }
+        }
+        if (colon <= 0) {
+            return null;
+        }
+        if (nameEnd < 0) {
+            nameEnd = colon;
+        }
+
+        Map<String, String> params = Map.of();
+        if (nameEnd < colon) {
+            params = new HashMap<>();
+            for (String param : line.subSequence(nameEnd + 1, colon).toString().split(";(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)")) {
+                int eq = param.indexOf('=');
+                if (eq > 0) {
+                    String value = param.substring(eq + 1);
+                    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+                    params.put(param.substring(0, eq).toUpperCase(Locale.ROOT), value);
+                }
+            }
+        }
+        return new ContentLine(line.subSequence(0, nameEnd).toString().toUpperCase(Locale.ROOT), params,
+                line.subSequence(colon + 1, line.length()).toString());
+    }
+
+    /**
+     * 内容行：属性名与参数名统一为大写，value 为原始值（文本值需调用 {@link #unescape}）
+     */
+    public record ContentLine(String name, Map<String, String> params, String value) {
+
+        public String param(String name) {
+            return params.get(name);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.speedcalendarserver.util;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * iCalendar (RFC 5545) 内容行写入工具
+ * 负责文本转义与按 75 字节折行，只写不缓存，可直接包装响应输出流
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public class ICalendarWriter {
+
+    private static final String CRLF = "\r\n";
+    private static final int MAX_LINE_OCTETS = 75;
+
+    private final Writer writer;
+
+    public ICalendarWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    public ICalendarWriter begin(String component) throws IOException {
+        return line("BEGIN:" + component);
+    }
+
+    public ICalendarWriter end(String component) throws IOException {
+        return line("END:" + component);
+    }
+
+    /**
+     * 写入值已符合格式的属性（日期、RRULE 等），value 为 null 时跳过
+     */
+    public ICalendarWriter property(String name, String value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        return line(name + ":" + value);
+    }
+
+    /**
+     * 写入文本属性，按 RFC 5545 3.3.11 转义，value 为空时跳过
+     */
+    public ICalendarWriter text(String name, String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return this;
+        }
+        return line(name + ":" + escape(value));
+    }
+
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * 文本值转义：反斜杠、分号、逗号、换行
+     */
+    public static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> sb.append("\\\\");
+                case ';' -> sb.append("\\;");
+                case ',' -> sb.append("\\,");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> {
+                    // \r\n 统一为 \n
+                }
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 写入一行，超过 75 字节时折行（续行以空格开头），不拆分多字节字符
+     */
+    private ICalendarWriter line(String content) throws IOException {
+        int octets = 0;
+        int i = 0;
+        while (i < content.length()) {
+            int cp = content.codePointAt(i);
+            int len = utf8Length(cp);
+            if (octets + len > MAX_LINE_OCTETS) {
+                writer.write(CRLF);
+                writer.write(' ');
+                octets = 1;
+            }
+            writer.write(Character.toChars(cp));
+            octets += len;
+            i += Character.charCount(cp);
+        }
+        writer.write(CRLF);
+        return this;
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.speedcalendarserver.util;
+
+import java.security.SecureRandom;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 主键生成器
+ *
+ * <p>
+ * 默认生成按时间单调递增的 UUIDv7 (RFC 9562)：48 位毫秒时间戳 + 12 位同毫秒计数器 + 62 位随机数。
+ * 新主键总是追加在 InnoDB 聚簇索引末尾，避免随机 UUID 造成的页分裂；字符串格式与 {@link UUID#toString()} 相同，
+ * 已有的随机 UUID 主键继续有效，且按字符串排序即按生成时间排序。
+ *
+ * <p>
+ * 同一毫秒内计数器递增，计数器用尽或系统时钟回拨时沿用上一个时间戳并继续递增，保证进程内严格单调。
+ * 可通过 {@link #setStrategy(Supplier)} 替换生成策略。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public final class IdGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MAX = (1L << COUNTER_BITS) - 1;
+
+    private static volatile Supplier<String> strategy = IdGenerator::uuidV7;
+
+    private static long lastMillis = -1;
+    private static long counter;
+
+    private IdGenerator() {
+    }
+
+    /**
+     * 生成新的主键
+     */
+    public static String nextId() {
+        return strategy.get();
+    }
+
+    /**
+     * 替换主键生成策略，例如回退为 {@code () -> UUID.randomUUID().toString()}
+     */
+    public static void setStrategy(Supplier<String> supplier) {
+        strategy = Objects.requireNonNull(supplier);
+    }
+
+    /**
+     * 生成进程内严格单调递增的 UUIDv7
+     */
+    public static String uuidV7() {
+        long millis;
+        long seq;
+        synchronized (IdGenerator.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // 随机起点只用低 11 位，给同毫秒内的递增留出空间
+                counter = RANDOM.nextInt(1 << (COUNTER_BITS - 1));
+            } else if (++counter > COUNTER_MAX) {
+                lastMillis++;
+                counter = 0;
+            }
+            millis = lastMillis;
+            seq = counter;
+        }
+        long msb = (millis << 16) | (0x7L << 12) | seq;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb).toString();
+    }
+}
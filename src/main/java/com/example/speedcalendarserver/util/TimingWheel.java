@@ -0,0 +1,198 @@
+package com.example.speedcalendarserver.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮 (Hashed Hierarchical Timing Wheel)
+ *
+ * <p>
+ * 共 4 层、每层 64 格，第 k 层一格为 64^k 个刻度，覆盖 64^4 个刻度（1 秒刻度约 194 天）。
+ * 每格为双向链表，并以 key 建立索引：插入、按 key 取消均为 O(1)；
+ * 推进时只处理第 0 层当前格，以及每 64 刻度一次的上层格下沉（cascade）。
+ *
+ * <p>
+ * 非线程安全，由调用方加锁。
+ *
+ * @author SpeedCalendar Team
+ * @since 2026-10-17
+ */
+public class TimingWheel<K, V> {
+
+    private static final int LEVELS = 4;
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+
+    /**
+     * [层][格] -> 链表哨兵
+     */
+    private final Entry<K, V>[][] wheels;
+
+    private final Map<K, Entry<K, V>> entries = new HashMap<>();
+
+    /**
+     * 已处理到的刻度
+     */
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Entry[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                Entry<K, V> sentinel = new Entry<>(null, null, 0);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                wheels[level][slot] = sentinel;
+            }
+        }
+    }
+
+    /**
+     * 加入定时项；key 已存在时替换原有项。已过期的项在下一刻度到期
+     */
+    public void schedule(K key, V value, long expireAtMillis) {
+        cancel(key);
+        Entry<K, V> entry = new Entry<>(key, value, expireAtMillis);
+        entries.put(key, entry);
+        // 当前刻度已处理过，最早在下一刻度到期
+        place(entry, currentTick + 1);
+    }
+
+    /**
+     * 取消定时项
+     *
+     * @return 是否存在该项
+     */
+    public boolean cancel(K key) {
+        Entry<K, V> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return entries.containsKey(key);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 推进到 nowMillis，返回期间到期的项（按到期刻度先后）
+     */
+    public List<Entry<K, V>> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<Entry<K, V>> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            int index = (int) (currentTick & SLOT_MASK);
+            if (index == 0) {
+                cascade(1);
+            }
+            Entry<K, V> sentinel = wheels[0][index];
+            for (Entry<K, V> e = sentinel.next; e != sentinel; ) {
+                Entry<K, V> next = e.next;
+                e.unlink();
+                entries.remove(e.key);
+                expired.add(e);
+                e = next;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 将第 level 层当前格的项下沉到更低层；该层也恰好转完一圈时先下沉更高层
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS) {
+            return;
+        }
+        int index = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+        Entry<K, V> sentinel = wheels[level][index];
+        Entry<K, V> e = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (e != sentinel) {
+            Entry<K, V> next = e.next;
+            // 下沉发生在处理当前刻度之前，到期刻度恰为当前刻度的项仍在本刻度触发
+            place(e, currentTick);
+            e = next;
+        }
+    }
+
+    private void place(Entry<K, V> entry, long minTick) {
+        long expireTick = Math.max(entry.expireAtMillis / tickMillis, minTick);
+        long delta = expireTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= 1L << (SLOT_BITS * LEVELS)) {
+            // 超出覆盖范围：放在最高层最远的格，下沉时重新计算
+            expireTick = currentTick + (1L << (SLOT_BITS * LEVELS)) - 1;
+        }
+        int index = (int) ((expireTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+        entry.linkBefore(wheels[level][index]);
+    }
+
+    /**
+     * 定时项
+     */
+    public static final class Entry<K, V> {
+
+        private final K key;
+        private final V value;
+        private final long expireAtMillis;
+        private Entry<K, V> prev;
+        private Entry<K, V> next;
+
+        private Entry(K key, V value, long expireAtMillis) {
+            this.key = key;
+            this.value = value;
+            this.expireAtMillis = expireAtMillis;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public long getExpireAtMillis() {
+            return expireAtMillis;
+        }
+
+        private void linkBefore(Entry<K, V> sentinel) {
+            prev = sentinel.prev;
+            next = sentinel;
+            sentinel.prev.next = this;
+            sentinel.prev = this;
+        }
+
+        private void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
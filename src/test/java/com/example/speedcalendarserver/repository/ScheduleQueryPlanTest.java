@@ -0,0 +1,186 @@
+package com.example.speedcalendarserver.repository;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 日程范围查询的执行计划回归：每个查询都必须实际选中各自的复合索引（断言 EXPLAIN 的 key，而不只是 possible_keys）
+ * SQL 与 ScheduleRepository 中对应 JPQL 生成的条件一致
+ *
+ * <p>
+ * 空表上优化器的选择没有意义，因此先写入一批有代表性的数据（多用户、多群组、全年分布、少量重复系列）并 ANALYZE，
+ * 结束后删除。查询窗口只占全年的一个月，复合索引的日期列能明显缩小扫描范围。
+ *
+ * <p>
+ * 会写入并 ANALYZE schedules 等表，因此只连接专用的测试库（已导入 sql/database copy.sql 的空库），不使用 application.yml
+ * 中的数据源；未指定 test.mysql.url 时跳过，默认的 mvn test 不会运行。运行方式：
+ * mvn test -Dgroups=mysql -Dtest.mysql.url=jdbc:mysql://localhost:3306/speed_calendar_test
+ * -Dtest.mysql.username=root -Dtest.mysql.password=...
+ */
+@Tag("mysql")
+@EnabledIfSystemProperty(named = "test.mysql.url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${test.mysql.url}",
+        "spring.datasource.username=${test.mysql.username:root}",
+        "spring.datasource.password=${test.mysql.password:}"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ScheduleQueryPlanTest {
+
+    private static final String PREFIX = "plan-";
+    private static final int USERS = 40;
+    private static final int GROUPS = 10;
+    private static final int PER_USER = 60;
+    private static final int PER_GROUP = 100;
+    private static final LocalDate YEAR_START = LocalDate.of(2026, 1, 1);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        cleanUp();
+        List<Object[]> users = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            users.add(new Object[] { PREFIX + "u-" + u });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (user_id) VALUES (?)", users);
+
+        List<Object[]> groups = new ArrayList<>();
+        for (int g = 0; g < GROUPS; g++) {
+            groups.add(new Object[] { PREFIX + "g-" + g, "plan group " + g, PREFIX + "u-0", PREFIX + "inv-" + g });
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO `group` (id, name, owner_id, invitation_code) VALUES (?, ?, ?, ?)", groups);
+
+        List<Object[]> schedules = new ArrayList<>();
+        for (int u = 0; u < USERS; u++) {
+            for (int i = 0; i < PER_USER; i++) {
+                schedules.add(schedule(PREFIX + "s-u" + u + "-" + i, PREFIX + "u-" + u, null, i, PER_USER));
+            }
+        }
+        for (int g = 0; g < GROUPS; g++) {
+            for (int i = 0; i < PER_GROUP; i++) {
+                schedules.add(schedule(PREFIX + "s-g" + g + "-" + i, PREFIX + "u-" + (i % USERS),
+                        PREFIX + "g-" + g, i, PER_GROUP));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO schedules " +
+                "(schedule_id, user_id, group_id, title, schedule_date, start_time, end_time, " +
+                "reminder_minutes, repeat_type) VALUES (?, ?, ?, 'plan', ?, '09:00', '10:00', ?, ?)", schedules);
+        jdbcTemplate.execute("ANALYZE TABLE schedules");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM schedules WHERE schedule_id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM `group` WHERE id LIKE ?", PREFIX + "%");
+        jdbcTemplate.update("DELETE FROM users WHERE user_id LIKE ?", PREFIX + "%");
+    }
+
+    /**
+     * 第 i 条日程均匀分布在全年；每 20 条中有一条每周重复的系列，每 3 条中有一条设置了 15 分钟提醒
+     */
+    private static Object[] schedule(String id, String userId, String groupId, int i, int total) {
+        LocalDate date = YEAR_START.plusDays((long) i * 365 / total);
+        Integer reminder = i % 3 == 0 ? 15 : null;
+        String repeat = i % 20 == 0 ? "weekly" : "none";
+        return new Object[] { id, userId, groupId, date, reminder, repeat };
+    }
+
+    @Test
+    void personalRangeUsesUserDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT schedule_date, category, color FROM schedules " +
+                "WHERE user_id = ? AND schedule_date BETWEEN ? AND ? AND group_id IS NULL AND is_deleted = 0 " +
+                "ORDER BY schedule_date",
+                PREFIX + "u-1", "2026-03-01", "2026-03-31");
+
+        assertKey(plan, "idx_user_date");
+    }
+
+    @Test
+    void groupRangeUsesGroupDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT schedule_date, category, color FROM schedules " +
+                "WHERE group_id IN (?, ?) AND schedule_date BETWEEN ? AND ? AND is_deleted = 0 " +
+                "ORDER BY schedule_date",
+                PREFIX + "g-1", PREFIX + "g-2", "2026-03-01", "2026-03-31");
+
+        assertKey(plan, "idx_group_date_deleted");
+    }
+
+    /**
+     * findPersonalSchedulesAndSeriesByDateRange：系列分支 OR scheduleDate &lt; :startDate 合并为 schedule_date &lt;= endDate
+     */
+    @Test
+    void personalRangeWithSeriesUsesUserDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM schedules WHERE " +
+                "is_deleted = 0 AND group_id IS NULL AND user_id = ? AND (" +
+                "schedule_date BETWEEN ? AND ? OR (" +
+                "repeat_type IS NOT NULL AND repeat_type <> 'none' AND schedule_date < ? AND " +
+                "(repeat_end_date IS NULL OR repeat_end_date >= ?))) " +
+                "ORDER BY schedule_date ASC, start_time ASC",
+                PREFIX + "u-1", "2026-03-01", "2026-03-31", "2026-03-01", "2026-03-01");
+
+        assertKey(plan, "idx_user_date");
+    }
+
+    /**
+     * findGroupSchedulesAndSeriesByDateRange：同上，群组 IN 列表下仍走 (group_id, schedule_date) 范围
+     */
+    @Test
+    void groupRangeWithSeriesUsesGroupDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM schedules WHERE " +
+                "is_deleted = 0 AND group_id IN (?, ?) AND (" +
+                "schedule_date BETWEEN ? AND ? OR (" +
+                "repeat_type IS NOT NULL AND repeat_type <> 'none' AND schedule_date < ? AND " +
+                "(repeat_end_date IS NULL OR repeat_end_date >= ?))) " +
+                "ORDER BY schedule_date ASC, start_time ASC",
+                PREFIX + "g-1", PREFIX + "g-2", "2026-03-01", "2026-03-31", "2026-03-01", "2026-03-01");
+
+        assertKey(plan, "idx_group_date_deleted");
+    }
+
+    /**
+     * findReminderSchedulesAfter：单个提前量的一两天日期范围
+     */
+    @Test
+    void reminderRangeUsesReminderDateIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT * FROM schedules WHERE " +
+                "reminder_minutes = ? AND schedule_date BETWEEN ? AND ? AND is_deleted = 0 AND " +
+                "(repeat_type IS NULL OR repeat_type = 'none') AND (" +
+                "schedule_date > ? OR (schedule_date = ? AND schedule_id > ?)) " +
+                "ORDER BY schedule_date ASC, schedule_id ASC LIMIT 1000",
+                15, "2026-03-10", "2026-03-11", "2026-03-09", "2026-03-09", "");
+
+        assertKey(plan, "idx_reminder_date");
+    }
+
+    private Map<String, Object> explain(String sql, Object... args) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        assertEquals(1, rows.size());
+        return rows.get(0);
+    }
+
+    private static void assertKey(Map<String, Object> plan, String index) {
+        assertEquals(index, plan.get("key"), "未选中索引 " + index + ": " + plan);
+    }
+}
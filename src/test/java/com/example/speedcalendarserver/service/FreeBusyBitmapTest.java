@@ -0,0 +1,80 @@
+package com.example.speedcalendarserver.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FreeBusyBitmapTest {
+
+    private static final LocalDate START = LocalDate.of(2026, 3, 2);
+
+    private static int slot(int day, int hour, int minute) {
+        return day * FreeBusyBitmap.SLOTS_PER_DAY + (hour * 60 + minute) / FreeBusyBitmap.SLOT_MINUTES;
+    }
+
+    @Test
+    void partialSlotsAreRoundedOutward() {
+        FreeBusyBitmap bitmap = new FreeBusyBitmap(START, 1);
+
+        bitmap.markBusy(START, LocalTime.of(9, 10), LocalTime.of(9, 50));
+
+        assertFalse(bitmap.isBusy(slot(0, 8, 45)));
+        assertTrue(bitmap.isBusy(slot(0, 9, 0)));
+        assertTrue(bitmap.isBusy(slot(0, 9, 45)));
+        assertFalse(bitmap.isBusy(slot(0, 10, 0)));
+    }
+
+    @Test
+    void crossMidnightSpillsIntoNextDayAndClipsAtWindowEnd() {
+        FreeBusyBitmap bitmap = new FreeBusyBitmap(START, 2);
+
+        bitmap.markBusy(START.minusDays(1), LocalTime.of(23, 0), LocalTime.of(1, 0));
+        bitmap.markBusy(START.plusDays(1), LocalTime.of(23, 0), LocalTime.of(2, 0));
+
+        assertTrue(bitmap.isBusy(slot(0, 0, 45)));
+        assertFalse(bitmap.isBusy(slot(0, 1, 0)));
+        assertTrue(bitmap.isBusy(slot(1, 23, 45)));
+    }
+
+    @Test
+    void unionFindsRunsWhereEveryoneIsFree() {
+        FreeBusyBitmap alice = new FreeBusyBitmap(START, 1);
+        FreeBusyBitmap bob = new FreeBusyBitmap(START, 1);
+        alice.markBusy(START, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        bob.markBusy(START, LocalTime.of(11, 0), null);
+
+        FreeBusyBitmap union = new FreeBusyBitmap(START, 1);
+        union.or(alice);
+        union.or(bob);
+        List<FreeBusyBitmap.Run> runs = FreeBusyBitmap.freeRuns(START, 1, slot(0, 8, 0), slot(0, 13, 0), 4,
+                s -> !union.isBusy(s));
+
+        assertEquals(List.of(
+                new FreeBusyBitmap.Run(START, slot(0, 8, 0), slot(0, 9, 0)),
+                new FreeBusyBitmap.Run(START, slot(0, 10, 0), slot(0, 11, 0)),
+                new FreeBusyBitmap.Run(START, slot(0, 12, 0), slot(0, 13, 0))), runs);
+        assertEquals(LocalTime.of(10, 0), runs.get(1).startTime());
+    }
+
+    @Test
+    void countsAllowSomeMembersToBeBusy() {
+        FreeBusyBitmap alice = new FreeBusyBitmap(START, 1);
+        FreeBusyBitmap bob = new FreeBusyBitmap(START, 1);
+        alice.markBusy(START, LocalTime.of(9, 0), LocalTime.of(10, 0));
+        bob.markBusy(START, LocalTime.of(9, 30), LocalTime.of(10, 0));
+
+        int[] counts = new int[FreeBusyBitmap.SLOTS_PER_DAY];
+        alice.addTo(counts);
+        bob.addTo(counts);
+
+        assertEquals(1, counts[slot(0, 9, 0)]);
+        assertEquals(2, counts[slot(0, 9, 30)]);
+        assertEquals(0, counts[slot(0, 10, 0)]);
+    }
+}
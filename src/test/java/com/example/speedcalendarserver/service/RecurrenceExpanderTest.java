@@ -0,0 +1,86 @@
+package com.example.speedcalendarserver.service;
+
+import com.example.speedcalendarserver.config.ScheduleCacheConfig;
+import com.example.speedcalendarserver.entity.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecurrenceExpanderTest {
+
+    private final RecurrenceExpander expander = new RecurrenceExpander(new ScheduleCacheConfig());
+
+    private Schedule series(String id, String repeatType, LocalDate start, LocalDate until) {
+        return Schedule.builder()
+                .scheduleId(id)
+                .title(id)
+                .scheduleDate(start)
+                .startTime(LocalTime.of(9, 0))
+                .repeatType(repeatType)
+                .repeatEndDate(until)
+                .build();
+    }
+
+    @Test
+    void weeklySeriesStartingBeforeWindowIsExpanded() {
+        Schedule weekly = series("w", "weekly", LocalDate.of(2026, 1, 5), null);
+
+        List<LocalDate> dates = expander.occurrences(weekly, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 31));
+
+        assertEquals(List.of(
+                LocalDate.of(2026, 3, 2),
+                LocalDate.of(2026, 3, 9),
+                LocalDate.of(2026, 3, 16),
+                LocalDate.of(2026, 3, 23),
+                LocalDate.of(2026, 3, 30)), dates);
+    }
+
+    @Test
+    void repeatEndDateLimitsExpansion() {
+        Schedule daily = series("d", "daily", LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 3));
+
+        List<LocalDate> dates = expander.occurrences(daily, LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 31));
+
+        assertEquals(List.of(LocalDate.of(2026, 3, 2), LocalDate.of(2026, 3, 3)), dates);
+    }
+
+    @Test
+    void monthlySeriesSkipsMonthsWithoutTheDay() {
+        Schedule monthly = series("m", "monthly", LocalDate.of(2026, 1, 31), null);
+
+        List<LocalDate> dates = expander.occurrences(monthly, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 4, 30));
+
+        assertEquals(List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 3, 31)), dates);
+    }
+
+    @Test
+    void yearlyLeapDayOnlyOccursInLeapYears() {
+        Schedule yearly = series("y", "yearly", LocalDate.of(2024, 2, 29), null);
+
+        List<LocalDate> dates = expander.occurrences(yearly, LocalDate.of(2024, 1, 1), LocalDate.of(2028, 12, 31));
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2028, 2, 29)), dates);
+    }
+
+    @Test
+    void expandMergesPlainSchedulesAndSeriesInOrder() {
+        Schedule plain = series("p", "none", LocalDate.of(2026, 3, 10), null);
+        plain.setStartTime(LocalTime.of(8, 0));
+        Schedule outside = series("o", "none", LocalDate.of(2026, 2, 10), null);
+        Schedule weekly = series("w", "weekly", LocalDate.of(2026, 3, 3), null);
+
+        List<RecurrenceExpander.Occurrence> occurrences = expander.expand(
+                List.of(weekly, plain, outside), LocalDate.of(2026, 3, 1), LocalDate.of(2026, 3, 10));
+
+        assertEquals(3, occurrences.size());
+        assertEquals(LocalDate.of(2026, 3, 3), occurrences.get(0).date());
+        assertEquals("p", occurrences.get(1).schedule().getScheduleId());
+        assertEquals(LocalDate.of(2026, 3, 10), occurrences.get(2).date());
+        assertTrue(occurrences.stream().noneMatch(o -> o.schedule() == outside));
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.speedcalendarserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdGeneratorTest {
+
+    @Test
+    void uuidV7IsStrictlyIncreasingWithinProcess() {
+        String previous = IdGenerator.uuidV7();
+        for (int i = 0; i < 100_000; i++) {
+            String id = IdGenerator.uuidV7();
+            assertTrue(id.compareTo(previous) > 0, previous + " >= " + id);
+            previous = id;
+        }
+    }
+
+    @Test
+    void uuidV7CarriesVersionVariantAndTimestamp() {
+        long before = System.currentTimeMillis();
+        UUID id = UUID.fromString(IdGenerator.uuidV7());
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        long millis = id.getMostSignificantBits() >>> 16;
+        // 计数器用尽时时间戳可能略超前于系统时钟
+        assertTrue(millis >= before && millis <= System.currentTimeMillis() + 1000);
+    }
+}
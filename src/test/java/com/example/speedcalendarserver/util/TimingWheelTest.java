@@ -0,0 +1,93 @@
+package com.example.speedcalendarserver.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+
+    /**
+     * 1ms 刻度，从 0 开始，便于按刻度数断言
+     */
+    private static TimingWheel<String, String> wheel() {
+        return new TimingWheel<>(1, 0);
+    }
+
+    private static List<String> keys(List<TimingWheel.Entry<String, String>> expired) {
+        return expired.stream().map(TimingWheel.Entry::getKey).toList();
+    }
+
+    @Test
+    void entriesOnHigherLevelsCascadeAndFireOnTheirExactTick() {
+        TimingWheel<String, String> wheel = wheel();
+        long level1 = 64 + 37;
+        long level2 = 64 * 64 * 3 + 64 * 5 + 9;
+        long level3 = 64L * 64 * 64 * 2 + 64 * 64 + 1;
+        wheel.schedule("l1", "a", level1);
+        wheel.schedule("l2", "b", level2);
+        wheel.schedule("l3", "c", level3);
+
+        assertTrue(wheel.advance(level1 - 1).isEmpty());
+        assertEquals(List.of("l1"), keys(wheel.advance(level1)));
+
+        assertTrue(wheel.advance(level2 - 1).isEmpty());
+        assertEquals(List.of("l2"), keys(wheel.advance(level2)));
+
+        assertTrue(wheel.advance(level3 - 1).isEmpty());
+        List<TimingWheel.Entry<String, String>> expired = wheel.advance(level3);
+        assertEquals(List.of("l3"), keys(expired));
+        assertEquals(level3, expired.get(0).getExpireAtMillis());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesFireInTickOrderAcrossOneLongAdvance() {
+        TimingWheel<String, String> wheel = wheel();
+        wheel.schedule("late", "x", 64 * 64 + 1);
+        wheel.schedule("early", "x", 63);
+        wheel.schedule("middle", "x", 64 * 2);
+
+        assertEquals(List.of("early", "middle", "late"), keys(wheel.advance(64 * 64 * 2)));
+    }
+
+    @Test
+    void cancelledEntryNeverFires() {
+        TimingWheel<String, String> wheel = wheel();
+        wheel.schedule("a", "x", 64 * 64 + 10);
+        wheel.schedule("b", "x", 64 * 64 + 10);
+
+        wheel.advance(64 * 64);
+        assertTrue(wheel.cancel("a"));
+        assertFalse(wheel.cancel("a"));
+        assertFalse(wheel.contains("a"));
+
+        assertEquals(List.of("b"), keys(wheel.advance(64 * 64 * 2)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleReplacesTheEarlierEntry() {
+        TimingWheel<String, String> wheel = wheel();
+        wheel.schedule("a", "old", 10);
+        wheel.schedule("a", "new", 64 * 64 + 3);
+        assertEquals(1, wheel.size());
+
+        assertTrue(wheel.advance(64 * 64 + 2).isEmpty());
+        List<TimingWheel.Entry<String, String>> expired = wheel.advance(64 * 64 + 3);
+        assertEquals(1, expired.size());
+        assertEquals("new", expired.get(0).getValue());
+    }
+
+    @Test
+    void alreadyExpiredEntryFiresOnNextTick() {
+        TimingWheel<String, String> wheel = wheel();
+        wheel.advance(1000);
+        wheel.schedule("past", "x", 500);
+
+        assertEquals(List.of("past"), keys(wheel.advance(1001)));
+    }
+}